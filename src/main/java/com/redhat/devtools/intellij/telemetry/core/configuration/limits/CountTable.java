@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * An open-addressed (linear probing) table of event names to counts.
+ * A count is packed into a single long that holds the epoch second of the last occurrence in the upper
+ * and the daily total in the lower {@link #TOTAL_BITS} bits.
+ * This class is not thread-safe.
+ */
+class CountTable {
+
+    /** The value for names that are not in the table. */
+    static final long ABSENT = -1;
+
+    static final int TOTAL_BITS = 30;
+    static final int MAX_TOTAL = (1 << TOTAL_BITS) - 1;
+    /* keeps the sign bit clear so that packed counts can't be ABSENT */
+    static final long MAX_EPOCH_SECOND = (1L << (Long.SIZE - 1 - TOTAL_BITS)) - 1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private long[] values;
+    private int size = 0;
+
+    CountTable() {
+        this(MIN_CAPACITY);
+    }
+
+    CountTable(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 / 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        this.keys = new String[capacity];
+        this.values = new long[capacity];
+    }
+
+    static long pack(long epochSecond, int total) {
+        long second = Math.max(0, Math.min(epochSecond, MAX_EPOCH_SECOND));
+        long clamped = Math.max(0, Math.min(total, MAX_TOTAL));
+        return (second << TOTAL_BITS) | clamped;
+    }
+
+    static long getEpochSecond(long packed) {
+        return packed >>> TOTAL_BITS;
+    }
+
+    static int getTotal(long packed) {
+        return (int) (packed & MAX_TOTAL);
+    }
+
+    /**
+     * Returns the packed count for the given name or {@link #ABSENT} if there is none.
+     *
+     * @param name the name of the event
+     * @return the packed count or {@link #ABSENT}
+     */
+    long get(String name) {
+        int index = indexOf(name, keys);
+        if (keys[index] == null) {
+            return ABSENT;
+        }
+        return values[index];
+    }
+
+    void put(String name, long packed) {
+        int index = indexOf(name, keys);
+        if (keys[index] == null) {
+            keys[index] = name;
+            size++;
+        }
+        values[index] = packed;
+        if (size * 3 > keys.length * 2) {
+            grow();
+        }
+    }
+
+    void forEach(ObjLongConsumer<String> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes the counts whose last occurrence is before the given epoch second.
+     *
+     * @param epochSecond the epoch second to remove counts before
+     * @param removed the consumer that is notified of the removed counts
+     * @return the number of removed counts
+     */
+    int removeOlderThan(long epochSecond, ObjLongConsumer<String> removed) {
+        return removeIf((name, packed) -> getEpochSecond(packed) < epochSecond, removed);
+    }
+
+    /**
+     * Removes the counts with the oldest last occurrences until at most the given number of counts remain.
+     *
+     * @param maxSize the number of counts that may remain
+     * @param removed the consumer that is notified of the removed counts
+     * @return the number of removed counts
+     */
+    int removeOldest(int maxSize, ObjLongConsumer<String> removed) {
+        int excess = size - maxSize;
+        if (excess <= 0) {
+            return 0;
+        }
+        long[] seconds = new long[size];
+        int i = 0;
+        for (int j = 0; j < keys.length; j++) {
+            if (keys[j] != null) {
+                seconds[i++] = getEpochSecond(values[j]);
+            }
+        }
+        Arrays.sort(seconds);
+        long threshold = seconds[excess - 1];
+        // remove all the counts before the threshold and as many at the threshold as needed
+        int[] atThreshold = { excess - countBefore(threshold, seconds) };
+        return removeIf((name, packed) -> {
+            long second = getEpochSecond(packed);
+            return second < threshold
+                    || (second == threshold && atThreshold[0]-- > 0);
+        }, removed);
+    }
+
+    private static int countBefore(long threshold, long[] sorted) {
+        int count = 0;
+        while (count < sorted.length
+                && sorted[count] < threshold) {
+            count++;
+        }
+        return count;
+    }
+
+    private int removeIf(EntryPredicate predicate, ObjLongConsumer<String> removed) {
+        String[] oldKeys = keys;
+        long[] oldValues = values;
+        this.keys = new String[oldKeys.length];
+        this.values = new long[oldValues.length];
+        int removedCount = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            if (predicate.test(oldKeys[i], oldValues[i])) {
+                removed.accept(oldKeys[i], oldValues[i]);
+                removedCount++;
+            } else {
+                int index = indexOf(oldKeys[i], keys);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+        this.size -= removedCount;
+        return removedCount;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, 0);
+        this.size = 0;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        long[] oldValues = values;
+        this.keys = new String[oldKeys.length << 1];
+        this.values = new long[oldValues.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = indexOf(oldKeys[i], keys);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private interface EntryPredicate {
+        boolean test(String name, long packed);
+    }
+
+    private static int indexOf(String name, String[] keys) {
+        int mask = keys.length - 1;
+        int hash = name.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+        while (keys[index] != null
+                && !keys[index].equals(name)) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
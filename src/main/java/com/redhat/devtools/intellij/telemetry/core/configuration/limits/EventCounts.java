@@ -18,20 +18,30 @@ import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-
-import static com.redhat.devtools.intellij.telemetry.core.util.TimeUtils.isToday;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A counter that stores daily occurrences of events.
  * The state is persisted and loaded by the IDEA platform
+ * <p>
+ * New occurrences are counted in concurrent (striped) counters per event name, so that events can be counted from
+ * any thread without locking. The counters are folded into the counts every {@link #FOLD_INTERVAL_MILLIS}
+ * and whenever the state is saved, which includes the save when the IDE is closed.
+ * Occurrences that are counted after this last save are not persisted.
+ * <p>
+ * When folding on a new day, the counts of events that didn't occur today are dropped. At most {@link #MAX_NAMES}
+ * events are counted, the events that occurred least recently are evicted once there are more.
  *
  * @see PersistentStateComponent
  */
@@ -47,19 +57,58 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
     }
 
     private static final String COUNT_VALUES_SEPARATOR = ",";
+    static final long FOLD_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    static final int MAX_NAMES = 1024;
+
+    private final TelemetryClock clock;
+    private final long foldInterval;
+    private final int maxNames;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private volatile long nextFold;
+    private long folds = 0;
+    private long compactedDay = Long.MIN_VALUE;
+    private long expired = 0;
+    private long evicted = 0;
+
+    EventCounts() {
+        this(TelemetryClock.SYSTEM, FOLD_INTERVAL_MILLIS);
+    }
 
-    EventCounts() {}
+    /* for testing purposes */
+    EventCounts(TelemetryClock clock, long foldInterval) {
+        this(clock, foldInterval, MAX_NAMES);
+    }
+
+    /* for testing purposes */
+    EventCounts(TelemetryClock clock, long foldInterval, int maxNames) {
+        this.clock = clock;
+        this.foldInterval = foldInterval;
+        this.maxNames = maxNames;
+        this.nextFold = clock.millis() + foldInterval;
+    }
 
+    /**
+     * The counts in their persisted form {@code "<epoch second of last occurrence>,<daily total>"}.
+     * Only read and written when the state is loaded or saved, the counts are kept in a {@link CountTable} in between.
+     */
     public final Map<String, String> counts = new HashMap<>();
 
+    private CountTable table;
+
     @Override
-    public EventCounts getState() {
+    public synchronized EventCounts getState() {
+        fold();
+        CountTable table = getTable();
+        counts.clear();
+        table.forEach((name, packed) -> counts.put(name, toString(packed)));
         return this;
     }
 
     @Override
-    public void loadState(@NotNull EventCounts state) {
-        XmlSerializerUtil.copyBean(state, this);
+    public synchronized void loadState(@NotNull EventCounts state) {
+        XmlSerializerUtil.copyBean(state.getState(), this);
+        // parsed on next access
+        this.table = null;
     }
 
     @Override
@@ -73,59 +122,184 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
     }
 
     @Nullable
-    public Count get(Event event) {
-        if (event == null) {
+    public synchronized Count get(Event event) {
+        if (event == null
+                || event.getName() == null) {
             return null;
         }
-        String countString = counts.get(event.getName());
-        return toCount(countString);
+        return toCount(getPacked(event.getName()));
+    }
+
+    /**
+     * Returns the number of times the given event occurred today. Doesn't allocate.
+     *
+     * @param event the event to return the daily total for
+     * @return the number of occurrences today
+     */
+    public synchronized int getDailyTotal(Event event) {
+        if (event == null
+                || event.getName() == null) {
+            return 0;
+        }
+        long packed = getPacked(event.getName());
+        if (packed == CountTable.ABSENT
+                || !clock.isToday(CountTable.getEpochSecond(packed))) {
+            return 0;
+        }
+        return CountTable.getTotal(packed);
+    }
+
+    private long getPacked(String name) {
+        long packed = getTable().get(name);
+        Pending counter = pending.get(name);
+        if (counter != null) {
+            packed = counter.addTo(packed, counter.adder.sum(), clock);
+        }
+        return packed;
     }
 
+    /**
+     * Counts a new occurrence of the given event. Doesn't block, can be called from any thread.
+     *
+     * @param event the event that occurred
+     */
     public void put(Event event) {
-        Count count = createOrUpdateCount(event);
-        put(event, count);
+        if (event == null
+                || event.getName() == null) {
+            return;
+        }
+        long now = clock.millis();
+        long second = TimeUnit.MILLISECONDS.toSeconds(now);
+        Pending counter = pending.computeIfAbsent(event.getName(), name -> new Pending());
+        while (!counter.add(second)) {
+            // retired by a concurrent compaction
+            pending.remove(event.getName(), counter);
+            counter = pending.computeIfAbsent(event.getName(), name -> new Pending());
+        }
+        if (now >= nextFold) {
+            synchronized (this) {
+                if (now >= nextFold) {
+                    fold();
+                }
+            }
+        }
     }
 
-    EventCounts put(Event event, Count count) {
-        if (event == null) {
+    synchronized EventCounts put(Event event, Count count) {
+        if (event == null
+                || event.getName() == null) {
             return this;
         }
-        counts.put(event.getName(), toString(count));
+        fold();
+        getTable().put(event.getName(), toPacked(count));
         return this;
     }
 
-    private Count createOrUpdateCount(Event event) {
-        Count count = get(event);
-        if (count != null) {
-            // update existing
-            count = count.newOccurrence();
-        } else {
-            // create new
-            count = new Count();
+    /**
+     * Adds the pending occurrences to the counts. Needs to be called while holding the lock on this instance.
+     */
+    private void fold() {
+        this.nextFold = clock.millis() + foldInterval;
+        CountTable table = getTable();
+        pending.forEach((name, counter) -> {
+            // occurrences that are added meanwhile remain in the adder
+            long occurrences = counter.adder.sumThenReset();
+            if (occurrences > 0) {
+                table.put(name, counter.addTo(table.get(name), occurrences, clock));
+            }
+        });
+        folds++;
+        compact(table);
+    }
+
+    /**
+     * Drops the counts of the events that didn't occur today once the day changed
+     * and evicts the least recently occurred events if there are more than the maximum number of names.
+     */
+    private void compact(CountTable table) {
+        long startOfToday = clock.startOfDay();
+        if (startOfToday != compactedDay) {
+            this.compactedDay = startOfToday;
+            this.expired += table.removeOlderThan(startOfToday,
+                    (name, packed) -> retire(name, startOfToday));
         }
-        return count;
+        this.evicted += table.removeOldest(maxNames,
+                (name, packed) -> retire(name, CountTable.getEpochSecond(packed) + 1));
     }
 
-    private Count toCount(String string) {
-        if (StringUtil.isEmpty(string)) {
-            return null;
+    private void retire(String name, long before) {
+        Pending counter = pending.get(name);
+        if (counter != null
+                && counter.retire(before)) {
+            pending.remove(name, counter);
+        }
+    }
+
+    /**
+     * Returns the number of counts that were dropped because the event didn't occur on the current day.
+     *
+     * @return the number of dropped counts
+     */
+    public synchronized long getExpired() {
+        return expired;
+    }
+
+    /**
+     * Returns the number of counts that were evicted because there were more than the maximum number of events.
+     *
+     * @return the number of evicted counts
+     */
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    /* for testing purposes */
+    synchronized long getFolds() {
+        return folds;
+    }
+
+    /* for testing purposes */
+    synchronized int size() {
+        return getTable().size();
+    }
+
+    private CountTable getTable() {
+        if (table == null) {
+            this.table = toTable(counts);
         }
-        String[] split = string.split(COUNT_VALUES_SEPARATOR);
-        LocalDateTime lastOccurrence = toLastOccurrence(split[0]);
-        int total = toTotal(split[1]);
-        return new Count(lastOccurrence, total);
+        return table;
+    }
+
+    private static CountTable toTable(Map<String, String> counts) {
+        CountTable table = new CountTable(counts.size());
+        counts.forEach((name, value) -> {
+            long packed = toPacked(value);
+            if (name != null
+                    && packed != CountTable.ABSENT) {
+                table.put(name, packed);
+            }
+        });
+        return table;
     }
 
-    private LocalDateTime toLastOccurrence(String value) {
+    private static long toPacked(String string) {
+        if (StringUtil.isEmpty(string)) {
+            return CountTable.ABSENT;
+        }
+        int separator = string.indexOf(COUNT_VALUES_SEPARATOR);
+        if (separator < 0) {
+            return CountTable.ABSENT;
+        }
         try {
-            long epochSeconds = Long.parseLong(value);
-            return LocalDateTime.ofEpochSecond(epochSeconds, 0, ZonedDateTime.now().getOffset());
+            long epochSecond = Long.parseLong(string.substring(0, separator));
+            return CountTable.pack(epochSecond, toTotal(string.substring(separator + 1)));
         } catch (NumberFormatException e) {
-            return null;
+            // unknown last occurrence
+            return CountTable.ABSENT;
         }
     }
 
-    private int toTotal(String value) {
+    private static int toTotal(String value) {
         try {
             return Integer.parseInt(value);
         } catch (NumberFormatException e) {
@@ -133,17 +307,90 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
         }
     }
 
-    String toString(@NotNull Count count) {
-        long epochSecond = count.lastOccurrence.toEpochSecond(ZonedDateTime.now().getOffset());
-        return epochSecond + COUNT_VALUES_SEPARATOR + count.dailyTotal;
+    private long toPacked(@NotNull Count count) {
+        long epochSecond = count.lastOccurrence.toEpochSecond(clock.offset());
+        return CountTable.pack(epochSecond, count.dailyTotal);
+    }
+
+    private Count toCount(long packed) {
+        if (packed == CountTable.ABSENT) {
+            return null;
+        }
+        LocalDateTime lastOccurrence = LocalDateTime.ofEpochSecond(
+                CountTable.getEpochSecond(packed), 0, clock.offset());
+        return new Count(lastOccurrence, CountTable.getTotal(packed), clock);
+    }
+
+    private static String toString(long packed) {
+        return CountTable.getEpochSecond(packed) + COUNT_VALUES_SEPARATOR + CountTable.getTotal(packed);
+    }
+
+    /**
+     * The occurrences of an event that were not folded into the counts yet.
+     */
+    private static class Pending {
+
+        private static final long RETIRED = -1;
+
+        private final LongAdder adder = new LongAdder();
+        private final AtomicLong lastOccurrence = new AtomicLong();
+
+        /**
+         * Adds an occurrence at the given epoch second.
+         * Returns {@code false} if this counter was retired and the occurrence needs to be added to a new counter.
+         */
+        private boolean add(long epochSecond) {
+            long last;
+            do {
+                last = lastOccurrence.get();
+                if (last == RETIRED) {
+                    return false;
+                }
+            } while (!lastOccurrence.compareAndSet(last, Math.max(last, epochSecond)));
+            adder.increment();
+            // retired before the occurrence was counted
+            return lastOccurrence.get() != RETIRED;
+        }
+
+        /**
+         * Retires this counter if it holds no occurrences and its last occurrence is before the given epoch second.
+         */
+        private boolean retire(long before) {
+            long last = lastOccurrence.get();
+            return last != RETIRED
+                    && last < before
+                    && adder.sum() == 0
+                    && lastOccurrence.compareAndSet(last, RETIRED);
+        }
+
+        /**
+         * Returns the given packed count with the given number of occurrences added.
+         * The count starts over if its last occurrence was on an other day than the last pending occurrence.
+         */
+        private long addTo(long packed, long occurrences, TelemetryClock clock) {
+            if (occurrences <= 0) {
+                return packed;
+            }
+            long last = lastOccurrence.get();
+            long total = occurrences;
+            if (packed != CountTable.ABSENT) {
+                long previous = CountTable.getEpochSecond(packed);
+                last = Math.max(last, previous);
+                if (clock.toEpochDay(previous) == clock.toEpochDay(last)) {
+                    total += CountTable.getTotal(packed);
+                }
+            }
+            return CountTable.pack(last, (int) Math.min(total, CountTable.MAX_TOTAL));
+        }
     }
 
     public static class Count {
         private final LocalDateTime lastOccurrence;
         private final int dailyTotal;
+        private final TelemetryClock clock;
 
         Count() {
-            this(LocalDateTime.now(), 1);
+            this(TelemetryClock.SYSTEM.now(), 1);
         }
 
         @Override
@@ -160,8 +407,13 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
         }
 
         Count(LocalDateTime lastOccurrence, int dailyTotal) {
+            this(lastOccurrence, dailyTotal, TelemetryClock.SYSTEM);
+        }
+
+        Count(LocalDateTime lastOccurrence, int dailyTotal, TelemetryClock clock) {
             this.lastOccurrence = lastOccurrence;
             this.dailyTotal = dailyTotal;
+            this.clock = clock;
         }
 
         public LocalDateTime getLastOccurrence() {
@@ -169,7 +421,7 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
         }
 
         public int getDailyTotal() {
-            if (isToday(lastOccurrence)) {
+            if (clock.isToday(lastOccurrence)) {
                 return dailyTotal;
             } else {
                 return 0;
@@ -177,7 +429,7 @@ public final class EventCounts implements PersistentStateComponent<EventCounts>
         }
 
         public Count newOccurrence() {
-            return new Count(LocalDateTime.now(), getDailyTotal() + 1);
+            return new Count(clock.now(), getDailyTotal() + 1, clock);
         }
     }
 }
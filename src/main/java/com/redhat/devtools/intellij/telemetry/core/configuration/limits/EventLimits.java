@@ -10,39 +10,28 @@
  ******************************************************************************/
 package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
 
-import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.text.StringUtil;
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
-import com.redhat.devtools.intellij.telemetry.core.util.TimeUtils;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
-import java.nio.file.attribute.FileTime;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.List;
+import java.util.concurrent.Executor;
 
-import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.EventCounts.Count;
-
+/**
+ * The limits of a plugin. A lightweight view on the limits of all plugins in the {@link LimitsRegistry}.
+ */
 public class EventLimits implements IEventLimits {
 
-    private static final Logger LOGGER = Logger.getInstance(EventLimits.class);
-
-    static final Duration DEFAULT_REFRESH_PERIOD = Duration.ofHours(6);
     private final String pluginId;
-    private final PluginLimitsFactory factory;
-    private final LimitsConfigurations configuration;
+    private final LimitsRegistry registry;
     private final EventCounts counts;
-    private List<PluginLimits> limits;
+    private SendDecisions decisions;
 
     interface PluginLimitsFactory {
         List<PluginLimits> create(String json) throws IOException;
     }
 
     public EventLimits(String pluginId) {
-        this(pluginId, null, PluginLimitsDeserialization::create, new LimitsConfigurations(), EventCounts.getInstance());
+        this(pluginId, LimitsRegistry.getInstance(), EventCounts.getInstance());
     }
 
     EventLimits(String pluginId,
@@ -50,131 +39,61 @@ public class EventLimits implements IEventLimits {
                 PluginLimitsFactory factory,
                 LimitsConfigurations configuration,
                 EventCounts counts) {
-        this.pluginId = pluginId;
-        this.limits = limits;
-        this.factory = factory;
-        this.configuration = configuration;
-        this.counts = counts;
-    }
-
-    public boolean canSend(Event event) {
-        List<PluginLimits> all = getAllLimits();
-        PluginLimits pluginLimits = getPluginLimits(pluginId, all);
-        int total = getApplicableTotal(counts.get(event));
-        if (pluginLimits != null) {
-            return pluginLimits.canSend(event, total);
-        } else {
-            PluginLimits defaultLimits = getDefaultLimits(all);
-            if (defaultLimits == null) {
-                return true;
-            }
-            return defaultLimits.canSend(event, total);
-        }
-    }
-
-    public void wasSent(Event event) {
-        counts.put(event);
-    }
-
-    private int getApplicableTotal(Count count) {
-        if (occurredToday(count)) {
-            return count.getDailyTotal();
-        } else {
-            return 0;
-        }
+        this(pluginId, limits, factory, configuration, counts, Runnable::run);
     }
 
-    private static boolean occurredToday(Count count) {
-        return count != null
-                && count.getLastOccurrence() != null
-                && TimeUtils.isToday(count.getLastOccurrence());
+    EventLimits(String pluginId,
+                List<PluginLimits> limits,
+                PluginLimitsFactory factory,
+                LimitsConfigurations configuration,
+                EventCounts counts,
+                Executor executor) {
+        this(pluginId, new LimitsRegistry(limits, factory, configuration, executor), counts);
     }
 
-
-    /* for testing purposes */
-    List<PluginLimits> getAllLimits() {
-        PluginLimits defaults = getDefaultLimits(limits);
-        Duration refreshAfter = getRefreshAfter(defaults);
-        FileTime lastModified = configuration.getLocalLastModified();
-        if (needsRefresh(refreshAfter, lastModified)) {
-            this.limits = downloadRemote(configuration, factory);
-        } else if (limits == null) {
-            this.limits = readLocal(configuration, factory);
-        }
-        return limits;
+    EventLimits(String pluginId, LimitsRegistry registry, EventCounts counts) {
+        this.pluginId = pluginId;
+        this.registry = registry;
+        this.counts = counts;
     }
 
-    private boolean needsRefresh(Duration refreshAfter, FileTime modified) {
-        if (modified == null) {
-            return true;
-        }
-        LocalDateTime modificationLocalTime = LocalDateTime.ofInstant(modified.toInstant(), ZoneId.systemDefault());
-        LocalDateTime refreshAt = modificationLocalTime.plus(refreshAfter);
-        return refreshAt.isBefore(LocalDateTime.now());
+    /**
+     * Loads the limits in the background so that they are present when the first event is sent.
+     */
+    public void warmUp() {
+        registry.warmUp();
     }
 
-    @Nullable
-    private PluginLimits getDefaultLimits(List<PluginLimits> limits) {
+    public boolean canSend(Event event) {
+        SendDecisions decisions = getDecisions(registry.getSnapshot());
+        PluginLimits limits = decisions.getLimits();
         if (limits == null) {
-            return null;
-        }
-        return limits.stream()
-                .filter(PluginLimits::isDefault)
-                .findAny()
-                .orElse(null);
-    }
-
-    @Nullable
-    private PluginLimits getPluginLimits(String pluginId, List<PluginLimits> allLimits) {
-        if (allLimits == null
-                || StringUtil.isEmptyOrSpaces(pluginId)) {
-            return null;
+            return true;
         }
-        return allLimits.stream()
-                .filter(limits -> pluginId.equals(limits.getPluginId()))
-                .findAny()
-                .orElse(null);
-    }
-
-    @NotNull
-    private Duration getRefreshAfter(PluginLimits defaults) {
-        if (defaults == null
-                || defaults.getRefresh() == -1) {
-            return DEFAULT_REFRESH_PERIOD;
+        if (event == null
+                || !decisions.isCacheable()) {
+            return limits.canSend(event, counts.getDailyTotal(event));
         }
-        return Duration.ofHours(defaults.getRefresh());
+        return decisions.get(event).canSend(() -> counts.getDailyTotal(event));
     }
 
-    private List<PluginLimits> readLocal(LimitsConfigurations configuration, PluginLimitsFactory factory) {
-        try {
-            String config = configuration.readLocal();
-            if (StringUtil.isEmptyOrSpaces(config)) {
-                return downloadRemote(configuration, factory);
-            }
-            return factory.create(config);
-        } catch (Exception e) {
-            return downloadRemote(configuration, factory);
+    private SendDecisions getDecisions(LimitsRegistry.Snapshot snapshot) {
+        SendDecisions decisions = this.decisions;
+        if (decisions == null
+                || !decisions.isFor(snapshot.getLimits())) {
+            // limits were (re)loaded
+            decisions = new SendDecisions(snapshot.getLimits(), snapshot.getApplicableLimits(pluginId));
+            this.decisions = decisions;
         }
+        return decisions;
     }
 
-    @Nullable
-    private List<PluginLimits> downloadRemote(LimitsConfigurations configuration, PluginLimitsFactory factory) {
-        try {
-            String config = configuration.downloadRemote();
-            if (StringUtil.isEmptyOrSpaces(config)) {
-                return createEmbeddedLimits(configuration, factory);
-            }
-            return factory.create(config);
-        } catch (Exception e) {
-            return createEmbeddedLimits(configuration, factory);
-        }
+    public void wasSent(Event event) {
+        counts.put(event);
     }
 
-    private List<PluginLimits> createEmbeddedLimits(LimitsConfigurations configuration, PluginLimitsFactory factory) {
-        try {
-            return factory.create(configuration.readEmbedded());
-        } catch (IOException e) {
-            return null;
-        }
+    /* for testing purposes */
+    List<PluginLimits> getAllLimits() {
+        return registry.getSnapshot().getLimits();
     }
 }
@@ -32,9 +32,17 @@ public interface Filter {
             this.glob = BasicGlobPattern.compile(valueGlob);
         }
 
+        String getName() {
+            return name;
+        }
+
         @Override
         public boolean isMatching(Event event) {
             String value = event.getProperties().get(name);
+            return isMatching(value);
+        }
+
+        boolean isMatching(String value) {
             return glob.matches(value);
         }
 
@@ -76,6 +84,10 @@ public interface Filter {
             return dailyLimit;
         }
 
+        String getGlob() {
+            return name.getGlob();
+        }
+
         @Override
         public boolean isMatching(Event event) {
             return name.matches(event.getName());
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.intellij.openapi.util.text.StringUtil;
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of filters compiled for fast lookup of the first filter that matches an event.
+ * <ul>
+ *     <li>literal event names are looked up in a hash map</li>
+ *     <li>event names globs that are a literal followed or preceded by wildcards only ({@code foo*}, {@code *bar})
+ *     are looked up in a prefix or a suffix trie</li>
+ *     <li>property filters are grouped by property name</li>
+ *     <li>all other filters are matched one after the other</li>
+ * </ul>
+ * Each filter keeps its position in the list so that the first matching filter in the list is returned,
+ * just like a linear scan would.
+ */
+class FilterIndex {
+
+    private static final char SEPARATOR = '/';
+    private static final String GLOB_META_CHARS = "\\*?[{";
+
+    private final List<Filter> filters;
+    private final Map<String, Integer> literals = new HashMap<>();
+    private final Trie prefixes = new Trie();
+    private final Trie suffixes = new Trie();
+    private final Map<String, List<Integer>> properties = new LinkedHashMap<>();
+    private final List<Integer> general = new ArrayList<>();
+
+    FilterIndex(List<Filter> filters) {
+        this.filters = filters == null ? Collections.emptyList() : filters;
+        for (int position = 0; position < this.filters.size(); position++) {
+            add(position, this.filters.get(position));
+        }
+    }
+
+    private void add(int position, Filter filter) {
+        if (filter != null
+                && filter.getClass() == Filter.EventNameFilter.class) {
+            addEventNameFilter(position, ((Filter.EventNameFilter) filter).getGlob());
+        } else if (filter != null
+                && filter.getClass() == Filter.EventPropertyFilter.class) {
+            properties.computeIfAbsent(((Filter.EventPropertyFilter) filter).getName(), name -> new ArrayList<>())
+                    .add(position);
+        } else {
+            general.add(position);
+        }
+    }
+
+    private void addEventNameFilter(int position, String glob) {
+        if (glob == null) {
+            general.add(position);
+            return;
+        }
+        int leading = countWildcards(glob, true);
+        int trailing = countWildcards(glob, false);
+        if (leading == glob.length()) {
+            // wildcards only: matches any (non-empty) name
+            prefixes.add("", position, trailing > 1);
+            return;
+        }
+        String literal = glob.substring(leading, glob.length() - trailing);
+        if (!isLiteral(literal)) {
+            general.add(position);
+        } else if (leading == 0
+                && trailing == 0) {
+            if (!literal.isEmpty()) { // empty names never match
+                literals.putIfAbsent(literal, position);
+            }
+        } else if (leading == 0) {
+            prefixes.add(literal, position, trailing > 1);
+        } else if (trailing == 0) {
+            suffixes.add(new StringBuilder(literal).reverse().toString(), position, leading > 1);
+        } else {
+            general.add(position);
+        }
+    }
+
+    private static int countWildcards(String glob, boolean leading) {
+        int count = 0;
+        while (count < glob.length()
+                && glob.charAt(leading ? count : glob.length() - 1 - count) == '*') {
+            count++;
+        }
+        if (!leading
+                && count < glob.length()
+                && glob.charAt(glob.length() - 1 - count) == '\\') {
+            // escaped wildcard is part of the literal
+            count--;
+        }
+        return count;
+    }
+
+    private static boolean isLiteral(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            if (GLOB_META_CHARS.indexOf(glob.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first filter (in list order) that matches the given event.
+     *
+     * @param event the event to match
+     * @return the first matching filter or {@code null} if none matches
+     */
+    Filter getFirstMatching(Event event) {
+        if (event == null
+                || filters.isEmpty()) {
+            return null;
+        }
+        int first = Integer.MAX_VALUE;
+        String name = event.getName();
+        if (!StringUtil.isEmpty(name)) {
+            first = Math.min(first, literals.getOrDefault(name, Integer.MAX_VALUE));
+            first = prefixes.getFirstMatching(name, false, first);
+            first = suffixes.getFirstMatching(name, true, first);
+        }
+        first = getFirstMatchingProperty(event, first);
+        first = getFirstMatchingGeneral(event, first);
+        return first == Integer.MAX_VALUE ? null : filters.get(first);
+    }
+
+    private int getFirstMatchingProperty(Event event, int first) {
+        if (properties.isEmpty()
+                || event.getProperties() == null) {
+            return first;
+        }
+        for (Map.Entry<String, List<Integer>> entry : properties.entrySet()) {
+            String value = event.getProperties().get(entry.getKey());
+            if (StringUtil.isEmpty(value)) {
+                // empty values never match
+                continue;
+            }
+            for (int position : entry.getValue()) {
+                if (position >= first) {
+                    break;
+                }
+                if (((Filter.EventPropertyFilter) filters.get(position)).isMatching(value)) {
+                    first = position;
+                    break;
+                }
+            }
+        }
+        return first;
+    }
+
+    private int getFirstMatchingGeneral(Event event, int first) {
+        for (int position : general) {
+            if (position >= first) {
+                break;
+            }
+            if (filters.get(position).isMatching(event)) {
+                return position;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * A character trie of literals. A literal that is followed by {@code *} matches names that start with it and
+     * continue without a separator, a literal that is followed by {@code **} matches any continuation.
+     * Suffixes are stored reversed.
+     */
+    private static class Trie {
+
+        private final Node root = new Node();
+
+        void add(String literal, int position, boolean crossesSeparator) {
+            Node node = root;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.children.computeIfAbsent(literal.charAt(i), character -> new Node());
+            }
+            if (crossesSeparator) {
+                node.crossing = Math.min(node.crossing, position);
+            } else {
+                node.nonCrossing = Math.min(node.nonCrossing, position);
+            }
+        }
+
+        int getFirstMatching(String name, boolean reversed, int first) {
+            if (root.children.isEmpty()
+                    && root.isEmpty()) {
+                return first;
+            }
+            int length = name.length();
+            // position of the separator that is closest to the end of the literal
+            int separator = reversed ? name.indexOf(SEPARATOR) : name.lastIndexOf(SEPARATOR);
+            Node node = root;
+            for (int depth = 0; node != null; depth++) {
+                // the rest of the name is what the wildcard(s) have to match
+                boolean restHasSeparator = reversed
+                        ? separator != -1 && separator < length - depth
+                        : separator >= depth;
+                if (node.crossing < first) {
+                    first = node.crossing;
+                }
+                if (node.nonCrossing < first
+                        && !restHasSeparator) {
+                    first = node.nonCrossing;
+                }
+                if (depth == length) {
+                    break;
+                }
+                char character = name.charAt(reversed ? length - 1 - depth : depth);
+                node = node.children.get(character);
+            }
+            return first;
+        }
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<>(4);
+            private int crossing = Integer.MAX_VALUE;
+            private int nonCrossing = Integer.MAX_VALUE;
+
+            boolean isEmpty() {
+                return crossing == Integer.MAX_VALUE
+                        && nonCrossing == Integer.MAX_VALUE;
+            }
+        }
+    }
+}
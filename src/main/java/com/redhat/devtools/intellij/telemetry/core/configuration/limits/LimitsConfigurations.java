@@ -18,22 +18,32 @@ import okhttp3.Request;
 import okhttp3.Response;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
+import java.util.Properties;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
-import static com.redhat.devtools.intellij.telemetry.core.util.FileUtils.ensureExists;
 import static com.redhat.devtools.intellij.telemetry.core.util.FileUtils.getPathForFileUrl;
 
+/**
+ * Reads the limits configurations from the local file, the remote url or the embedded resource.
+ * Remote downloads are conditional: the validators (ETag, Last-Modified) of the local file are stored next to it
+ * and sent along so that an unchanged configuration is not transferred again.
+ * Responses are gzip-compressed transparently by the http client.
+ * A download is only written to the local file (along with its validators) once it is committed with
+ * {@link #commitRemote(String)}, so that a configuration that can't be parsed is downloaded again on the next refresh.
+ */
 class LimitsConfigurations {
 
     private static final Logger LOGGER = Logger.getInstance(LimitsConfigurations.class);
@@ -42,12 +52,35 @@ class LimitsConfigurations {
     static final String REMOTE = "https://raw.githubusercontent.com/redhat-developer/intellij-redhat-telemetry/main/src/main/resources/telemetry-config.json";
     static final String SYSTEM_PROP_REMOTE = "REDHAT_TELEMETRY_REMOTE_CONFIG_URL";
 
-    protected final OkHttpClient client = new OkHttpClient.Builder()
+    static final String HEADER_ETAG = "ETag";
+    static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String VALIDATORS_SUFFIX = ".validators";
+
+    /* shared by all instances: connection pool and dispatcher threads are created once */
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
             .connectTimeout(5, TimeUnit.SECONDS)
             .readTimeout(5, TimeUnit.SECONDS)
             .writeTimeout(5, TimeUnit.SECONDS)
             .build();
 
+    protected final OkHttpClient client = CLIENT;
+    private final Path local;
+    private final Path validators;
+    /* the last download that was not committed yet */
+    private Download pending;
+
+    LimitsConfigurations() {
+        this(LOCAL);
+    }
+
+    /* for testing purposes */
+    LimitsConfigurations(Path local) {
+        this.local = local;
+        this.validators = local.resolveSibling(local.getFileName() + VALIDATORS_SUFFIX);
+    }
+
     @Nullable
     public String downloadRemote() {
         String url = System.getProperty(SYSTEM_PROP_REMOTE);
@@ -80,28 +113,140 @@ class LimitsConfigurations {
     }
 
     @Nullable String download(String url) {
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("Content-Type", "application/json")
-                .build();
-        try (Response response = client.newCall(request).execute()) {
-            if (response.body() != null) {
-                Files.copy(response.body().byteStream(), ensureExists(LOCAL), StandardCopyOption.REPLACE_EXISTING);
+        setPending(null);
+        // no Accept-Encoding: okhttp then requests and decompresses gzip transparently
+        Request.Builder builder = new Request.Builder()
+                .url(url);
+        addValidators(builder);
+        try (Response response = client.newCall(builder.build()).execute()) {
+            if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                String content = readLocal();
+                setPending(content == null ? null : new Download(content, null, null, null));
+                return content;
             }
-            return readLocal();
+            if (!response.isSuccessful()) {
+                LOGGER.warn("Could not download remote limits configurations from " + url + ": HTTP " + response.code());
+                return null;
+            }
+            if (response.body() == null) {
+                return null;
+            }
+            byte[] bytes = response.body().bytes();
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            setPending(new Download(content, bytes, response.header(HEADER_ETAG), response.header(HEADER_LAST_MODIFIED)));
+            return content;
         } catch (Exception e) {
             LOGGER.warn("Could not download remote limits configurations from " + url, e);
             return null;
         }
     }
 
+    private void addValidators(Request.Builder builder) {
+        if (!Files.exists(local)) {
+            return;
+        }
+        Properties properties = readValidators();
+        String etag = properties.getProperty(HEADER_ETAG);
+        if (etag != null) {
+            builder.addHeader(HEADER_IF_NONE_MATCH, etag);
+        }
+        String lastModified = properties.getProperty(HEADER_LAST_MODIFIED);
+        if (lastModified != null) {
+            builder.addHeader(HEADER_IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    private synchronized void setPending(Download download) {
+        this.pending = download;
+    }
+
+    /**
+     * Writes the given content, that was returned by {@link #downloadRemote()}, to the local file once it was parsed
+     * successfully. A configuration that was not modified is touched so that it's refreshed again in a full period.
+     * Does nothing if the given content is not the last download.
+     *
+     * @param content the downloaded content that was parsed successfully
+     */
+    public synchronized void commitRemote(String content) {
+        Download download = this.pending;
+        if (download == null
+                || download.content != content) {
+            return;
+        }
+        this.pending = null;
+        try {
+            if (download.bytes == null) {
+                // local file is up-to-date, refresh again in a full period
+                Files.setLastModifiedTime(local, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                write(download.bytes, local);
+                writeValidators(download.etag, download.lastModified);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write limits configurations to " + local, e);
+        }
+    }
+
+    private static void write(byte[] content, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), null);
+        try {
+            Files.write(temp, content);
+            move(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            // readers never see a partially written file
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Properties readValidators() {
+        Properties properties = new Properties();
+        if (Files.exists(validators)) {
+            try (Reader reader = Files.newBufferedReader(validators, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.debug("Could not read validators of limits configurations from " + validators, e);
+            }
+        }
+        return properties;
+    }
+
+    private void writeValidators(String etag, String lastModified) {
+        Properties properties = new Properties();
+        if (etag != null) {
+            properties.setProperty(HEADER_ETAG, etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty(HEADER_LAST_MODIFIED, lastModified);
+        }
+        try {
+            if (properties.isEmpty()) {
+                Files.deleteIfExists(validators);
+                return;
+            }
+            StringWriter writer = new StringWriter();
+            properties.store(writer, null);
+            write(writer.toString().getBytes(StandardCharsets.UTF_8), validators);
+        } catch (IOException e) {
+            LOGGER.debug("Could not write validators of limits configurations to " + validators, e);
+        }
+    }
+
     @Nullable
     public FileTime getLocalLastModified() {
         try {
-            if (!Files.exists(LOCAL)) {
+            if (!Files.exists(local)) {
                 return null;
             }
-            return Files.getLastModifiedTime(LOCAL);
+            return Files.getLastModifiedTime(local);
         } catch (Throwable e) {
             return null;
         }
@@ -110,7 +255,7 @@ class LimitsConfigurations {
     @Nullable
     public String readLocal() {
         try {
-            return toString(Files.newInputStream(LOCAL));
+            return toString(Files.newInputStream(local));
         } catch (IOException e) {
             return null;
         }
@@ -124,8 +269,27 @@ class LimitsConfigurations {
         if (in == null) {
             return null;
         }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
-            return reader.lines().collect(Collectors.joining());
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Downloaded content that is not written to the local file yet.
+     */
+    private static class Download {
+
+        private final String content;
+        /* null if the local file was not modified */
+        private final byte[] bytes;
+        private final String etag;
+        private final String lastModified;
+
+        private Download(String content, byte[] bytes, String etag, String lastModified) {
+            this.content = content;
+            this.bytes = bytes;
+            this.etag = etag;
+            this.lastModified = lastModified;
         }
     }
 
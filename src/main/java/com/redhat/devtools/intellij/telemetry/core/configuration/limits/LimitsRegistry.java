@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.EventLimits.PluginLimitsFactory;
+import com.redhat.devtools.intellij.telemetry.core.service.UserId;
+import com.redhat.devtools.intellij.telemetry.core.util.Lazy;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The limits of all the plugins in this IDE.
+ * The configuration is parsed once and the limits are indexed by plugin id.
+ * Stale limits are served while the remote configuration is downloaded in the background.
+ * Failed downloads are retried with a backoff, meanwhile the last good (or the embedded) limits are served.
+ * Refreshes are delayed by a per-user amount so that all the users don't download at the same time.
+ * The refresh thread is stopped once the registry is disposed.
+ *
+ * @see EventLimits
+ */
+@Service
+public final class LimitsRegistry implements Disposable {
+
+    private static final Logger LOGGER = Logger.getInstance(LimitsRegistry.class);
+
+    public static LimitsRegistry getInstance() {
+        return ApplicationManager.getApplication().getService(LimitsRegistry.class);
+    }
+
+    static final Duration DEFAULT_REFRESH_PERIOD = Duration.ofHours(6);
+    /* at most 10% of the refresh period */
+    static final double MAX_REFRESH_JITTER = 0.1;
+    private static final String REFRESH_THREAD_NAME = "Red Hat Telemetry Limits Refresh";
+
+    private final PluginLimitsFactory factory;
+    private final LimitsConfigurations configuration;
+    private final Executor executor;
+    private final List<PluginLimits> initialLimits;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final RefreshBackoff backoff;
+    private final Lazy<List<PluginLimits>> embedded;
+    private final DoubleSupplier percentile;
+    private final TelemetryClock clock;
+
+    LimitsRegistry() {
+        this(null, PluginLimitsDeserialization::create, new LimitsConfigurations(), createExecutor(), new RefreshBackoff(), UserId.INSTANCE::getPercentile);
+    }
+
+    /* for testing purposes */
+    LimitsRegistry(List<PluginLimits> limits,
+                   PluginLimitsFactory factory,
+                   LimitsConfigurations configuration,
+                   Executor executor) {
+        this(limits, factory, configuration, executor, new RefreshBackoff(), () -> 0);
+    }
+
+    /* for testing purposes */
+    LimitsRegistry(List<PluginLimits> limits,
+                   PluginLimitsFactory factory,
+                   LimitsConfigurations configuration,
+                   Executor executor,
+                   RefreshBackoff backoff,
+                   DoubleSupplier percentile) {
+        this(limits, factory, configuration, executor, backoff, percentile, TelemetryClock.SYSTEM);
+    }
+
+    /* for testing purposes */
+    LimitsRegistry(List<PluginLimits> limits,
+                   PluginLimitsFactory factory,
+                   LimitsConfigurations configuration,
+                   Executor executor,
+                   RefreshBackoff backoff,
+                   DoubleSupplier percentile,
+                   TelemetryClock clock) {
+        this.initialLimits = limits;
+        this.factory = factory;
+        this.configuration = configuration;
+        this.executor = executor;
+        this.backoff = backoff;
+        this.embedded = new Lazy<>(() -> createEmbeddedLimits(configuration, factory));
+        this.percentile = percentile;
+        this.clock = clock;
+    }
+
+    private static ExecutorService createExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, REFRESH_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void dispose() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the limits in the background so that they are present when the first event is sent.
+     */
+    public void warmUp() {
+        execute(this::getSnapshot);
+    }
+
+    /**
+     * Returns the current limits. Limits that are due for a refresh are returned as is
+     * while the remote limits are downloaded in the background.
+     *
+     * @return the current limits
+     */
+    @NotNull
+    Snapshot getSnapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            current = load();
+        }
+        long now = clock.millis();
+        if (current.isStale(now)
+                && backoff.allowsAttempt(now)) {
+            refresh();
+        }
+        // refresh may have been run synchronously
+        return snapshot.get();
+    }
+
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        List<PluginLimits> limits = initialLimits;
+        if (limits == null) {
+            limits = readLocal(configuration, factory);
+        }
+        if (limits != null) {
+            current = new Snapshot(limits, getRefreshAt(configuration.getLocalLastModified(), limits));
+        } else {
+            // serve embedded limits until remote limits are downloaded
+            current = new Snapshot(embedded.get(), 0);
+        }
+        snapshot.compareAndSet(null, current);
+        return snapshot.get();
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            // refresh in progress
+            return;
+        }
+        execute(() -> {
+            try {
+                List<PluginLimits> limits = downloadRemote(configuration, factory);
+                long now = clock.millis();
+                if (limits != null) {
+                    backoff.onSuccess();
+                    snapshot.set(new Snapshot(limits, getRefreshAt(now, limits)));
+                } else {
+                    onRefreshFailed(backoff.onFailure(now));
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private void onRefreshFailed(long retryAt) {
+        LOGGER.debug("Could not refresh telemetry limits, retrying in " + Duration.ofMillis(retryAt - clock.millis()) + ".");
+        Snapshot current = snapshot.get();
+        if (current.getLimits() != null) {
+            // keep serving last good limits
+            snapshot.set(current.withRefreshAt(retryAt));
+        } else {
+            snapshot.set(new Snapshot(embedded.get(), retryAt));
+        }
+    }
+
+    private void execute(Runnable runnable) {
+        try {
+            executor.execute(runnable);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not refresh telemetry limits.", e);
+            refreshing.set(false);
+        }
+    }
+
+    private long getRefreshAt(FileTime lastModified, List<PluginLimits> limits) {
+        if (lastModified == null) {
+            return 0;
+        }
+        return getRefreshAt(lastModified.toMillis(), limits);
+    }
+
+    long getRefreshAt(long from, List<PluginLimits> limits) {
+        long period = getRefreshAfter(limits).toMillis();
+        // the same user always gets the same offset
+        long jitter = (long) (period * MAX_REFRESH_JITTER * percentile.getAsDouble());
+        return from + period + jitter;
+    }
+
+    @NotNull
+    private static Duration getRefreshAfter(List<PluginLimits> limits) {
+        PluginLimits defaults = Snapshot.getDefaultLimits(limits);
+        if (defaults == null
+                || defaults.getRefresh() == -1) {
+            return DEFAULT_REFRESH_PERIOD;
+        }
+        return Duration.ofHours(defaults.getRefresh());
+    }
+
+    @Nullable
+    private static List<PluginLimits> readLocal(LimitsConfigurations configuration, PluginLimitsFactory factory) {
+        try {
+            String config = configuration.readLocal();
+            if (StringUtil.isEmptyOrSpaces(config)) {
+                return null;
+            }
+            return factory.create(config);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static List<PluginLimits> downloadRemote(LimitsConfigurations configuration, PluginLimitsFactory factory) {
+        try {
+            String config = configuration.downloadRemote();
+            if (StringUtil.isEmptyOrSpaces(config)) {
+                return null;
+            }
+            List<PluginLimits> limits = factory.create(config);
+            if (limits != null) {
+                // only keep configurations that can be parsed
+                configuration.commitRemote(config);
+            }
+            return limits;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static List<PluginLimits> createEmbeddedLimits(LimitsConfigurations configuration, PluginLimitsFactory factory) {
+        try {
+            return factory.create(configuration.readEmbedded());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Limits indexed by plugin id and the time (in epoch millis) when they should be refreshed.
+     */
+    static class Snapshot {
+
+        private final List<PluginLimits> limits;
+        private final Map<String, PluginLimits> byPluginId;
+        private final PluginLimits defaults;
+        private final long refreshAt;
+
+        private Snapshot(List<PluginLimits> limits, long refreshAt) {
+            this(limits, index(limits), getDefaultLimits(limits), refreshAt);
+        }
+
+        private Snapshot(List<PluginLimits> limits, Map<String, PluginLimits> byPluginId, PluginLimits defaults, long refreshAt) {
+            this.limits = limits;
+            this.byPluginId = byPluginId;
+            this.defaults = defaults;
+            this.refreshAt = refreshAt;
+        }
+
+        private Snapshot withRefreshAt(long refreshAt) {
+            return new Snapshot(limits, byPluginId, defaults, refreshAt);
+        }
+
+        private static Map<String, PluginLimits> index(List<PluginLimits> limits) {
+            if (limits == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, PluginLimits> byPluginId = new HashMap<>();
+            limits.stream()
+                    .filter(pluginLimits -> pluginLimits.getPluginId() != null)
+                    .forEach(pluginLimits -> byPluginId.putIfAbsent(pluginLimits.getPluginId(), pluginLimits));
+            return byPluginId;
+        }
+
+        @Nullable
+        private static PluginLimits getDefaultLimits(List<PluginLimits> limits) {
+            if (limits == null) {
+                return null;
+            }
+            return limits.stream()
+                    .filter(PluginLimits::isDefault)
+                    .findAny()
+                    .orElse(null);
+        }
+
+        @Nullable
+        List<PluginLimits> getLimits() {
+            return limits;
+        }
+
+        /**
+         * Returns the limits for the plugin with the given id or the default limits if there are none.
+         *
+         * @param pluginId the id of the plugin
+         * @return the limits of the given plugin or the default limits
+         */
+        @Nullable
+        PluginLimits getApplicableLimits(String pluginId) {
+            if (StringUtil.isEmptyOrSpaces(pluginId)) {
+                return defaults;
+            }
+            PluginLimits pluginLimits = byPluginId.get(pluginId);
+            if (pluginLimits != null) {
+                return pluginLimits;
+            }
+            return defaults;
+        }
+
+        boolean isStale(long now) {
+            return refreshAt <= now;
+        }
+    }
+}
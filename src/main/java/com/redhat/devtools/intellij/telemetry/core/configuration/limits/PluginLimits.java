@@ -13,7 +13,9 @@ package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
 import com.redhat.devtools.intellij.telemetry.core.service.UserId;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class PluginLimits {
     private final String pluginId;
@@ -23,6 +25,8 @@ public class PluginLimits {
     private final List<Filter> includes;
     private final List<Filter> excludes;
     private final UserId userId;
+    private final FilterIndex includesIndex;
+    private final FilterIndex excludesIndex;
 
     PluginLimits(String pluginId, Enabled enabled, int refresh, float ratio, List<Filter> includes, List<Filter> excludes) {
         this(pluginId, enabled, refresh, ratio, includes, excludes, UserId.INSTANCE);
@@ -36,6 +40,8 @@ public class PluginLimits {
         this.includes = includes;
         this.excludes = excludes;
         this.userId = userId;
+        this.includesIndex = new FilterIndex(includes);
+        this.excludesIndex = new FilterIndex(excludes);
     }
 
     public String getPluginId() {
@@ -59,20 +65,39 @@ public class PluginLimits {
     }
 
     public boolean canSend(Event event, int currentTotal) {
+        return getDecision(event).canSend(currentTotal);
+    }
+
+    /**
+     * Returns the decision whether the given event may be sent, leaving out its daily total.
+     *
+     * @param event the event to decide for
+     * @return the decision for the given event
+     */
+    SendDecision getDecision(Event event) {
         if (event == null) {
-            return false;
+            return SendDecision.DENIED;
         }
         if (!isEnabled()
                 || (isErrorOnly() && !event.hasError())) {
-            return false;
+            return SendDecision.DENIED;
         }
 
         if (!isInRatio()) {
-            return false;
+            return SendDecision.DENIED;
         }
 
-        return isIncluded(event, currentTotal)
-                && !isExcluded(event);
+        if (isExcluded(event)) {
+            return SendDecision.DENIED;
+        }
+        Filter matching = getMatchingInclude(event);
+        if (matching == null) {
+            return SendDecision.ALLOWED;
+        }
+        if (!matching.isIncludedByRatio(userId.getPercentile())) {
+            return SendDecision.DENIED;
+        }
+        return SendDecision.limitedBy(matching);
     }
 
     private boolean isInRatio() {
@@ -100,26 +125,60 @@ public class PluginLimits {
     }
 
     boolean isIncluded(Event event, int currentTotal) {
-        Filter matching = includes.stream()
-                .filter(filter -> filter.isMatching(event))
-                .findAny()
-                .orElse(null);
+        Filter matching = getMatchingInclude(event);
         return matching == null ||
                 (matching.isIncludedByRatio(userId.getPercentile())
                         && matching.isWithinDailyLimit(currentTotal));
     }
 
     boolean isExcluded(Event event) {
-        Filter matching = excludes.stream()
-                .filter(filter -> filter.isMatching(event))
-                .findAny()
-                .orElse(null);
+        Filter matching = excludesIndex.getFirstMatching(event);
         return matching != null
                 && matching.isExcludedByRatio(userId.getPercentile());
     }
 
+    private Filter getMatchingInclude(Event event) {
+        return includesIndex.getFirstMatching(event);
+    }
+
     List<Filter> getExcludes() {
         return excludes;
     }
 
+    /**
+     * Returns the names of the event properties that the filters of these limits look at.
+     *
+     * @return the names of the properties that are filtered by
+     */
+    Set<String> getPropertyNames() {
+        Set<String> names = new LinkedHashSet<>();
+        addPropertyNames(includes, names);
+        addPropertyNames(excludes, names);
+        return names;
+    }
+
+    private static void addPropertyNames(List<Filter> filters, Set<String> names) {
+        filters.stream()
+                .filter(filter -> filter instanceof Filter.EventPropertyFilter)
+                .map(filter -> ((Filter.EventPropertyFilter) filter).getName())
+                .forEach(names::add);
+    }
+
+    /**
+     * Returns {@code true} if the decision for an event only depends on its name, error and filtered properties.
+     * This is the case if these limits only use the built-in filters.
+     *
+     * @return true if decisions may be cached
+     */
+    boolean isCacheable() {
+        return isBuiltIn(includes)
+                && isBuiltIn(excludes);
+    }
+
+    private static boolean isBuiltIn(List<Filter> filters) {
+        return filters.stream()
+                .allMatch(filter -> filter.getClass() == Filter.EventNameFilter.class
+                        || filter.getClass() == Filter.EventPropertyFilter.class);
+    }
+
 }
\ No newline at end of file
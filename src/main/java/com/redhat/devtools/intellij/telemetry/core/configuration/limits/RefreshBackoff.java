@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Schedules the retries of failed limits downloads.
+ * Retries are delayed exponentially, with jitter so that IDEs don't retry in lockstep.
+ * After {@link #FAILURE_THRESHOLD} consecutive failures the circuit opens and no download is attempted
+ * for at least {@link #OPEN_DURATION}. A single download is then attempted (half-open):
+ * the circuit closes if it succeeds, or opens again if it fails.
+ */
+class RefreshBackoff {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+    static final Duration MAX_DELAY = Duration.ofHours(6);
+    static final Duration OPEN_DURATION = Duration.ofHours(1);
+    static final int FAILURE_THRESHOLD = 3;
+
+    private final DoubleSupplier random;
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long retryAt = 0;
+
+    RefreshBackoff() {
+        this(() -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /* for testing purposes */
+    RefreshBackoff(DoubleSupplier random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns {@code true} if a download may be attempted at the given time.
+     * Moves an open circuit to half-open once it was open long enough.
+     *
+     * @param now the current time in epoch millis
+     * @return true if a download may be attempted
+     */
+    synchronized boolean allowsAttempt(long now) {
+        if (state == State.OPEN) {
+            if (now < retryAt) {
+                return false;
+            }
+            this.state = State.HALF_OPEN;
+        }
+        return true;
+    }
+
+    /**
+     * Records a failed download and returns the time when it should be retried.
+     *
+     * @param now the current time in epoch millis
+     * @return the time (in epoch millis) when the download should be retried
+     */
+    synchronized long onFailure(long now) {
+        this.failures++;
+        long delay = getDelay(failures);
+        if (state == State.HALF_OPEN
+                || failures >= FAILURE_THRESHOLD) {
+            this.state = State.OPEN;
+            delay = Math.max(delay, OPEN_DURATION.toMillis());
+        }
+        this.retryAt = now + delay;
+        return retryAt;
+    }
+
+    /**
+     * Records a successful download and closes the circuit.
+     */
+    synchronized void onSuccess() {
+        this.failures = 0;
+        this.state = State.CLOSED;
+        this.retryAt = 0;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private long getDelay(int failures) {
+        long max = MAX_DELAY.toMillis();
+        long exponential = INITIAL_DELAY.toMillis() << Math.min(failures - 1, 20);
+        long delay = Math.min(max, exponential);
+        // equal jitter: half of the delay is fixed, the other half is random
+        return delay / 2 + (long) (random.getAsDouble() * (delay / 2));
+    }
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import java.util.function.IntSupplier;
+
+/**
+ * The decision of {@link PluginLimits} whether an event may be sent.
+ * The daily total of the event is left out of it, it is applied when the decision is queried.
+ * This allows the decision to be cached for events that have the same name, error and properties.
+ */
+final class SendDecision {
+
+    static final SendDecision DENIED = new SendDecision(false, null);
+    static final SendDecision ALLOWED = new SendDecision(true, null);
+
+    static SendDecision limitedBy(Filter filter) {
+        return new SendDecision(true, filter);
+    }
+
+    private final boolean allowed;
+    private final Filter dailyLimit;
+
+    private SendDecision(boolean allowed, Filter dailyLimit) {
+        this.allowed = allowed;
+        this.dailyLimit = dailyLimit;
+    }
+
+    boolean canSend(int currentTotal) {
+        return allowed
+                && (dailyLimit == null || dailyLimit.isWithinDailyLimit(currentTotal));
+    }
+
+    /**
+     * Returns {@code true} if the event may be sent.
+     * The current total is only requested if the event is subject to a daily limit.
+     *
+     * @param currentTotal the supplier for the number of times the event was sent today
+     * @return true if the event may be sent
+     */
+    boolean canSend(IntSupplier currentTotal) {
+        if (!allowed) {
+            return false;
+        }
+        return dailyLimit == null
+                || dailyLimit.isWithinDailyLimit(currentTotal.getAsInt());
+    }
+}
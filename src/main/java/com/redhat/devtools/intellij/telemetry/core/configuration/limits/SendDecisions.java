@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of the {@link SendDecision}s that the given {@link PluginLimits} took for events.
+ * Events are identified by their name, whether they have an error, and the values of the properties
+ * that the limits filter by.
+ * The cache is bound to the list of limits that it was created for and is emptied when the day changes.
+ */
+class SendDecisions {
+
+    static final int MAX_ENTRIES = 1024;
+
+    private final List<PluginLimits> source;
+    private final PluginLimits limits;
+    private final String[] propertyNames;
+    private final TelemetryClock clock;
+    private final Map<Key, SendDecision> decisions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, SendDecision> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private long day;
+
+    SendDecisions(List<PluginLimits> source, PluginLimits limits) {
+        this(source, limits, TelemetryClock.SYSTEM);
+    }
+
+    /* for testing purposes */
+    SendDecisions(List<PluginLimits> source, PluginLimits limits, TelemetryClock clock) {
+        this.source = source;
+        this.limits = limits;
+        this.propertyNames = limits == null ?
+                new String[0] : limits.getPropertyNames().toArray(new String[0]);
+        this.clock = clock;
+        this.day = clock.epochDay();
+    }
+
+    /**
+     * Returns {@code true} if this cache holds decisions of the given list of limits.
+     *
+     * @param source the list of limits
+     * @return true if this cache was created for the given list of limits
+     */
+    boolean isFor(List<PluginLimits> source) {
+        return this.source == source;
+    }
+
+    PluginLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Returns {@code true} if the decisions of the limits can be cached.
+     * This is not the case if the limits use filters whose criteria are unknown.
+     *
+     * @return true if decisions can be cached
+     */
+    boolean isCacheable() {
+        return limits != null
+                && limits.isCacheable();
+    }
+
+    synchronized SendDecision get(Event event) {
+        long today = clock.epochDay();
+        if (today != day) {
+            decisions.clear();
+            this.day = today;
+        }
+        Key key = new Key(event, propertyNames);
+        SendDecision decision = decisions.get(key);
+        if (decision == null) {
+            decision = limits.getDecision(event);
+            decisions.put(key, decision);
+        }
+        return decision;
+    }
+
+    synchronized int size() {
+        return decisions.size();
+    }
+
+    private static final class Key {
+
+        private final String name;
+        private final boolean hasError;
+        private final String[] values;
+        private final int hash;
+
+        private Key(Event event, String[] propertyNames) {
+            this.name = event.getName();
+            this.hasError = event.hasError();
+            this.values = getValues(event.getProperties(), propertyNames);
+            this.hash = 31 * (31 * Objects.hashCode(name) + Boolean.hashCode(hasError)) + Arrays.hashCode(values);
+        }
+
+        private static String[] getValues(Map<String, String> properties, String[] names) {
+            String[] values = new String[names.length];
+            if (properties != null) {
+                for (int i = 0; i < names.length; i++) {
+                    values[i] = properties.get(names[i]);
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && hasError == key.hasError
+                    && Objects.equals(name, key.name)
+                    && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
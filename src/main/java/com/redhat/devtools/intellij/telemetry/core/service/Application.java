@@ -22,6 +22,7 @@ public class Application {
     private final String name;
     private final String version;
     private final Map<String, String> properties = new HashMap<>();
+    private volatile int modifications = 0;
 
     Application(String name, String version) {
         this.name = name;
@@ -38,9 +39,20 @@ public class Application {
 
     public Application property(String key, String value) {
         this.properties.put(key, value);
+        modifications++;
         return this;
     }
 
+    /**
+     * Returns the number of times the properties of this application were modified.
+     * Allows consumers to cache what they derive from this application.
+     *
+     * @return the number of modifications
+     */
+    public int getModifications() {
+        return modifications;
+    }
+
     public Collection<AbstractMap.SimpleEntry<String, Object>> getProperties() {
         return properties.entrySet().stream()
                 .map(entry -> new AbstractMap.SimpleEntry<String, Object>(entry.getKey(), entry.getValue()))
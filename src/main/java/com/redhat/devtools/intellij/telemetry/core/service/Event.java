@@ -10,7 +10,6 @@
  ******************************************************************************/
 package com.redhat.devtools.intellij.telemetry.core.service;
 
-import java.util.HashMap;
 import java.util.Map;
 
 import static com.redhat.devtools.intellij.telemetry.core.service.Message.PROP_ERROR;
@@ -26,7 +25,7 @@ public class Event {
     private final Map<String, String> properties;
 
     public Event(Type type, String name) {
-        this(type, name, new HashMap<>());
+        this(type, name, new PropertyMap());
     }
 
     public Event(Type type, String name, Map<String, String> properties) {
@@ -0,0 +1,396 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.redhat.devtools.intellij.telemetry.core.util.Directories;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An append-only file that holds the events which are sent before the user consented to (or declined) telemetry.
+ * The file is memory-mapped and holds length-prefixed records:
+ * <pre>
+ *     [long end of records][int length][record]...[int length][record]
+ * </pre>
+ * Events that don't fit into the configured number of bytes are rejected.
+ * Replaying decodes one record after the other straight from the mapped file.
+ * The file may be used by several IDEs at once, it is therefore locked while events are appended, replayed or discarded.
+ */
+class EventSpool {
+
+    private static final Logger LOGGER = Logger.getInstance(EventSpool.class);
+
+    static final String SYSTEM_PROP_MAX_BYTES = "com.redhat.devtools.intellij.telemetry.spool.maxBytes";
+    static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+    private static final String FILENAME_PREFIX = "telemetry-spool-";
+    private static final String FILENAME_SUFFIX = ".bin";
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int NULL_LENGTH = -1;
+
+    /* one spool per file in this process, file locks are held by the process */
+    private static final Map<Path, EventSpool> SPOOLS = new HashMap<>();
+
+    /**
+     * A spool that doesn't hold any event.
+     */
+    static final EventSpool NONE = new EventSpool(null, 0) {
+        @Override
+        public synchronized boolean append(Event event) {
+            return false;
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public synchronized int replay(Consumer<Event> consumer) {
+            return 0;
+        }
+
+        @Override
+        public synchronized void discard() {
+        }
+    };
+
+    /**
+     * Returns the spool for the plugin with the given id.
+     * The size of the spool is limited to the number of bytes given in the system property {@link #SYSTEM_PROP_MAX_BYTES}.
+     *
+     * @param pluginId the id of the plugin whose events are spooled
+     * @return the spool for the given plugin
+     */
+    static EventSpool create(String pluginId) {
+        if (pluginId == null) {
+            return NONE;
+        }
+        Path file = Directories.RED_HAT.resolve(FILENAME_PREFIX + pluginId.replaceAll("[^\\w.\\-]", "_") + FILENAME_SUFFIX);
+        synchronized (SPOOLS) {
+            return SPOOLS.computeIfAbsent(file, key -> new EventSpool(key, Integer.getInteger(SYSTEM_PROP_MAX_BYTES, DEFAULT_MAX_BYTES)));
+        }
+    }
+
+    private final Path file;
+    private final int maxBytes;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private boolean missing = false;
+    private boolean replaying = false;
+
+    /* for testing purposes */
+    EventSpool(Path file, int maxBytes) {
+        this.file = file;
+        this.maxBytes = Math.max(HEADER_SIZE, maxBytes);
+    }
+
+    /**
+     * Appends the given event to this spool.
+     * Returns {@code false} if the event could not be appended because the spool is full or could not be written.
+     *
+     * @param event the event to append
+     * @return true if the event was appended
+     */
+    public synchronized boolean append(Event event) {
+        if (replaying) {
+            return false;
+        }
+        try {
+            byte[] record = encode(event);
+            FileLock lock = lock();
+            try {
+                long end = getEnd(buffer);
+                if (end + Integer.BYTES + record.length > maxBytes) {
+                    LOGGER.debug("Could not spool event '" + event.getName() + "': spool is full.");
+                    return false;
+                }
+                buffer.putInt((int) end, record.length);
+                buffer.put((int) end + Integer.BYTES, record);
+                // mark record as written once it's complete
+                buffer.putLong(0, end + Integer.BYTES + record.length);
+                return true;
+            } finally {
+                unlock(lock);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not spool event '" + event.getName() + "' to " + file + ".", e);
+            return false;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        if (buffer == null) {
+            if (!missing) {
+                this.missing = !Files.exists(file);
+            }
+            if (missing) {
+                // don't create the file before anything is appended
+                return true;
+            }
+        }
+        try {
+            // not locked, an end beyond the mapped file may have been written by another process
+            return getBuffer().getLong(0) <= HEADER_SIZE;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read spool " + file + ".", e);
+            return true;
+        }
+    }
+
+    /**
+     * Hands all the spooled events to the given consumer, in the order they were appended, and removes them from this spool.
+     * Events are decoded one after the other, the spool is not loaded into the heap at once.
+     * Records that can't be decoded are dropped. If the consumer fails, the event that it failed for and all the
+     * following ones are kept in the spool.
+     * Returns immediately if called while replaying.
+     *
+     * @param consumer the consumer to hand the events to
+     * @return the number of replayed events
+     */
+    public synchronized int replay(Consumer<Event> consumer) {
+        if (replaying
+                || isEmpty()) {
+            return 0;
+        }
+        int replayed = 0;
+        FileLock lock = null;
+        try {
+            lock = lock();
+            this.replaying = true;
+            ByteBuffer records = buffer.duplicate();
+            int end = (int) getEnd(buffer);
+            /* start of the records that were not handed to the consumer yet */
+            int consumed = HEADER_SIZE;
+            try {
+                while (consumed + Integer.BYTES <= end) {
+                    int position = consumed + Integer.BYTES;
+                    int length = records.getInt(consumed);
+                    if (length < 0
+                            || position + length > end) {
+                        // following records can't be found
+                        LOGGER.warn("Could not replay spool " + file + ": corrupt record at " + consumed + ".");
+                        consumed = end;
+                        break;
+                    }
+                    records.limit(position + length).position(position);
+                    Event event = decodeRecord(records, consumed);
+                    records.limit(records.capacity());
+                    if (event != null) {
+                        consumer.accept(event);
+                        replayed++;
+                    }
+                    consumed = position + length;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not replay spool " + file + ", keeping the events that were not replayed.", e);
+            } finally {
+                this.replaying = false;
+                removeUntil(consumed, end);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not replay spool " + file + ".", e);
+        } finally {
+            unlock(lock);
+        }
+        return replayed;
+    }
+
+    private Event decodeRecord(ByteBuffer records, int position) {
+        try {
+            return decode(records);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not replay spool " + file + ": dropping corrupt record at " + position + ".", e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes all the events from this spool.
+     */
+    public synchronized void discard() {
+        if (isEmpty()) {
+            return;
+        }
+        FileLock lock = null;
+        try {
+            lock = lock();
+            buffer.putLong(0, HEADER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not discard spool " + file + ".", e);
+        } finally {
+            unlock(lock);
+        }
+    }
+
+    /* removes the records before the given position by moving the following ones to the start */
+    private void removeUntil(int position, int end) {
+        if (position <= HEADER_SIZE) {
+            return;
+        }
+        int remaining = Math.max(0, end - position);
+        if (remaining > 0) {
+            byte[] records = new byte[remaining];
+            buffer.get(position, records);
+            buffer.put(HEADER_SIZE, records);
+        }
+        buffer.putLong(0, HEADER_SIZE + remaining);
+    }
+
+    /* locks the file against other processes, the lock needs to be released by the caller */
+    private FileLock lock() throws IOException {
+        getBuffer();
+        FileLock lock = channel.lock();
+        try {
+            if (channel.size() > buffer.capacity()) {
+                // grown by another process with a larger maximum size
+                this.buffer = map(channel);
+            }
+            return lock;
+        } catch (IOException | RuntimeException e) {
+            unlock(lock);
+            throw e;
+        }
+    }
+
+    private void unlock(FileLock lock) {
+        if (lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException e) {
+            LOGGER.debug("Could not unlock spool " + file + ".", e);
+        }
+    }
+
+    private MappedByteBuffer getBuffer() throws IOException {
+        if (buffer == null) {
+            Files.createDirectories(file.getParent());
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                this.buffer = map(channel);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            // kept open to lock the file
+            this.channel = channel;
+        }
+        return buffer;
+    }
+
+    /* maps the whole file, which may be larger than the maximum size if it was lowered since the file was written */
+    private MappedByteBuffer map(FileChannel channel) throws IOException {
+        long size = Math.min(Integer.MAX_VALUE, Math.max(maxBytes, channel.size()));
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /**
+     * Returns the end of the records. Records that were written while the maximum size was larger are kept,
+     * only an end beyond the file is treated as corrupt.
+     */
+    private long getEnd(MappedByteBuffer buffer) {
+        long end = buffer.getLong(0);
+        if (end < HEADER_SIZE
+                || end > buffer.capacity()) {
+            // new or corrupt file, overwritten by the next append
+            return HEADER_SIZE;
+        }
+        return end;
+    }
+
+    static byte[] encode(Event event) {
+        Map<String, String> properties = event.getProperties();
+        int size = Integer.BYTES + sizeOf(event.getName()) + Integer.BYTES;
+        if (properties != null) {
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(event.getType() == null ? NULL_LENGTH : event.getType().ordinal());
+        putString(event.getName(), buffer);
+        if (properties == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(properties.size());
+            properties.forEach((key, value) -> {
+                putString(key, buffer);
+                putString(value, buffer);
+            });
+        }
+        return buffer.array();
+    }
+
+    static Event decode(ByteBuffer buffer) throws IOException {
+        int type = buffer.getInt();
+        if (type >= Event.Type.values().length
+                || (type < 0 && type != NULL_LENGTH)) {
+            throw new IOException("Unknown event type " + type + ".");
+        }
+        String name = getString(buffer);
+        int count = buffer.getInt();
+        Map<String, String> properties = null;
+        if (count != NULL_LENGTH) {
+            // a property takes at least the lengths of its key and value, don't trust corrupt counts
+            properties = new PropertyMap(Math.max(0, Math.min(count, buffer.remaining() / (2 * Integer.BYTES))));
+            for (int i = 0; i < count; i++) {
+                properties.put(getString(buffer), getString(buffer));
+            }
+        }
+        return new Event(type == NULL_LENGTH ? null : Event.Type.values()[type], name, properties);
+    }
+
+    private static int sizeOf(String value) {
+        return Integer.BYTES
+                + (value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(String value, ByteBuffer buffer) {
+        if (value == null) {
+            buffer.putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0
+                || length > buffer.remaining()) {
+            throw new IOException("Invalid string length " + length + ".");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
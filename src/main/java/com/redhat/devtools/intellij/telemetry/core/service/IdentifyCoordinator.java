@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import java.util.Objects;
+
+/**
+ * Coordinates the identify events of all the plugins in this IDE session.
+ * The user is identified once per session and again whenever the identifying traits (fingerprint) change.
+ * Once the user was identified, {@link #isIdentified()} allows services to skip identifying for all following events.
+ */
+public class IdentifyCoordinator {
+
+    public static final IdentifyCoordinator INSTANCE = new IdentifyCoordinator();
+
+    private volatile boolean identified = false;
+    private Object fingerprint = null;
+
+    /* for testing purposes */
+    public IdentifyCoordinator() {}
+
+    /**
+     * Returns {@code true} if the user was identified in this session.
+     *
+     * @return true if the user was identified
+     */
+    public boolean isIdentified() {
+        return identified;
+    }
+
+    /**
+     * Marks the user as identified with the given fingerprint.
+     * Returns {@code true} if the user was not identified with the given fingerprint in this session yet
+     * and thus needs to be identified.
+     *
+     * @param fingerprint the fingerprint of the traits that the user is identified with
+     * @return true if the user needs to be identified
+     */
+    public synchronized boolean identify(Object fingerprint) {
+        if (identified
+                && Objects.equals(this.fingerprint, fingerprint)) {
+            return false;
+        }
+        this.fingerprint = fingerprint;
+        this.identified = true;
+        return true;
+    }
+
+    /**
+     * Notifies this coordinator of the fingerprint that a (new) broker would identify with.
+     * The user is identified again if the given fingerprint differs from the one that was identified.
+     *
+     * @param fingerprint the fingerprint that a broker would identify with
+     */
+    public synchronized void expect(Object fingerprint) {
+        if (identified
+                && !Objects.equals(this.fingerprint, fingerprint)) {
+            this.identified = false;
+        }
+    }
+}
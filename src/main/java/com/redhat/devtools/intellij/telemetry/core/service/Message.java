@@ -11,12 +11,10 @@
 package com.redhat.devtools.intellij.telemetry.core.service;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.redhat.devtools.intellij.telemetry.core.util.RedactionRules;
 
-import java.util.HashMap;
 import java.util.Map;
 
-import static com.redhat.devtools.intellij.telemetry.core.util.AnonymizeUtils.anonymize;
-
 abstract class Message<T extends Message<?>> {
 
     private static final Logger LOGGER = Logger.getInstance(Message.class);
@@ -30,14 +28,20 @@ abstract class Message<T extends Message<?>> {
     static final String PROP_ERROR = "error";
 
     private final Event.Type type;
-    private final Map<String, String> properties = new HashMap<>();
+    private final PropertyMap properties = new PropertyMap();
     private final String name;
     private final IService service;
+    private final RedactionRules redactionRules;
 
     protected Message(Event.Type type, String name, IService service) {
+        this(type, name, service, RedactionRules.GLOBAL);
+    }
+
+    protected Message(Event.Type type, String name, IService service, RedactionRules redactionRules) {
         this.name = name;
         this.type = type;
         this.service = service;
+        this.redactionRules = redactionRules;
     }
 
     String getName() {
@@ -60,7 +64,7 @@ abstract class Message<T extends Message<?>> {
     }
 
     public T error(String message) {
-        property(PROP_ERROR, anonymize(message));
+        property(PROP_ERROR, redactionRules.anonymize(message));
         return clearResult();
     }
 
@@ -114,7 +118,7 @@ abstract class Message<T extends Message<?>> {
     }
 
     public Event send() {
-        Event event = new Event(type, name, new HashMap<>(properties));
+        Event event = new Event(type, name, properties.handOff());
         service.send(event);
         return event;
     }
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Message.PROP_ERROR;
+import static com.redhat.devtools.intellij.telemetry.core.service.Message.PROP_RESULT;
+import static com.redhat.devtools.intellij.telemetry.core.service.TelemetryMessageBuilder.ActionMessage.PROP_DURATION;
+import static com.redhat.devtools.intellij.telemetry.core.service.TelemetryMessageBuilder.ShutdownMessage.PROP_SESSION_DURATION;
+
+/**
+ * A compact, insertion-ordered map of event properties.
+ * Keys and values are kept in parallel arrays that are presized for a typical event. Lookups are linear,
+ * which for the few properties that an event has is cheaper than hashing. Well-known keys are replaced by
+ * their constant instances so that buffered events share them.
+ * The arrays can be handed to another map without copying them (see {@link #handOff()}).
+ * This class is not thread-safe.
+ */
+public class PropertyMap extends AbstractMap<String, String> {
+
+    static final int DEFAULT_CAPACITY = 8;
+
+    private static final String[] CONSTANT_KEYS = { PROP_DURATION, PROP_RESULT, PROP_ERROR, PROP_SESSION_DURATION };
+    private static final String[] EMPTY = new String[0];
+
+    private String[] keys;
+    private String[] values;
+    private int size;
+    /* true if the arrays are shared with another map and need to be copied before they are modified */
+    private boolean shared;
+    private int modifications;
+
+    public PropertyMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PropertyMap(int capacity) {
+        this.keys = capacity == 0 ? EMPTY : new String[capacity];
+        this.values = capacity == 0 ? EMPTY : new String[capacity];
+    }
+
+    public PropertyMap(Map<String, String> properties) {
+        this(Math.max(DEFAULT_CAPACITY, properties.size()));
+        putAll(properties);
+    }
+
+    private PropertyMap(String[] keys, String[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.shared = true;
+    }
+
+    /**
+     * Returns a map with the properties of this map. The arrays that hold them are shared rather than copied.
+     * Both maps copy the arrays when they're modified the next time.
+     *
+     * @return a map with the properties of this map
+     */
+    public PropertyMap handOff() {
+        this.shared = true;
+        return new PropertyMap(keys, values, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public String put(String key, String value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            String previous = values[index];
+            ensureOwned(keys.length);
+            values[index] = value;
+            return previous;
+        }
+        ensureOwned(size + 1);
+        keys[size] = toConstant(key);
+        values[size] = value;
+        size++;
+        modifications++;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        String previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (shared) {
+            this.keys = new String[keys.length];
+            this.values = new String[values.length];
+            this.shared = false;
+        } else {
+            Arrays.fill(keys, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+        }
+        this.size = 0;
+        modifications++;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (key == null) {
+            return -1;
+        }
+        for (int i = 0; i < size; i++) {
+            if (key.equals(keys[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        ensureOwned(keys.length);
+        int moved = size - index - 1;
+        System.arraycopy(keys, index + 1, keys, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        keys[size] = null;
+        values[size] = null;
+        modifications++;
+    }
+
+    private void ensureOwned(int capacity) {
+        if (!shared
+                && capacity <= keys.length) {
+            return;
+        }
+        int length = keys.length;
+        if (capacity > length) {
+            length = Math.max(capacity, Math.max(DEFAULT_CAPACITY, length + (length >> 1)));
+        }
+        this.keys = Arrays.copyOf(keys, length);
+        this.values = Arrays.copyOf(values, length);
+        this.shared = false;
+    }
+
+    private static String toConstant(String key) {
+        for (String constant : CONSTANT_KEYS) {
+            if (constant.equals(key)) {
+                return constant;
+            }
+        }
+        return key;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private int next = 0;
+        private int last = -1;
+        private int expectedModifications = modifications;
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (expectedModifications != modifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            this.last = next++;
+            return new PropertyEntry(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModifications != modifications) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            this.next = last;
+            this.last = -1;
+            this.expectedModifications = modifications;
+        }
+    }
+
+    private class PropertyEntry implements Entry<String, String> {
+
+        private final int index;
+
+        private PropertyEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public String getValue() {
+            return values[index];
+        }
+
+        @Override
+        public String setValue(String value) {
+            String previous = values[index];
+            ensureOwned(keys.length);
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), entry.getKey())
+                    && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
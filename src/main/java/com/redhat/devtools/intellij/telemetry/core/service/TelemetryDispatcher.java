@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * An executor that hands telemetry work (limits, counts, broker) over to a single dispatcher thread
+ * so that plugins sending events are not blocked by it.
+ * Tasks are queued in a bounded queue that multiple threads may offer to.
+ * Tasks that don't fit into the queue are dropped and counted.
+ * A warning is logged when tasks start being dropped, at most once per {@link #DROP_WARNING_INTERVAL} milliseconds.
+ * The dispatcher thread stops once the dispatcher is shut down and the tasks that were queued before were run.
+ */
+class TelemetryDispatcher implements Executor {
+
+    private static final Logger LOGGER = Logger.getInstance(TelemetryDispatcher.class);
+
+    static final String SYSTEM_PROP_SYNCHRONOUS = "com.redhat.devtools.intellij.telemetry.synchronous";
+
+    static final String SYSTEM_PROP_CAPACITY = "com.redhat.devtools.intellij.telemetry.dispatcher.capacity";
+
+    static final int DEFAULT_CAPACITY = 16 * 1024;
+    static final long DROP_WARNING_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long NEVER = Long.MIN_VALUE;
+    private static final String THREAD_NAME = "Red Hat Telemetry Dispatcher";
+
+    /* queued by shutdown() to stop the dispatcher thread */
+    private static final Runnable STOP = () -> {};
+
+    private static TelemetryDispatcher shared;
+    private static int sharedUsers = 0;
+
+    /**
+     * A dispatcher that runs the given tasks on the calling thread.
+     */
+    static final TelemetryDispatcher SYNCHRONOUS = new TelemetryDispatcher(0) {
+        @Override
+        public void execute(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public boolean drain(long timeout, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public boolean runLast(Runnable task, long timeout, TimeUnit unit) {
+            task.run();
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    /**
+     * Returns the dispatcher that's shared by all telemetry services.
+     * The dispatcher has to be released with {@link #release(TelemetryDispatcher)} once it's not used any more.
+     * Returns a synchronous dispatcher if the system property {@link #SYSTEM_PROP_SYNCHRONOUS} is set to {@code true}.
+     * The number of tasks that may be queued is given in the system property {@link #SYSTEM_PROP_CAPACITY}.
+     *
+     * @return the shared dispatcher
+     */
+    static synchronized TelemetryDispatcher acquire() {
+        if (Boolean.getBoolean(SYSTEM_PROP_SYNCHRONOUS)) {
+            return SYNCHRONOUS;
+        }
+        if (shared == null) {
+            shared = new TelemetryDispatcher(Integer.getInteger(SYSTEM_PROP_CAPACITY, DEFAULT_CAPACITY));
+        }
+        sharedUsers++;
+        return shared;
+    }
+
+    /**
+     * Releases the given dispatcher that was returned by {@link #acquire()}.
+     * The shared dispatcher is shut down once all its users released it.
+     * Dispatchers that are not shared are left untouched.
+     *
+     * @param dispatcher the dispatcher to release
+     */
+    static synchronized void release(TelemetryDispatcher dispatcher) {
+        if (dispatcher == null
+                || dispatcher != shared) {
+            return;
+        }
+        if (--sharedUsers <= 0) {
+            shared.shutdown();
+            shared = null;
+            sharedUsers = 0;
+        }
+    }
+
+    private final BlockingQueue<Runnable> queue;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean shutdown = false;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong lastDropWarning = new AtomicLong(NEVER);
+    private final AtomicLong dropWarnings = new AtomicLong();
+    private final LongSupplier clock;
+    private volatile Thread thread;
+
+    /* for testing purposes */
+    TelemetryDispatcher(int capacity) {
+        this(capacity, System::currentTimeMillis);
+    }
+
+    /* for testing purposes */
+    TelemetryDispatcher(int capacity, LongSupplier clock) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.clock = clock;
+    }
+
+    /**
+     * Queues the given task for the dispatcher thread and returns immediately.
+     * The task is dropped if the queue is full or the dispatcher was shut down.
+     *
+     * @param task the task to run on the dispatcher thread
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (shutdown) {
+            LOGGER.debug("Dropped telemetry task, dispatcher is shut down.");
+            return;
+        }
+        ensureStarted();
+        if (!queue.offer(task)) {
+            long total = dropped.incrementAndGet();
+            if (!warnDropped(total)) {
+                LOGGER.debug("Dropped telemetry task, dispatcher queue is full. Dropped " + total + " tasks so far.");
+            }
+        }
+    }
+
+    private boolean warnDropped(long total) {
+        long now = clock.getAsLong();
+        long last = lastDropWarning.get();
+        if ((last != NEVER && now - last < DROP_WARNING_INTERVAL)
+                || !lastDropWarning.compareAndSet(last, now)) {
+            return false;
+        }
+        dropWarnings.incrementAndGet();
+        LOGGER.warn("Dropped telemetry task, dispatcher queue of " + getCapacity() + " tasks is full. Dropped " + total + " tasks so far."
+                + " The capacity can be raised with the system property " + SYSTEM_PROP_CAPACITY + ".");
+        return true;
+    }
+
+    /**
+     * Waits until all the tasks that were queued before this call were run.
+     * Returns immediately if called on the dispatcher thread.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all the tasks were run, false if the timeout elapsed before
+     */
+    public boolean drain(long timeout, TimeUnit unit) {
+        if (Thread.currentThread() == thread
+                || !started.get()) {
+            return true;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            if (!queue.offer(latch::countDown, timeout, unit)) {
+                return false;
+            }
+            return latch.await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queues the given task after the ones that are queued already and waits until it was run.
+     * Unlike {@link #execute(Runnable)}, it waits for room in the queue rather than dropping the task.
+     * The task is run on the calling thread if the dispatcher thread was not started or if called on the dispatcher thread.
+     * The task is not run if the dispatcher was shut down.
+     *
+     * @param task the task to run
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the task was run, false if the timeout elapsed before
+     */
+    public boolean runLast(Runnable task, long timeout, TimeUnit unit) {
+        if (shutdown) {
+            return false;
+        }
+        if (Thread.currentThread() == thread
+                || !started.get()) {
+            task.run();
+            return true;
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Runnable last = () -> {
+                try {
+                    task.run();
+                } finally {
+                    latch.countDown();
+                }
+            };
+            if (!queue.offer(last, timeout, unit)) {
+                return false;
+            }
+            return latch.await(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Rejects new tasks and stops the dispatcher thread once the tasks that are queued already were run.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+        if (!started.get()) {
+            return;
+        }
+        if (!queue.offer(STOP)) {
+            // queue is full, stop without running the queued tasks
+            long total = dropped.addAndGet(queue.drainTo(new ArrayList<>()));
+            LOGGER.debug("Dropped queued telemetry tasks, dispatcher is shut down. Dropped " + total + " tasks so far.");
+            queue.offer(STOP);
+        }
+    }
+
+    /* for testing purposes */
+    boolean isStopped() {
+        Thread thread = this.thread;
+        return thread == null
+                || !thread.isAlive();
+    }
+
+    /* for testing purposes */
+    long getDropWarnings() {
+        return dropWarnings.get();
+    }
+
+    /* for testing purposes */
+    int getCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    /**
+     * Returns the number of tasks that were dropped because the queue was full.
+     *
+     * @return the number of dropped tasks
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void ensureStarted() {
+        if (shutdown
+                || started.get()
+                || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::dispatch, THREAD_NAME);
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    private void dispatch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Runnable task = queue.take();
+                if (task == STOP) {
+                    return;
+                }
+                run(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            LOGGER.warn("Could not dispatch telemetry task.", e);
+        }
+    }
+}
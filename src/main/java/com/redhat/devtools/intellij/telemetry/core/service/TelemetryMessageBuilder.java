@@ -21,6 +21,7 @@ import com.redhat.devtools.intellij.telemetry.core.configuration.limits.IEventLi
 import com.redhat.devtools.intellij.telemetry.core.service.Event.Type;
 import com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBrokerFactory;
 import com.redhat.devtools.intellij.telemetry.core.util.Lazy;
+import com.redhat.devtools.intellij.telemetry.core.util.RedactionRules;
 import com.redhat.devtools.intellij.telemetry.core.util.TimeUtils;
 
 import java.time.Duration;
@@ -36,6 +37,7 @@ public class TelemetryMessageBuilder {
 
     private final IService telemetryFacade;
     private final IService feedbackFacade;
+    private final RedactionRules redactionRules;
 
     @Deprecated(forRemoval = true)
     public TelemetryMessageBuilder(ClassLoader classLoader) {
@@ -56,22 +58,44 @@ public class TelemetryMessageBuilder {
 
     TelemetryMessageBuilder(String pluginId, IMessageBroker messageBroker) {
         this(
-            new TelemetryServiceFacade(TelemetryConfiguration.getInstance(), new EventLimits(pluginId), messageBroker),
-            new FeedbackServiceFacade(messageBroker)
+            new TelemetryServiceFacade(pluginId, TelemetryConfiguration.getInstance(), createLimits(pluginId), messageBroker),
+            new FeedbackServiceFacade(messageBroker),
+            RedactionRules.forPlugin(pluginId)
         );
     }
 
+    private static IEventLimits createLimits(String pluginId) {
+        EventLimits limits = new EventLimits(pluginId);
+        limits.warmUp();
+        return limits;
+    }
+
     TelemetryMessageBuilder(IService telemetryFacade, IService feedbackFacade) {
+        this(telemetryFacade, feedbackFacade, RedactionRules.GLOBAL);
+    }
+
+    TelemetryMessageBuilder(IService telemetryFacade, IService feedbackFacade, RedactionRules redactionRules) {
         this.telemetryFacade = telemetryFacade;
         this.feedbackFacade = feedbackFacade;
+        this.redactionRules = redactionRules;
     }
 
     public ActionMessage action(String name) {
-        return new ActionMessage(name, telemetryFacade);
+        return new ActionMessage(name, telemetryFacade, redactionRules);
     }
 
     public FeedbackMessage feedback(String name) {
-        return new FeedbackMessage(name, feedbackFacade);
+        return new FeedbackMessage(name, feedbackFacade, redactionRules);
+    }
+
+    /**
+     * Returns the rules that redact the errors of the messages of this builder.
+     * Rules that are added to them apply to this plugin only, those added to {@link RedactionRules#GLOBAL} to all plugins.
+     *
+     * @return the redaction rules of this builder
+     */
+    public RedactionRules getRedactionRules() {
+        return redactionRules;
     }
 
     static class StartupMessage extends TelemetryMessage<StartupMessage> {
@@ -83,7 +107,7 @@ public class TelemetryMessageBuilder {
 
     static class ShutdownMessage extends TelemetryMessage<ShutdownMessage> {
 
-        private static final String PROP_SESSION_DURATION = "session_duration";
+        static final String PROP_SESSION_DURATION = "session_duration";
 
         private ShutdownMessage(IService service) {
             this(toLocalTime(ApplicationManager.getApplication().getStartTime()), service);
@@ -117,8 +141,8 @@ public class TelemetryMessageBuilder {
 
         private LocalDateTime started;
 
-        private ActionMessage(String name, IService service) {
-            super(ACTION, name, service);
+        private ActionMessage(String name, IService service, RedactionRules redactionRules) {
+            super(ACTION, name, service, redactionRules);
             started();
         }
 
@@ -174,14 +198,19 @@ public class TelemetryMessageBuilder {
         protected TelemetryMessage(Type type, String name, IService service) {
             super(type, name, service);
         }
+
+        protected TelemetryMessage(Type type, String name, IService service, RedactionRules redactionRules) {
+            super(type, name, service, redactionRules);
+        }
     }
 
     static class TelemetryServiceFacade extends Lazy<IService> implements IService {
 
         private final MessageBusConnection messageBusConnection;
 
-        protected TelemetryServiceFacade(final TelemetryConfiguration configuration, IEventLimits limits, IMessageBroker broker) {
+        protected TelemetryServiceFacade(final String pluginId, final TelemetryConfiguration configuration, IEventLimits limits, IMessageBroker broker) {
             this(() -> ApplicationManager.getApplication().getService(TelemetryServiceFactory.class).create(
+                            pluginId,
                             configuration,
                             limits,
                             broker),
@@ -240,8 +269,8 @@ public class TelemetryMessageBuilder {
 
     public static class FeedbackMessage extends Message<FeedbackMessage>{
 
-        FeedbackMessage(String name, IService service) {
-            super(ACTION, name, service);
+        FeedbackMessage(String name, IService service, RedactionRules redactionRules) {
+            super(ACTION, name, service, redactionRules);
         }
     }
 
@@ -18,9 +18,11 @@ import com.redhat.devtools.intellij.telemetry.core.configuration.TelemetryConfig
 import com.redhat.devtools.intellij.telemetry.core.configuration.TelemetryConfiguration.Mode;
 import com.redhat.devtools.intellij.telemetry.core.configuration.limits.IEventLimits;
 import com.redhat.devtools.intellij.telemetry.core.service.Event.Type;
-import com.redhat.devtools.intellij.telemetry.core.util.CircularBuffer;
+import com.redhat.devtools.intellij.telemetry.core.util.Lazy;
+import com.redhat.devtools.intellij.telemetry.core.util.RingBuffer;
 import com.redhat.devtools.intellij.telemetry.ui.TelemetryNotifications;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.redhat.devtools.intellij.telemetry.core.configuration.TelemetryConfiguration.KEY_MODE;
@@ -30,23 +32,34 @@ class TelemetryService implements IService {
     private static final Logger LOGGER = Logger.getInstance(TelemetryService.class);
 
     private static final int BUFFER_SIZE = 35;
+    private static final long DISPOSE_TIMEOUT = 2;
+    private static final Lazy<String> USER_INFO = new Lazy<>(() -> "Anonymous ID: " + UserId.INSTANCE.get());
 
     private final TelemetryNotifications notifications;
     private final TelemetryConfiguration configuration;
     private final IEventLimits limits;
     protected final IMessageBroker broker;
+    private final TelemetryDispatcher dispatcher;
+    private final IdentifyCoordinator identity;
+    private final EventSpool spool;
+    private final MessageBusConnection connection;
     private final AtomicBoolean userQueried = new AtomicBoolean(false);
-    private final CircularBuffer<Event> onHold = new CircularBuffer<>(BUFFER_SIZE);
+    private final AtomicBoolean disposed = new AtomicBoolean(false);
+    private final RingBuffer<Event> onHold = new RingBuffer<>(BUFFER_SIZE);
 
     public TelemetryService(
             final TelemetryConfiguration configuration,
             final IEventLimits limits,
-            final IMessageBroker broker) {
+            final IMessageBroker broker,
+            final EventSpool spool) {
         this(configuration,
                 limits,
                 broker,
                 ApplicationManager.getApplication().getMessageBus().connect(),
-                new TelemetryNotifications()
+                new TelemetryNotifications(),
+                TelemetryDispatcher.acquire(),
+                IdentifyCoordinator.INSTANCE,
+                spool
         );
     }
 
@@ -56,33 +69,73 @@ class TelemetryService implements IService {
             final IMessageBroker broker,
             final MessageBusConnection connection,
             final TelemetryNotifications notifications) {
+        this(configuration, limits, broker, connection, notifications, TelemetryDispatcher.SYNCHRONOUS, IdentifyCoordinator.INSTANCE, EventSpool.NONE);
+    }
+
+    TelemetryService(
+            final TelemetryConfiguration configuration,
+            final IEventLimits limits,
+            final IMessageBroker broker,
+            final MessageBusConnection connection,
+            final TelemetryNotifications notifications,
+            final TelemetryDispatcher dispatcher,
+            final IdentifyCoordinator identity,
+            final EventSpool spool) {
         this.configuration = configuration;
         this.limits = limits;
         this.broker = broker;
         this.notifications = notifications;
+        this.dispatcher = dispatcher;
+        this.identity = identity;
+        this.spool = spool;
+        this.connection = connection;
         onConfigurationChanged(connection);
     }
 
     private void onConfigurationChanged(MessageBusConnection connection) {
         connection.subscribe(ConfigurationChangedListener.CONFIGURATION_CHANGED, (String key, String value) -> {
-            if (KEY_MODE.equals(key)
-                    && Mode.safeValueOf(value).isEnabled()) {
-                flushOnHold();
+            if (!KEY_MODE.equals(key)) {
+                return;
+            }
+            Mode mode = Mode.safeValueOf(value);
+            if (mode.isEnabled()) {
+                dispatcher.execute(this::flushOnHold);
+            } else if (mode.isConfigured()) {
+                dispatcher.execute(this::discardOnHold);
             }
         });
     }
 
+    /**
+     * Sends the given event. Limits, counts and the broker are processed by the dispatcher,
+     * this method returns without waiting for them.
+     * Events are ignored once this service was disposed.
+     *
+     * @param event the event to send
+     */
     @Override
     public void send(Event event) {
+        if (disposed.get()) {
+            return;
+        }
+        dispatcher.execute(() -> dispatch(event));
+        queryUserConsent();
+    }
+
+    private void dispatch(Event event) {
         sendUserInfo();
         doSend(event);
-        queryUserConsent();
     }
 
     private void sendUserInfo() {
+        if (identity.isIdentified()
+                || !isEnabled()) {
+            // identified in this session already or events are held/discarded
+            return;
+        }
         doSend(new Event(
                 Type.USER,
-                "Anonymous ID: " + UserId.INSTANCE.get()));
+                USER_INFO.get()));
     }
 
     private void queryUserConsent() {
@@ -97,9 +150,20 @@ class TelemetryService implements IService {
             flushOnHold();
             if (limits.canSend(event)) {
                 broker.send(event);
-                limits.wasSent(event);
+                if (event.getType() != Type.USER) {
+                    // identify is sent once per session, no need to count it
+                    limits.wasSent(event);
+                }
             }
         } else if (!isConfigured()) {
+            hold(event);
+        } else {
+            discardOnHold();
+        }
+    }
+
+    private void hold(Event event) {
+        if (!spool.append(event)) {
             onHold.offer(event);
         }
     }
@@ -115,12 +179,42 @@ class TelemetryService implements IService {
     }
 
     private void flushOnHold() {
-        onHold.pollAll().forEach(this::send);
+        // spooled events are older than the ones in memory
+        spool.replay(this::dispatch);
+        onHold.pollAll().forEach(this::dispatch);
     }
 
-    public void dispose() {
-        flushOnHold();
+    private void discardOnHold() {
+        spool.discard();
         onHold.clear();
+    }
+
+    /**
+     * Disposes this service. The events that were queued before are dispatched and the events that are held
+     * are flushed, spooled or discarded by a last task on the dispatcher thread.
+     * The broker is disposed once this task was run or the timeout elapsed.
+     */
+    public void dispose() {
+        if (!disposed.compareAndSet(false, true)) {
+            return;
+        }
+        connection.disconnect();
+        if (!dispatcher.runLast(this::handOverOnHold, DISPOSE_TIMEOUT, TimeUnit.SECONDS)) {
+            LOGGER.warn("Could not dispatch all telemetry events within " + DISPOSE_TIMEOUT + "s.");
+        }
+        TelemetryDispatcher.release(dispatcher);
         broker.dispose();
     }
+
+    private void handOverOnHold() {
+        if (isEnabled()) {
+            flushOnHold();
+        } else if (!isConfigured()) {
+            // keep events for the next session
+            onHold.pollAll().forEach(spool::append);
+        } else {
+            discardOnHold();
+        }
+        onHold.clear();
+    }
 }
@@ -0,0 +1,286 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides when the messages that were enqueued to Segment are flushed in a batch.
+ * The batch size grows with the rate of events, from {@link Bounds#getMinBatchSize()} when it's quiet
+ * up to {@link Bounds#getMaxBatchSize()} during bursts. A batch is flushed early if it would exceed
+ * {@link Bounds#getMaxBatchBytes()}. A batch that doesn't fill up is flushed after
+ * {@link Bounds#getMinFlushInterval()} if events are rare, or {@link Bounds#getMaxFlushInterval()} otherwise.
+ */
+public class AdaptiveBatching {
+
+    public enum FlushCause {
+        /** the batch reached the batch size for the current event rate */
+        SIZE,
+        /** the batch would have exceeded the maximum number of bytes */
+        BYTES,
+        /** the batch didn't fill up within the flush interval */
+        INTERVAL,
+        /** the broker was disposed */
+        SHUTDOWN
+    }
+
+    private static final String FLUSH_THREAD_NAME = "Red Hat Telemetry Segment Flush";
+    /* weight of the most recent interval between events in the event rate */
+    private static final double RATE_SMOOTHING = 0.2;
+
+    private final Bounds bounds;
+    private final Runnable flush;
+    private final ScheduledExecutorService scheduler;
+    private final LongSupplier clock;
+
+    /* events per millisecond */
+    private double rate = 0;
+    private long lastEnqueued = -1;
+    private int pending = 0;
+    private long pendingBytes = 0;
+    /* identifies the pending batch so that a scheduled flush doesn't flush a later batch */
+    private long batch = 0;
+    private ScheduledFuture<?> scheduled;
+
+    private final long[] flushes = new long[FlushCause.values().length];
+    private long flushedEvents = 0;
+    private int largestBatch = 0;
+
+    AdaptiveBatching(Bounds bounds, Runnable flush, ScheduledExecutorService scheduler) {
+        this(bounds, flush, scheduler, System::currentTimeMillis);
+    }
+
+    /* for testing purposes */
+    AdaptiveBatching(Bounds bounds, Runnable flush, ScheduledExecutorService scheduler, LongSupplier clock) {
+        this.bounds = bounds;
+        this.flush = flush;
+        this.scheduler = scheduler;
+        this.clock = clock;
+    }
+
+    /**
+     * Enqueues a message of the given (estimated) size with the given enqueue operation.
+     * Flushes the pending batch before if the message would make it exceed the maximum number of bytes,
+     * or afterwards if the batch reached the batch size for the current event rate.
+     *
+     * @param bytes the estimated size of the message in bytes
+     * @param enqueue the operation that enqueues the message
+     */
+    void enqueue(int bytes, Runnable enqueue) {
+        if (exceedsBytes(bytes)) {
+            flush(FlushCause.BYTES);
+        }
+        enqueue.run();
+        if (added(bytes)) {
+            flush(FlushCause.SIZE);
+        }
+    }
+
+    private synchronized boolean exceedsBytes(int bytes) {
+        return 0 < pending
+                && bounds.maxBatchBytes < pendingBytes + bytes;
+    }
+
+    private synchronized boolean added(int bytes) {
+        long now = clock.getAsLong();
+        updateRate(now);
+        pending++;
+        pendingBytes += bytes;
+        if (pending >= getBatchSize()) {
+            return true;
+        }
+        if (pending == 1) {
+            schedule(batch);
+        }
+        return false;
+    }
+
+    private void updateRate(long now) {
+        if (0 <= lastEnqueued) {
+            double interval = Math.max(1, now - lastEnqueued);
+            rate = RATE_SMOOTHING / interval + (1 - RATE_SMOOTHING) * rate;
+        }
+        this.lastEnqueued = now;
+    }
+
+    private void schedule(long batch) {
+        long delay = isQuiet() ? bounds.minFlushInterval : bounds.maxFlushInterval;
+        this.scheduled = scheduler.schedule(() -> flushIfPending(batch), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushIfPending(long batch) {
+        synchronized (this) {
+            if (batch != this.batch
+                    || pending == 0) {
+                return;
+            }
+        }
+        flush(FlushCause.INTERVAL);
+    }
+
+    /**
+     * Flushes the pending batch for the given cause.
+     *
+     * @param cause the cause of the flush
+     */
+    void flush(FlushCause cause) {
+        synchronized (this) {
+            flushes[cause.ordinal()]++;
+            flushedEvents += pending;
+            largestBatch = Math.max(largestBatch, pending);
+            this.pending = 0;
+            this.pendingBytes = 0;
+            this.batch++;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                this.scheduled = null;
+            }
+        }
+        flush.run();
+    }
+
+    /* events are quiet if the minimum batch size can't be expected within the maximum flush interval */
+    private boolean isQuiet() {
+        return rate * bounds.maxFlushInterval < bounds.minBatchSize;
+    }
+
+    /**
+     * Returns the batch size for the current event rate. It's the number of events that are expected within
+     * the maximum flush interval, within the minimum and maximum batch size.
+     *
+     * @return the batch size for the current event rate
+     */
+    public synchronized int getBatchSize() {
+        long expected = Math.round(rate * bounds.maxFlushInterval);
+        return (int) Math.max(bounds.minBatchSize, Math.min(bounds.maxBatchSize, expected));
+    }
+
+    /**
+     * Returns the number of flushes for the given cause.
+     *
+     * @param cause the cause of the flushes
+     * @return the number of flushes for the given cause
+     */
+    public synchronized long getFlushes(FlushCause cause) {
+        return flushes[cause.ordinal()];
+    }
+
+    /**
+     * Returns the average number of events per flush.
+     *
+     * @return the average number of events per flush
+     */
+    public synchronized double getAverageBatchSize() {
+        long total = 0;
+        for (long count : flushes) {
+            total += count;
+        }
+        return total == 0 ? 0 : (double) flushedEvents / total;
+    }
+
+    /**
+     * Returns the largest number of events that were flushed at once.
+     *
+     * @return the largest number of events that were flushed at once
+     */
+    public synchronized int getLargestBatchSize() {
+        return largestBatch;
+    }
+
+    /* for testing purposes */
+    synchronized int getPending() {
+        return pending;
+    }
+
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * The bounds of the adaptive batching. Invalid values are replaced by the defaults.
+     */
+    public static class Bounds {
+
+        public static final int DEFAULT_MIN_BATCH_SIZE = 10;
+        public static final int DEFAULT_MAX_BATCH_SIZE = 250;
+        /* Segment rejects batches over 500KB */
+        public static final int DEFAULT_MAX_BATCH_BYTES = 256 * 1024;
+        public static final long DEFAULT_MIN_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+        public static final long DEFAULT_MAX_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+        public static final Bounds DEFAULT = new Bounds(
+                DEFAULT_MIN_BATCH_SIZE,
+                DEFAULT_MAX_BATCH_SIZE,
+                DEFAULT_MAX_BATCH_BYTES,
+                DEFAULT_MIN_FLUSH_INTERVAL,
+                DEFAULT_MAX_FLUSH_INTERVAL);
+
+        private final int minBatchSize;
+        private final int maxBatchSize;
+        private final int maxBatchBytes;
+        private final long minFlushInterval;
+        private final long maxFlushInterval;
+
+        public Bounds(int minBatchSize, int maxBatchSize, int maxBatchBytes, long minFlushInterval, long maxFlushInterval) {
+            this.minBatchSize = minBatchSize > 0 ? minBatchSize : DEFAULT_MIN_BATCH_SIZE;
+            this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize > 0 ? maxBatchSize : DEFAULT_MAX_BATCH_SIZE);
+            this.maxBatchBytes = maxBatchBytes > 0 ? maxBatchBytes : DEFAULT_MAX_BATCH_BYTES;
+            this.minFlushInterval = minFlushInterval > 0 ? minFlushInterval : DEFAULT_MIN_FLUSH_INTERVAL;
+            this.maxFlushInterval = Math.max(this.minFlushInterval, maxFlushInterval > 0 ? maxFlushInterval : DEFAULT_MAX_FLUSH_INTERVAL);
+        }
+
+        public int getMinBatchSize() {
+            return minBatchSize;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public int getMaxBatchBytes() {
+            return maxBatchBytes;
+        }
+
+        public long getMinFlushInterval() {
+            return minFlushInterval;
+        }
+
+        public long getMaxFlushInterval() {
+            return maxFlushInterval;
+        }
+    }
+
+    /**
+     * The scheduler for the flushes and outbox replays of the Segment clients.
+     */
+    static class Scheduler {
+
+        private Scheduler() {
+        }
+
+        /**
+         * Returns a new single threaded scheduler. It has to be shut down once it's not used any more.
+         *
+         * @return a new scheduler
+         */
+        static ScheduledExecutorService create() {
+            return Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, FLUSH_THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.segment.analytics.Analytics;
+import com.segment.analytics.Callback;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A pool of Segment clients, one per write key, that are shared by the brokers using the same write key.
+ * Messages of all these brokers are thus sent in the same batches.
+ * A client is created by the first broker that acquires it, with the batching bounds of this broker,
+ * and shut down once the last broker released it.
+ * The messages that a client could not deliver are kept in an outbox and replayed once delivery works again.
+ * The clients share a scheduler for their flushes and replays, that is created with the first client
+ * and shut down with the last one, so that no thread outlives the plugin.
+ */
+class AnalyticsPool {
+
+    private static final Logger LOGGER = Logger.getInstance(AnalyticsPool.class);
+
+    static final AnalyticsPool INSTANCE = new AnalyticsPool(SegmentOutbox::create);
+
+    private final Map<String, Client> clients = new HashMap<>();
+    private final Function<String, SegmentOutbox> outboxFactory;
+    private final Supplier<ScheduledExecutorService> schedulerFactory;
+    private ScheduledExecutorService scheduler;
+
+    /* for testing purposes */
+    AnalyticsPool() {
+        this(writeKey -> SegmentOutbox.NONE);
+    }
+
+    /* for testing purposes */
+    AnalyticsPool(Function<String, SegmentOutbox> outboxFactory) {
+        this(outboxFactory, AdaptiveBatching.Scheduler::create);
+    }
+
+    /* for testing purposes */
+    AnalyticsPool(Function<String, SegmentOutbox> outboxFactory, Supplier<ScheduledExecutorService> schedulerFactory) {
+        this.outboxFactory = outboxFactory;
+        this.schedulerFactory = schedulerFactory;
+    }
+
+    /**
+     * Returns the client for the given write key and increments its references.
+     * Creates the client with the given factory and batching bounds if there is none yet.
+     * Returns {@code null} if the factory could not create a client.
+     *
+     * @param writeKey the write key of the client
+     * @param factory the factory that creates the Segment analytics instance
+     * @param bounds the batching bounds of the client
+     * @return the client for the given write key or {@code null}
+     */
+    Client acquire(String writeKey, Function<String, Analytics> factory, AdaptiveBatching.Bounds bounds) {
+        return acquire(writeKey, (key, callback) -> factory.apply(key), bounds);
+    }
+
+    /**
+     * Returns the client for the given write key and increments its references.
+     * Creates the client with the given factory and batching bounds if there is none yet. The factory is
+     * given the callback that the analytics instance has to notify of the delivered and failed messages.
+     * Returns {@code null} if the factory could not create a client.
+     *
+     * @param writeKey the write key of the client
+     * @param factory the factory that creates the Segment analytics instance with the given callback
+     * @param bounds the batching bounds of the client
+     * @return the client for the given write key or {@code null}
+     */
+    synchronized Client acquire(String writeKey, BiFunction<String, Callback, Analytics> factory, AdaptiveBatching.Bounds bounds) {
+        Client client = clients.get(writeKey);
+        if (client == null) {
+            ScheduledExecutorService scheduler = getScheduler();
+            OutboxDelivery delivery = new OutboxDelivery(outboxFactory.apply(writeKey), scheduler);
+            Analytics analytics = factory.apply(writeKey, delivery);
+            if (analytics == null) {
+                shutdownSchedulerIfUnused();
+                return null;
+            }
+            delivery.connect(analytics);
+            client = new Client(writeKey, analytics, bounds, delivery, scheduler);
+            clients.put(writeKey, client);
+        }
+        client.references++;
+        return client;
+    }
+
+    /**
+     * Releases the given client. Flushes the messages that are pending and shuts the client down if it's not
+     * referenced any more.
+     *
+     * @param client the client to release
+     */
+    void release(Client client) {
+        if (client == null) {
+            return;
+        }
+        client.getBatching().flush(AdaptiveBatching.FlushCause.SHUTDOWN);
+        synchronized (this) {
+            if (--client.references > 0) {
+                return;
+            }
+            clients.remove(client.writeKey, client);
+        }
+        LOGGER.debug("Shutting down Segment Analytics instance for " + client.writeKey + " writeKey.");
+        client.delivery.close();
+        client.getAnalytics().shutdown();
+        synchronized (this) {
+            shutdownSchedulerIfUnused();
+        }
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            this.scheduler = schedulerFactory.get();
+        }
+        return scheduler;
+    }
+
+    private void shutdownSchedulerIfUnused() {
+        if (scheduler == null
+                || !clients.isEmpty()) {
+            return;
+        }
+        scheduler.shutdownNow();
+        this.scheduler = null;
+    }
+
+    /* for testing purposes */
+    synchronized boolean hasScheduler() {
+        return scheduler != null;
+    }
+
+    /* for testing purposes */
+    synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * A Segment client and the batching of the messages that are sent through it.
+     */
+    static class Client {
+
+        private final String writeKey;
+        private final Analytics analytics;
+        private final AdaptiveBatching batching;
+        private final OutboxDelivery delivery;
+        /* guarded by the pool */
+        private int references = 0;
+
+        private Client(String writeKey, Analytics analytics, AdaptiveBatching.Bounds bounds, OutboxDelivery delivery, ScheduledExecutorService scheduler) {
+            this.writeKey = writeKey;
+            this.analytics = analytics;
+            this.batching = new AdaptiveBatching(bounds, analytics::flush, scheduler);
+            this.delivery = delivery;
+        }
+
+        Analytics getAnalytics() {
+            return analytics;
+        }
+
+        AdaptiveBatching getBatching() {
+            return batching;
+        }
+
+        OutboxDelivery getDelivery() {
+            return delivery;
+        }
+    }
+}
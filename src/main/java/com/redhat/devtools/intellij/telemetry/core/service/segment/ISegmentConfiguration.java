@@ -22,4 +22,8 @@ public interface ISegmentConfiguration {
         }
     }
 
+    default AdaptiveBatching.Bounds getBatchingBounds() {
+        return AdaptiveBatching.Bounds.DEFAULT;
+    }
+
 }
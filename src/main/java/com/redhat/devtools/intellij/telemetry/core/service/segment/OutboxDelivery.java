@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.segment.analytics.Analytics;
+import com.segment.analytics.Callback;
+import com.segment.analytics.messages.Message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the messages that the Segment client could not deliver in a {@link SegmentOutbox} and replays them
+ * once messages are delivered again. Replaying is limited to a given number of messages per second so that
+ * a reconnect doesn't flood Segment, and stops as soon as a delivery fails.
+ * A message is dropped once it failed to be delivered {@link #MAX_ATTEMPTS} times.
+ */
+class OutboxDelivery implements Callback {
+
+    private static final Logger LOGGER = Logger.getInstance(OutboxDelivery.class);
+
+    static final int DEFAULT_REPLAY_RATE = 50;
+    static final int MAX_ATTEMPTS = 3;
+    private static final long REPLAY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+
+    private final SegmentOutbox outbox;
+    private final ScheduledExecutorService scheduler;
+    /* messages per replay interval */
+    private final int replayRate;
+    /* attempts of the replayed messages that are not delivered yet */
+    private final Map<String, Integer> replayed = new ConcurrentHashMap<>();
+    private Analytics analytics;
+    private ScheduledFuture<?> replay;
+    private boolean closed = false;
+    /* false once the outbox was found empty, until a message is appended. The outbox may hold messages of a previous session */
+    private volatile boolean pending = true;
+
+    OutboxDelivery(SegmentOutbox outbox, ScheduledExecutorService scheduler) {
+        this(outbox, scheduler, DEFAULT_REPLAY_RATE);
+    }
+
+    /* for testing purposes */
+    OutboxDelivery(SegmentOutbox outbox, ScheduledExecutorService scheduler, int replayRate) {
+        this.outbox = outbox;
+        this.scheduler = scheduler;
+        this.replayRate = Math.max(1, replayRate);
+    }
+
+    /**
+     * Connects this delivery to the given client, which the messages are replayed to.
+     *
+     * @param analytics the client to replay the messages to
+     */
+    synchronized void connect(Analytics analytics) {
+        this.analytics = analytics;
+    }
+
+    /**
+     * Stops replaying. Messages that fail to be delivered are still appended to the outbox
+     * so that they're replayed in the next session.
+     */
+    synchronized void close() {
+        this.closed = true;
+        stopReplay();
+    }
+
+    @Override
+    public void success(Message message) {
+        if (message.messageId() != null) {
+            replayed.remove(message.messageId());
+        }
+        if (hasPending()) {
+            startReplay();
+        }
+    }
+
+    @Override
+    public void failure(Message message, Throwable throwable) {
+        stopReplay();
+        Integer previous = message.messageId() == null ? null : replayed.remove(message.messageId());
+        int attempts = previous == null ? 1 : previous + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            LOGGER.debug("Dropping message " + message.messageId() + ": could not deliver it " + attempts + " times.");
+            return;
+        }
+        outbox.append(message, attempts);
+        this.pending = true;
+    }
+
+    /* checks the outbox, which hits the file system, only if messages may have been appended since it was empty */
+    private boolean hasPending() {
+        if (!pending) {
+            return false;
+        }
+        this.pending = false;
+        if (outbox.isEmpty()) {
+            return false;
+        }
+        // appended concurrently or not replayed yet
+        this.pending = true;
+        return true;
+    }
+
+    private synchronized void startReplay() {
+        if (closed
+                || analytics == null
+                || replay != null) {
+            return;
+        }
+        LOGGER.debug("Replaying " + outbox.size() + " messages from outbox.");
+        this.replay = scheduler.scheduleWithFixedDelay(this::replay, REPLAY_INTERVAL, REPLAY_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopReplay() {
+        if (replay != null) {
+            replay.cancel(false);
+            this.replay = null;
+        }
+    }
+
+    /* for testing purposes */
+    void replay() {
+        Analytics analytics;
+        synchronized (this) {
+            if (closed
+                    || replay == null) {
+                return;
+            }
+            analytics = this.analytics;
+        }
+        int count = outbox.replay(replayRate, entry -> {
+            String messageId = entry.getMessageId();
+            if (messageId != null) {
+                replayed.put(messageId, entry.getAttempts());
+            }
+            if (!analytics.offer(entry.getBuilder())) {
+                if (messageId != null) {
+                    replayed.remove(messageId);
+                }
+                return false;
+            }
+            return true;
+        });
+        if (count > 0) {
+            analytics.flush();
+        }
+        if (!hasPending()) {
+            stopReplay();
+        }
+    }
+
+    /* for testing purposes */
+    synchronized boolean isReplaying() {
+        return replay != null;
+    }
+}
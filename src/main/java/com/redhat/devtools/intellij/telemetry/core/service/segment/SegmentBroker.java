@@ -12,12 +12,11 @@ package com.redhat.devtools.intellij.telemetry.core.service.segment;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.redhat.devtools.intellij.telemetry.core.service.IMessageBroker;
-import com.redhat.devtools.intellij.telemetry.core.service.Application;
 import com.redhat.devtools.intellij.telemetry.core.service.Environment;
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
-import com.redhat.devtools.intellij.telemetry.core.util.Lazy;
-import com.redhat.devtools.intellij.telemetry.core.util.MapBuilder;
+import com.redhat.devtools.intellij.telemetry.core.service.IdentifyCoordinator;
 import com.segment.analytics.Analytics;
+import com.segment.analytics.Callback;
 import com.segment.analytics.messages.IdentifyMessage;
 import com.segment.analytics.messages.MessageBuilder;
 import com.segment.analytics.messages.PageMessage;
@@ -27,7 +26,9 @@ import org.jetbrains.annotations.Nullable;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class SegmentBroker implements IMessageBroker {
 
@@ -53,6 +54,11 @@ public class SegmentBroker implements IMessageBroker {
     public static final String PROP_APP_NAME = "app_name";
     public static final String PROP_APP_VERSION = "app_version";
 
+    /* estimated size of the context, ids and timestamps that each message has */
+    private static final int MESSAGE_OVERHEAD_BYTES = 1024;
+    /* estimated size of the quotes, colon and comma around a property */
+    private static final int PROPERTY_OVERHEAD_BYTES = 6;
+
     private enum SegmentType {
         IDENTIFY {
             @Override
@@ -92,10 +98,18 @@ public class SegmentBroker implements IMessageBroker {
     private final String userId;
     private final IdentifyTraitsPersistence identifyTraitsPersistence;
     private final Environment environment;
-    private final Lazy<Analytics> analytics;
+    private final IdentifyCoordinator identity;
+    private final IdentifyTraits identifyTraits;
+    private final AnalyticsPool pool;
+    private final Supplier<AnalyticsPool.Client> clientFactory;
+    private AnalyticsPool.Client client;
+    private boolean disposed = false;
+    private volatile SegmentContext context;
+    private volatile TrackProperties trackProperties;
 
     SegmentBroker(boolean isDebug, String userId, Environment environment, ISegmentConfiguration configuration) {
-        this(isDebug, userId, IdentifyTraitsPersistence.INSTANCE, environment, configuration, new AnalyticsFactory());
+        this(isDebug, userId, IdentifyTraitsPersistence.INSTANCE, IdentifyCoordinator.INSTANCE, environment, configuration,
+                new AnalyticsFactory(getBatchingBounds(configuration)), AnalyticsPool.INSTANCE);
     }
 
     /* for testing purposes */
@@ -106,28 +120,95 @@ public class SegmentBroker implements IMessageBroker {
             Environment environment,
             ISegmentConfiguration configuration,
             Function<String, Analytics> analyticsFactory
+    ) {
+        this(isDebug, userId, identifyTraitsPersistence, new IdentifyCoordinator(), environment, configuration, analyticsFactory);
+    }
+
+    /* for testing purposes */
+    protected SegmentBroker(
+            boolean isDebug,
+            String userId,
+            IdentifyTraitsPersistence identifyTraitsPersistence,
+            IdentifyCoordinator identity,
+            Environment environment,
+            ISegmentConfiguration configuration,
+            Function<String, Analytics> analyticsFactory
+    ) {
+        this(isDebug, userId, identifyTraitsPersistence, identity, environment, configuration, analyticsFactory, new AnalyticsPool());
+    }
+
+    /* for testing purposes */
+    protected SegmentBroker(
+            boolean isDebug,
+            String userId,
+            IdentifyTraitsPersistence identifyTraitsPersistence,
+            IdentifyCoordinator identity,
+            Environment environment,
+            ISegmentConfiguration configuration,
+            Function<String, Analytics> analyticsFactory,
+            AnalyticsPool pool
+    ) {
+        this(isDebug, userId, identifyTraitsPersistence, identity, environment, configuration,
+                (writeKey, callback) -> analyticsFactory.apply(writeKey), pool);
+    }
+
+    private SegmentBroker(
+            boolean isDebug,
+            String userId,
+            IdentifyTraitsPersistence identifyTraitsPersistence,
+            IdentifyCoordinator identity,
+            Environment environment,
+            ISegmentConfiguration configuration,
+            BiFunction<String, Callback, Analytics> analyticsFactory,
+            AnalyticsPool pool
     ) {
         this.userId = userId;
         this.identifyTraitsPersistence = identifyTraitsPersistence;
+        this.identity = identity;
         this.environment = environment;
-        this.analytics = new Lazy<>(() -> analyticsFactory.apply(configuration.getWriteKey(isDebug)));
+        this.identifyTraits = createIdentifyTraits(environment);
+        identity.expect(identifyTraits);
+        this.pool = pool;
+        this.clientFactory = () -> pool.acquire(
+                configuration.getWriteKey(isDebug), analyticsFactory, getBatchingBounds(configuration));
+    }
+
+    private static AdaptiveBatching.Bounds getBatchingBounds(ISegmentConfiguration configuration) {
+        AdaptiveBatching.Bounds bounds = configuration.getBatchingBounds();
+        if (bounds == null) {
+            return AdaptiveBatching.Bounds.DEFAULT;
+        }
+        return bounds;
+    }
+
+    private static IdentifyTraits createIdentifyTraits(Environment environment) {
+        if (environment == null) {
+            return null;
+        }
+        return new IdentifyTraits(
+                environment.getLocale(),
+                environment.getTimezone(),
+                environment.getPlatform().getName(),
+                environment.getPlatform().getVersion(),
+                environment.getPlatform().getDistribution());
     }
 
     @Override
     public void send(Event event) {
         try {
-            if (analytics.get() == null) {
+            AnalyticsPool.Client client = getClient();
+            if (client == null) {
                 LOGGER.warn("Could not send " + event.getType() + " event '" + event.getName() + "': no analytics instance present.");
                 return;
             }
-            Map<String, Object> context = createContext(environment);
+            Map<String, Object> context = getContext().get();
             SegmentType segmentType = SegmentType.valueOf(event.getType());
             MessageBuilder builder = segmentType.toMessage(event, context, this);
             if (builder == null) {
                 LOGGER.debug("No message to be sent.");
             } else {
                 LOGGER.debug("Sending message " + builder.type() + " to segment.");
-                analytics.get().enqueue(builder);
+                client.getBatching().enqueue(estimateSize(event), () -> client.getAnalytics().enqueue(builder));
             }
         } catch (IllegalArgumentException e) {
             LOGGER.warn("Could not send " + event.getName() + " event: unknown type '" + event.getType() + "'.");
@@ -145,13 +226,11 @@ public class SegmentBroker implements IMessageBroker {
     }
 
     private boolean addTraits(IdentifyMessage.Builder builder, Event event) {
-        if (environment != null) {
-            IdentifyTraits identifyTraits = new IdentifyTraits(
-                    environment.getLocale(),
-                    environment.getTimezone(),
-                    environment.getPlatform().getName(),
-                    environment.getPlatform().getVersion(),
-                    environment.getPlatform().getDistribution());
+        if (!identity.identify(identifyTraits)) {
+            LOGGER.debug("Skipping identify message: already identified in this session: " + identifyTraits);
+            return false;
+        }
+        if (identifyTraits != null) {
             if (!haveChanged(identifyTraits, identifyTraitsPersistence)) {
                 LOGGER.debug("Skipping identify message: already sent." + identifyTraits);
                 return false;
@@ -194,17 +273,12 @@ public class SegmentBroker implements IMessageBroker {
                 .context(context);
     }
 
+    /**
+     * Returns the event properties with the app and plugin properties added.
+     * Event properties take precedence over app and plugin properties with the same key.
+     */
     private Map<String, ?> addTrackProperties(final Map<String, String> properties) {
-        if (environment != null) {
-            Application application = environment.getIde();
-            putIfNotNull(PROP_APP_NAME, application.getName(), properties);
-            putIfNotNull(PROP_APP_VERSION, application.getVersion(), properties);
-            application.getProperties().forEach(
-                    appProperty -> putIfNotNull(appProperty.getKey(), String.valueOf(appProperty.getValue()), properties));
-            putIfNotNull(PROP_EXTENSION_NAME, environment.getPlugin().getName(), properties);
-            putIfNotNull(PROP_EXTENSION_VERSION, environment.getPlugin().getVersion(), properties);
-        }
-        return properties;
+        return getTrackProperties().overlay(properties);
     }
 
     private MessageBuilder toMessage(PageMessage.Builder builder, Event event, Map<String, Object> context) {
@@ -223,51 +297,95 @@ public class SegmentBroker implements IMessageBroker {
         properties.put(key, value);
     }
 
-    private Map<String, Object> createContext(Environment environment) {
-        if (environment == null) {
-            return Collections.emptyMap();
+    /* for testing purposes */
+    SegmentContext getContext() {
+        SegmentContext context = SegmentContext.of(environment, this.context);
+        this.context = context;
+        return context;
+    }
+
+    /* for testing purposes */
+    TrackProperties getTrackProperties() {
+        TrackProperties trackProperties = TrackProperties.of(environment, this.trackProperties);
+        this.trackProperties = trackProperties;
+        return trackProperties;
+    }
+
+    private static int estimateSize(Event event) {
+        int size = MESSAGE_OVERHEAD_BYTES + length(event.getName());
+        Map<String, String> properties = event.getProperties();
+        if (properties != null) {
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                size += length(property.getKey()) + length(property.getValue()) + PROPERTY_OVERHEAD_BYTES;
+            }
         }
-        return new MapBuilder()
-                .mapPair(PROP_APP)
-                    .pair(PROP_NAME, environment.getIde().getName())
-                    .pair(PROP_VERSION, environment.getIde().getVersion())
-                    .pairs(environment.getIde().getProperties())
-                    .build()
-                .pair(PROP_IP, VALUE_NULL_IP)
-                .pair(PROP_LOCALE, environment.getLocale())
-                .mapPair(PROP_LOCATION)
-                    .pair(PROP_COUNTRY, environment.getCountry())
-                    .build()
-                .mapPair(PROP_OS)
-                    .pair(PROP_NAME, environment.getPlatform().getName())
-                    .pair(PROP_VERSION, environment.getPlatform().getVersion())
-                    .build()
-                .pair(PROP_TIMEZONE, environment.getTimezone())
-                .build();
+        return size;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Returns the adaptive batching of the messages that this broker sends, including its statistics.
+     * The batching is shared with the brokers that use the same write key.
+     * Returns {@code null} if there's no analytics instance.
+     *
+     * @return the adaptive batching of this broker
+     */
+    public AdaptiveBatching getBatching() {
+        AnalyticsPool.Client client = getClient();
+        if (client == null) {
+            return null;
+        }
+        return client.getBatching();
+    }
+
+    private synchronized AnalyticsPool.Client getClient() {
+        if (client == null
+                && !disposed) {
+            this.client = clientFactory.get();
+        }
+        return client;
     }
 
     @Override
     public void dispose() {
-        analytics.get().flush();
-        analytics.get().shutdown();
+        AnalyticsPool.Client client;
+        synchronized (this) {
+            // a broker that never sent holds no client
+            client = this.client;
+            this.client = null;
+            this.disposed = true;
+        }
+        pool.release(client);
     }
 
-    private static class AnalyticsFactory implements Function<String, Analytics> {
+    private static class AnalyticsFactory implements BiFunction<String, Callback, Analytics> {
+
+        /* the Segment client rejects flush intervals below 1s */
+        private static final long MIN_CLIENT_FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(1);
 
-        private static final int FLUSH_INTERVAL = 10000;
-        private static final int FLUSH_QUEUE_SIZE = 10;
+        private final AdaptiveBatching.Bounds bounds;
+
+        private AnalyticsFactory(AdaptiveBatching.Bounds bounds) {
+            this.bounds = bounds;
+        }
 
         @Nullable
         @Override
-        public Analytics apply(String writeKey) {
+        public Analytics apply(String writeKey, Callback callback) {
             if (writeKey == null) {
                 LOGGER.warn("Could not create Segment Analytics instance, missing writeKey.");
                 return null;
             }
             LOGGER.debug("Creating Segment Analytics instance using " + writeKey + " writeKey.");
+            // AdaptiveBatching flushes before the client does, the client limits are a backstop
             return Analytics.builder(writeKey)
-                    .flushQueueSize(FLUSH_QUEUE_SIZE)
-                    .flushInterval(FLUSH_INTERVAL, TimeUnit.MILLISECONDS)
+                    .flushQueueSize(bounds.getMaxBatchSize())
+                    .maximumQueueSizeInBytes(bounds.getMaxBatchBytes())
+                    .flushInterval(Math.max(MIN_CLIENT_FLUSH_INTERVAL, 2 * bounds.getMaxFlushInterval()), TimeUnit.MILLISECONDS)
+                    .callback(callback)
                     .build();
         }
     }
@@ -10,6 +10,7 @@
  ******************************************************************************/
 package com.redhat.devtools.intellij.telemetry.core.service.segment;
 
+import com.intellij.openapi.diagnostic.Logger;
 import com.redhat.devtools.intellij.telemetry.core.configuration.ClasspathConfiguration;
 import com.redhat.devtools.intellij.telemetry.core.configuration.CompositeConfiguration;
 import com.redhat.devtools.intellij.telemetry.core.configuration.IConfiguration;
@@ -21,8 +22,15 @@ import java.util.List;
 
 public class SegmentConfiguration extends CompositeConfiguration implements ISegmentConfiguration {
 
+    private static final Logger LOGGER = Logger.getInstance(SegmentConfiguration.class);
+
     public static final String KEY_SEGMENT_WRITE = "writeKey";
     public static final String KEY_SEGMENT_DEBUG_WRITE = "debugWriteKey";
+    public static final String KEY_BATCH_MIN_SIZE = "batchMinSize";
+    public static final String KEY_BATCH_MAX_SIZE = "batchMaxSize";
+    public static final String KEY_BATCH_MAX_BYTES = "batchMaxBytes";
+    public static final String KEY_BATCH_MIN_INTERVAL = "batchMinInterval";
+    public static final String KEY_BATCH_MAX_INTERVAL = "batchMaxInterval";
 
     private static final String SEGMENT_PROPERTIES = "segment.properties";
     private static final String SEGMENT_DEFAULTS_PROPERTIES = "segment-defaults.properties";
@@ -61,4 +69,33 @@ public class SegmentConfiguration extends CompositeConfiguration implements ISeg
     public String getDebugWriteKey() {
         return get(KEY_SEGMENT_DEBUG_WRITE);
     }
+
+    /**
+     * Returns the bounds of the adaptive batching. Missing or invalid values are replaced by the defaults.
+     * Intervals are in milliseconds.
+     *
+     * @return the bounds of the adaptive batching
+     */
+    @Override
+    public AdaptiveBatching.Bounds getBatchingBounds() {
+        return new AdaptiveBatching.Bounds(
+                (int) getLong(KEY_BATCH_MIN_SIZE),
+                (int) getLong(KEY_BATCH_MAX_SIZE),
+                (int) getLong(KEY_BATCH_MAX_BYTES),
+                getLong(KEY_BATCH_MIN_INTERVAL),
+                getLong(KEY_BATCH_MAX_INTERVAL));
+    }
+
+    private long getLong(String key) {
+        String value = get(key);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.min(Long.parseLong(value.trim()), Integer.MAX_VALUE);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Ignoring invalid value '" + value + "' for segment configuration key " + key + ".");
+            return -1;
+        }
+    }
 }
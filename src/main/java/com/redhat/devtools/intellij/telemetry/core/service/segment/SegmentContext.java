@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Application;
+import com.redhat.devtools.intellij.telemetry.core.service.Environment;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_COUNTRY;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_IP;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_LOCALE;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_LOCATION;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_OS;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_TIMEZONE;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_VERSION;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.VALUE_NULL_IP;
+
+/**
+ * The context (app, location, os, locale, timezone) that is sent with each Segment message.
+ * It is built once for an environment and shared by all messages. The maps it holds are unmodifiable.
+ */
+class SegmentContext {
+
+    static final SegmentContext EMPTY = new SegmentContext(null, 0, Collections.emptyMap());
+
+    private final Environment environment;
+    private final int modifications;
+    private final Map<String, Object> map;
+
+    private SegmentContext(Environment environment, int modifications, Map<String, Object> map) {
+        this.environment = environment;
+        this.modifications = modifications;
+        this.map = map;
+    }
+
+    /**
+     * Returns a context for the given environment. Returns the given context if it was built for the same
+     * environment and the environment did not change since.
+     *
+     * @param environment the environment to return the context for
+     * @param existing the context that was built before, may be {@code null}
+     * @return the context for the given environment
+     */
+    static SegmentContext of(Environment environment, SegmentContext existing) {
+        if (environment == null) {
+            return EMPTY;
+        }
+        if (existing != null
+                && existing.isFor(environment)) {
+            return existing;
+        }
+        return create(environment);
+    }
+
+    private boolean isFor(Environment environment) {
+        return this.environment == environment
+                && modifications == environment.getIde().getModifications();
+    }
+
+    private static SegmentContext create(Environment environment) {
+        Application ide = environment.getIde();
+        // read modifications before properties so that a concurrent modification causes a rebuild
+        int modifications = ide.getModifications();
+        Collection<AbstractMap.SimpleEntry<String, Object>> ideProperties = ide.getProperties();
+
+        Map<String, Object> app = new HashMap<>(capacity(2 + ideProperties.size()));
+        app.put(PROP_NAME, ide.getName());
+        app.put(PROP_VERSION, ide.getVersion());
+        ideProperties.forEach(entry -> app.put(entry.getKey(), entry.getValue()));
+
+        Map<String, Object> location = Collections.singletonMap(PROP_COUNTRY, environment.getCountry());
+
+        Map<String, Object> os = new HashMap<>(capacity(2));
+        os.put(PROP_NAME, environment.getPlatform().getName());
+        os.put(PROP_VERSION, environment.getPlatform().getVersion());
+
+        Map<String, Object> context = new HashMap<>(capacity(6));
+        context.put(PROP_APP, Collections.unmodifiableMap(app));
+        context.put(PROP_IP, VALUE_NULL_IP);
+        context.put(PROP_LOCALE, environment.getLocale());
+        context.put(PROP_LOCATION, location);
+        context.put(PROP_OS, Collections.unmodifiableMap(os));
+        context.put(PROP_TIMEZONE, environment.getTimezone());
+        return new SegmentContext(environment, modifications, Collections.unmodifiableMap(context));
+    }
+
+    private static int capacity(int size) {
+        return (int) Math.ceil(size / 0.75);
+    }
+
+    /**
+     * Returns the unmodifiable context map.
+     *
+     * @return the context map
+     */
+    Map<String, Object> get() {
+        return map;
+    }
+}
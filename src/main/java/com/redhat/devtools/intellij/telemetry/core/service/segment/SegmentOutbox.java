@@ -0,0 +1,651 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.intellij.openapi.diagnostic.Logger;
+import com.redhat.devtools.intellij.telemetry.core.util.Directories;
+import com.segment.analytics.messages.IdentifyMessage;
+import com.segment.analytics.messages.Message;
+import com.segment.analytics.messages.MessageBuilder;
+import com.segment.analytics.messages.PageMessage;
+import com.segment.analytics.messages.TrackMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A durable outbox for the Segment messages that could not be delivered.
+ * The messages are held in a directory of segment files that are memory-mapped and hold checksummed records:
+ * <pre>
+ *     [long read position][int length][int crc][record]...[int length][int crc][record]
+ * </pre>
+ * The length of a record is written last so that a record which was interrupted by a crash reads as the end of
+ * the segment. Records with an invalid length or checksum are truncated when the segment is opened.
+ * A new segment is started once the last one is full, the oldest segment is deleted if the outbox exceeds
+ * the configured number of bytes. Replaying hands out the messages in the order they were appended and
+ * deletes a segment once all its messages were replayed.
+ * The directory is shared by all the IDEs that run on the machine. An outbox therefore holds an exclusive lock
+ * on the directory while it uses it. An outbox that can't get the lock doesn't hold any message and tries
+ * again to get it after {@link #LOCK_RETRY_INTERVAL}.
+ */
+class SegmentOutbox {
+
+    private static final Logger LOGGER = Logger.getInstance(SegmentOutbox.class);
+
+    static final String SYSTEM_PROP_MAX_BYTES = "com.redhat.devtools.intellij.telemetry.outbox.maxBytes";
+    static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024;
+
+    private static final Path DIRECTORY = Directories.RED_HAT.resolve("segment-outbox");
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = Long.BYTES;
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+    private static final int MIN_SEGMENTS = 2;
+    private static final String LOCK_FILENAME = ".lock";
+    static final long LOCK_RETRY_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    /* one outbox per directory in this process, the lock is held by the process */
+    private static final Map<Path, SegmentOutbox> OUTBOXES = new HashMap<>();
+
+    private static final Gson GSON = new Gson();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private static final String KEY_TYPE = "type";
+    private static final String KEY_MESSAGE_ID = "messageId";
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_USER_ID = "userId";
+    private static final String KEY_ANONYMOUS_ID = "anonymousId";
+    private static final String KEY_CONTEXT = "context";
+    private static final String KEY_EVENT = "event";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_CATEGORY = "category";
+    private static final String KEY_PROPERTIES = "properties";
+    private static final String KEY_TRAITS = "traits";
+    private static final String KEY_ATTEMPTS = "attempts";
+
+    /**
+     * An outbox that doesn't hold any message.
+     */
+    static final SegmentOutbox NONE = new SegmentOutbox(null, 0, 0) {
+        @Override
+        public synchronized boolean append(Message message, int attempts) {
+            return false;
+        }
+
+        @Override
+        public synchronized boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public synchronized int size() {
+            return 0;
+        }
+
+        @Override
+        public synchronized int replay(int max, Predicate<Entry> consumer) {
+            return 0;
+        }
+    };
+
+    /**
+     * Returns the outbox for the messages that are sent with the given write key.
+     * The size of the outbox is limited to the number of bytes given in the system property {@link #SYSTEM_PROP_MAX_BYTES}.
+     *
+     * @param writeKey the write key of the messages
+     * @return the outbox for the given write key
+     */
+    static SegmentOutbox create(String writeKey) {
+        if (writeKey == null) {
+            return NONE;
+        }
+        Path directory = DIRECTORY.resolve(writeKey.replaceAll("[^\\w.\\-]", "_"));
+        synchronized (OUTBOXES) {
+            return OUTBOXES.computeIfAbsent(directory, key -> new SegmentOutbox(
+                    key, DEFAULT_SEGMENT_BYTES, Integer.getInteger(SYSTEM_PROP_MAX_BYTES, DEFAULT_MAX_BYTES)));
+        }
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    /* oldest segment first, opened on first use */
+    private Deque<Segment> segments;
+    private long nextSequence = 0;
+    private long dropped = 0;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private long lockFailed = -1;
+
+    /* for testing purposes */
+    SegmentOutbox(Path directory, int segmentBytes, int maxBytes) {
+        this.directory = directory;
+        this.segmentBytes = Math.max(HEADER_SIZE + FRAME_SIZE, segmentBytes);
+        this.maxSegments = Math.max(MIN_SEGMENTS, maxBytes / this.segmentBytes);
+    }
+
+    /**
+     * Appends the given message to this outbox. Deletes the oldest segment if the outbox would exceed its
+     * maximum number of bytes otherwise.
+     * Returns {@code false} if the message is not supported, too large or could not be written.
+     *
+     * @param message the message to append
+     * @param attempts the number of attempts to deliver the message
+     * @return true if the message was appended
+     */
+    public synchronized boolean append(Message message, int attempts) {
+        try {
+            byte[] record = encode(message, attempts);
+            if (HEADER_SIZE + FRAME_SIZE + record.length > segmentBytes) {
+                LOGGER.debug("Could not append message " + message.messageId() + " to outbox: message is too large.");
+                return false;
+            }
+            Segment tail = getTail(FRAME_SIZE + record.length);
+            if (tail == null) {
+                LOGGER.debug("Could not append message " + message.messageId() + " to outbox: outbox is locked by another process.");
+                return false;
+            }
+            tail.append(record);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not append message " + message.messageId() + " to outbox " + directory + ".", e);
+            return false;
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of messages that were not replayed yet.
+     *
+     * @return the number of messages in this outbox
+     */
+    public synchronized int size() {
+        if (segments == null
+                && !Files.exists(directory)) {
+            // don't create the directory before anything is appended
+            return 0;
+        }
+        try {
+            Deque<Segment> segments = getSegments();
+            if (segments == null) {
+                return 0;
+            }
+            int size = 0;
+            for (Segment segment : segments) {
+                size += segment.unread;
+            }
+            return size;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read outbox " + directory + ".", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Hands at most the given number of messages to the given consumer, in the order they were appended.
+     * A message is removed from this outbox once the consumer accepted it. Replaying stops if the consumer
+     * doesn't accept a message, which then remains in the outbox. Messages that can't be decoded are dropped.
+     *
+     * @param max the maximum number of messages to replay
+     * @param consumer the consumer that accepts or rejects the messages
+     * @return the number of replayed messages
+     */
+    public synchronized int replay(int max, Predicate<Entry> consumer) {
+        if (isEmpty()) {
+            return 0;
+        }
+        int replayed = 0;
+        try {
+            Deque<Segment> segments = getSegments();
+            if (segments == null) {
+                return 0;
+            }
+            removeRead(segments);
+            while (replayed < max
+                    && !segments.isEmpty()
+                    && !segments.peekFirst().isRead()) {
+                Segment head = segments.peekFirst();
+                try {
+                    if (!consumer.test(decode(head.peek()))) {
+                        break;
+                    }
+                    replayed++;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.warn("Could not replay message in outbox " + head.file + ", dropping it.", e);
+                }
+                head.advance();
+                removeRead(segments);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not replay outbox " + directory + ".", e);
+        }
+        return replayed;
+    }
+
+    /* deletes the segments whose messages were all replayed, but keeps the last one to append to */
+    private static void removeRead(Deque<Segment> segments) {
+        while (segments.size() > 1
+                && segments.peekFirst().isRead()) {
+            segments.removeFirst().delete();
+        }
+    }
+
+    /**
+     * Returns the number of messages that were dropped because the outbox was full.
+     *
+     * @return the number of dropped messages
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    private Segment getTail(int bytes) throws IOException {
+        Deque<Segment> segments = getSegments();
+        if (segments == null) {
+            return null;
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null
+                || !tail.fits(bytes)) {
+            tail = Segment.open(directory.resolve(toFilename(nextSequence++)), segmentBytes);
+            segments.addLast(tail);
+        }
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.removeFirst();
+            if (oldest.unread > 0) {
+                LOGGER.warn("Outbox " + directory + " is full, dropping " + oldest.unread + " messages.");
+                this.dropped += oldest.unread;
+            }
+            oldest.delete();
+        }
+        return tail;
+    }
+
+    /* returns null if another process holds the lock */
+    private Deque<Segment> getSegments() throws IOException {
+        if (segments == null
+                && lock()) {
+            this.segments = open();
+        }
+        return segments;
+    }
+
+    private boolean lock() throws IOException {
+        long now = System.currentTimeMillis();
+        if (0 <= lockFailed
+                && now - lockFailed < LOCK_RETRY_INTERVAL) {
+            return false;
+        }
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILENAME),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another outbox in this process
+        }
+        if (lock == null) {
+            channel.close();
+            LOGGER.debug("Could not lock outbox " + directory + ": it is used by another process.");
+            this.lockFailed = now;
+            return false;
+        }
+        this.lockChannel = channel;
+        this.lock = lock;
+        this.lockFailed = -1;
+        return true;
+    }
+
+    /**
+     * Releases the lock on the directory of this outbox so that another process can use it.
+     * The outbox locks the directory again when it's used.
+     */
+    public synchronized void close() {
+        this.segments = null;
+        this.lockFailed = -1;
+        if (lockChannel == null) {
+            return;
+        }
+        try {
+            // closing the channel releases the lock
+            lockChannel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not unlock outbox " + directory + ".", e);
+        }
+        this.lockChannel = null;
+        this.lock = null;
+    }
+
+    private Deque<Segment> open() throws IOException {
+        Deque<Segment> segments = new ArrayDeque<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> toSequence(file.getFileName().toString()))
+                    .filter(sequence -> sequence >= 0)
+                    .sorted()
+                    .forEach(sequences::add);
+        }
+        for (long sequence : sequences) {
+            Segment segment = Segment.open(directory.resolve(toFilename(sequence)), segmentBytes);
+            if (segment.isRead()) {
+                // all messages were replayed before
+                segment.delete();
+            } else {
+                segments.addLast(segment);
+            }
+            this.nextSequence = sequence + 1;
+        }
+        return segments;
+    }
+
+    private static String toFilename(long sequence) {
+        return String.format("%016d%s", sequence, SEGMENT_SUFFIX);
+    }
+
+    private static long toSequence(String filename) {
+        if (!filename.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(filename.substring(0, filename.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static byte[] encode(Message message, int attempts) {
+        JsonObject json = new JsonObject();
+        json.addProperty(KEY_TYPE, message.type().name());
+        json.addProperty(KEY_MESSAGE_ID, message.messageId());
+        if (message.timestamp() != null) {
+            json.addProperty(KEY_TIMESTAMP, message.timestamp().getTime());
+        }
+        json.addProperty(KEY_USER_ID, message.userId());
+        json.addProperty(KEY_ANONYMOUS_ID, message.anonymousId());
+        json.add(KEY_CONTEXT, GSON.toJsonTree(message.context()));
+        json.addProperty(KEY_ATTEMPTS, attempts);
+        if (message instanceof TrackMessage) {
+            TrackMessage track = (TrackMessage) message;
+            json.addProperty(KEY_EVENT, track.event());
+            json.add(KEY_PROPERTIES, GSON.toJsonTree(track.properties()));
+        } else if (message instanceof IdentifyMessage) {
+            json.add(KEY_TRAITS, GSON.toJsonTree(((IdentifyMessage) message).traits()));
+        } else if (message instanceof PageMessage) {
+            PageMessage page = (PageMessage) message;
+            json.addProperty(KEY_NAME, page.name());
+            json.addProperty(KEY_CATEGORY, page.category());
+            json.add(KEY_PROPERTIES, GSON.toJsonTree(page.properties()));
+        } else {
+            throw new IllegalArgumentException("Unsupported message type " + message.type() + ".");
+        }
+        return GSON.toJson(json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static Entry decode(byte[] record) throws IOException {
+        JsonObject json = JsonParser.parseString(new String(record, StandardCharsets.UTF_8)).getAsJsonObject();
+        MessageBuilder<?, ?> builder = createBuilder(json);
+        String messageId = getString(KEY_MESSAGE_ID, json);
+        if (messageId != null) {
+            builder.messageId(messageId);
+        }
+        JsonElement timestamp = json.get(KEY_TIMESTAMP);
+        if (isPresent(timestamp)) {
+            builder.timestamp(new Date(timestamp.getAsLong()));
+        }
+        String userId = getString(KEY_USER_ID, json);
+        if (userId != null) {
+            builder.userId(userId);
+        }
+        String anonymousId = getString(KEY_ANONYMOUS_ID, json);
+        if (anonymousId != null) {
+            builder.anonymousId(anonymousId);
+        }
+        Map<String, Object> context = getMap(KEY_CONTEXT, json);
+        if (context != null) {
+            builder.context(context);
+        }
+        JsonElement attempts = json.get(KEY_ATTEMPTS);
+        return new Entry(builder, messageId, isPresent(attempts) ? attempts.getAsInt() : 0);
+    }
+
+    private static MessageBuilder<?, ?> createBuilder(JsonObject json) throws IOException {
+        String type = getString(KEY_TYPE, json);
+        Map<String, Object> properties = getMap(KEY_PROPERTIES, json);
+        if (Message.Type.track.name().equals(type)) {
+            TrackMessage.Builder builder = TrackMessage.builder(getString(KEY_EVENT, json));
+            if (properties != null) {
+                builder.properties(properties);
+            }
+            return builder;
+        } else if (Message.Type.identify.name().equals(type)) {
+            IdentifyMessage.Builder builder = IdentifyMessage.builder();
+            Map<String, Object> traits = getMap(KEY_TRAITS, json);
+            if (traits != null) {
+                builder.traits(traits);
+            }
+            return builder;
+        } else if (Message.Type.page.name().equals(type)) {
+            PageMessage.Builder builder = PageMessage.builder(getString(KEY_NAME, json));
+            String category = getString(KEY_CATEGORY, json);
+            if (category != null) {
+                builder.category(category);
+            }
+            if (properties != null) {
+                builder.properties(properties);
+            }
+            return builder;
+        }
+        throw new IOException("Unsupported message type " + type + ".");
+    }
+
+    private static String getString(String key, JsonObject json) {
+        JsonElement element = json.get(key);
+        return isPresent(element) ? element.getAsString() : null;
+    }
+
+    private static Map<String, Object> getMap(String key, JsonObject json) {
+        JsonElement element = json.get(key);
+        return isPresent(element) ? GSON.fromJson(element, MAP_TYPE) : null;
+    }
+
+    private static boolean isPresent(JsonElement element) {
+        return element != null
+                && !element.isJsonNull();
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A message that is replayed, along with the number of attempts that were made to deliver it.
+     */
+    static class Entry {
+
+        private final MessageBuilder<?, ?> builder;
+        private final String messageId;
+        private final int attempts;
+
+        private Entry(MessageBuilder<?, ?> builder, String messageId, int attempts) {
+            this.builder = builder;
+            this.messageId = messageId;
+            this.attempts = attempts;
+        }
+
+        MessageBuilder<?, ?> getBuilder() {
+            return builder;
+        }
+
+        String getMessageId() {
+            return messageId;
+        }
+
+        int getAttempts() {
+            return attempts;
+        }
+    }
+
+    /**
+     * A memory-mapped segment file of the outbox.
+     */
+    private static class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int read = HEADER_SIZE;
+        private int end = HEADER_SIZE;
+        private int unread = 0;
+
+        private static Segment open(Path file, int bytes) throws IOException {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // mapping remains valid once the channel is closed
+                Segment segment = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+                segment.recover();
+                return segment;
+            }
+        }
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        /* finds the end of the valid records and truncates whatever follows */
+        private void recover() {
+            long position = buffer.getLong(0);
+            int read = HEADER_SIZE <= position && position <= buffer.capacity() ? (int) position : HEADER_SIZE;
+            boolean aligned = read == HEADER_SIZE;
+            int records = 0;
+            int before = 0;
+            int end = HEADER_SIZE;
+            while (end + FRAME_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(end);
+                if (length == 0) {
+                    break;
+                }
+                if (!isValid(end, length)) {
+                    LOGGER.warn("Truncating corrupt outbox segment " + file + " at " + end + ".");
+                    truncate(end);
+                    break;
+                }
+                if (end < read) {
+                    before++;
+                }
+                records++;
+                end += FRAME_SIZE + length;
+                aligned |= end == read;
+            }
+            if (!aligned
+                    || read > end) {
+                // replaying again is safe, Segment drops messages with the same id
+                read = HEADER_SIZE;
+                before = 0;
+            }
+            this.read = read;
+            this.end = end;
+            this.unread = records - before;
+            buffer.putLong(0, read);
+        }
+
+        private boolean isValid(int position, int length) {
+            if (length < 0
+                    || position + FRAME_SIZE + length > buffer.capacity()) {
+                return false;
+            }
+            ByteBuffer record = buffer.duplicate();
+            record.limit(position + FRAME_SIZE + length).position(position + FRAME_SIZE);
+            return checksum(record) == buffer.getInt(position + Integer.BYTES);
+        }
+
+        private void truncate(int position) {
+            for (int i = position; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+
+        private boolean fits(int bytes) {
+            return end + bytes <= buffer.capacity();
+        }
+
+        private void append(byte[] record) {
+            buffer.put(end + FRAME_SIZE, record);
+            buffer.putInt(end + Integer.BYTES, checksum(ByteBuffer.wrap(record)));
+            // mark record as written once it's complete
+            buffer.putInt(end, record.length);
+            this.end += FRAME_SIZE + record.length;
+            this.unread++;
+        }
+
+        private byte[] peek() {
+            byte[] record = new byte[buffer.getInt(read)];
+            buffer.get(read + FRAME_SIZE, record);
+            return record;
+        }
+
+        private void advance() {
+            this.read += FRAME_SIZE + buffer.getInt(read);
+            this.unread--;
+            buffer.putLong(0, read);
+        }
+
+        private boolean isRead() {
+            return read >= end;
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // file is still mapped on some platforms, it's deleted once it's opened again
+                LOGGER.debug("Could not delete outbox segment " + file + ".", e);
+            }
+        }
+    }
+}
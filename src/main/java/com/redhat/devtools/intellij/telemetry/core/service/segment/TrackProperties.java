@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Application;
+import com.redhat.devtools.intellij.telemetry.core.service.Environment;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_VERSION;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_VERSION;
+
+/**
+ * The app and plugin properties that are added to each track message.
+ * They are built once for an environment and merged into the event properties with {@link #overlay(Map)}.
+ * Event properties take precedence: an event property with the same key as a track property replaces it.
+ */
+class TrackProperties {
+
+    static final TrackProperties EMPTY = new TrackProperties(null, 0, new String[0], new String[0]);
+
+    private final Environment environment;
+    private final int modifications;
+    private final String[] keys;
+    private final String[] values;
+    /* entries are created once and handed out by every overlay */
+    private final Map.Entry<String, String>[] entries;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private TrackProperties(Environment environment, int modifications, String[] keys, String[] values) {
+        this.environment = environment;
+        this.modifications = modifications;
+        this.keys = keys;
+        this.values = values;
+        this.entries = new Map.Entry[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            entries[i] = new AbstractMap.SimpleImmutableEntry<>(keys[i], values[i]);
+        }
+    }
+
+    /**
+     * Returns the track properties for the given environment. Returns the given track properties if they were
+     * built for the same environment and the environment did not change since.
+     *
+     * @param environment the environment to return the track properties for
+     * @param existing the track properties that were built before, may be {@code null}
+     * @return the track properties for the given environment
+     */
+    static TrackProperties of(Environment environment, TrackProperties existing) {
+        if (environment == null) {
+            return EMPTY;
+        }
+        if (existing != null
+                && existing.isFor(environment)) {
+            return existing;
+        }
+        return create(environment);
+    }
+
+    private boolean isFor(Environment environment) {
+        return this.environment == environment
+                && modifications == environment.getIde().getModifications();
+    }
+
+    private static TrackProperties create(Environment environment) {
+        Application application = environment.getIde();
+        // read modifications before properties so that a concurrent modification causes a rebuild
+        int modifications = application.getModifications();
+        List<String> keys = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        addIfNotNull(PROP_APP_NAME, application.getName(), keys, values);
+        addIfNotNull(PROP_APP_VERSION, application.getVersion(), keys, values);
+        application.getProperties().forEach(appProperty ->
+                addIfNotNull(appProperty.getKey(), String.valueOf(appProperty.getValue()), keys, values));
+        addIfNotNull(PROP_EXTENSION_NAME, environment.getPlugin().getName(), keys, values);
+        addIfNotNull(PROP_EXTENSION_VERSION, environment.getPlugin().getVersion(), keys, values);
+        return new TrackProperties(environment, modifications, keys.toArray(new String[0]), values.toArray(new String[0]));
+    }
+
+    private static void addIfNotNull(String key, String value, List<String> keys, List<String> values) {
+        if (key == null
+                || value == null) {
+            return;
+        }
+        int index = keys.indexOf(key);
+        if (index >= 0) {
+            // later properties replace earlier ones
+            values.set(index, value);
+        } else {
+            keys.add(key);
+            values.add(value);
+        }
+    }
+
+    /**
+     * Returns a read-only view of these track properties with the given event properties on top.
+     * Event properties replace track properties with the same key. Nothing is copied,
+     * the view reflects changes to the event properties.
+     *
+     * @param properties the event properties
+     * @return the merged view of track and event properties
+     */
+    Map<String, String> overlay(Map<String, String> properties) {
+        return new Overlay(this, properties == null ? Collections.emptyMap() : properties);
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * A read-only map of the track properties that are not overridden, followed by the event properties.
+     */
+    private static class Overlay extends AbstractMap<String, String> {
+
+        private final TrackProperties template;
+        private final Map<String, String> properties;
+        private final int size;
+
+        private Overlay(TrackProperties template, Map<String, String> properties) {
+            this.template = template;
+            this.properties = properties;
+            this.size = template.keys.length - countOverridden(template, properties) + properties.size();
+        }
+
+        private static int countOverridden(TrackProperties template, Map<String, String> properties) {
+            int overridden = 0;
+            for (String key : template.keys) {
+                if (properties.containsKey(key)) {
+                    overridden++;
+                }
+            }
+            return overridden;
+        }
+
+        @Override
+        public String get(Object key) {
+            String value = properties.get(key);
+            if (value != null
+                    || properties.containsKey(key)) {
+                return value;
+            }
+            int index = indexOf(key);
+            return index < 0 ? null : template.values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return properties.containsKey(key)
+                    || indexOf(key) >= 0;
+        }
+
+        private int indexOf(Object key) {
+            String[] keys = template.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new OverlayIterator(template, properties);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private static class OverlayIterator implements Iterator<Map.Entry<String, String>> {
+
+        private final TrackProperties template;
+        private final Map<String, String> properties;
+        private final Iterator<Map.Entry<String, String>> propertiesIterator;
+        private int index = -1;
+
+        private OverlayIterator(TrackProperties template, Map<String, String> properties) {
+            this.template = template;
+            this.properties = properties;
+            this.propertiesIterator = properties.entrySet().iterator();
+            advance();
+        }
+
+        private void advance() {
+            do {
+                index++;
+            } while (index < template.keys.length
+                    && properties.containsKey(template.keys[index]));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < template.keys.length
+                    || propertiesIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (index < template.keys.length) {
+                Map.Entry<String, String> entry = template.entries[index];
+                advance();
+                return entry;
+            }
+            if (!propertiesIterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return propertiesIterator.next();
+        }
+    }
+}
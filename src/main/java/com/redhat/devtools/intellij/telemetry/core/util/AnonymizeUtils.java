@@ -29,31 +29,53 @@ public class AnonymizeUtils {
     public static final String ANONYMOUS_IP = "<IP>";
     public static final String ANONYMOUS_RESOURCENAME = "<RESOURCENAME>";
     public static final String ANONYMOUS_NAMESPACE = "<NAMESPACE>";
+    /* same order as the individual replacements used to be applied in */
+    static final int[] ORDER = { 0, 1, Anonymizer.IP, 2, Anonymizer.EMAIL };
+    private static final Anonymizer ANONYMIZER = new Anonymizer(
+            new String[] { TMP_DIR, HOME_DIR, USER_NAME },
+            new String[] { ANONYMOUS_TMPDIR, ANONYMOUS_HOMEDIR, ANONYMOUS_USER_NAME },
+            ANONYMOUS_IP,
+            ANONYMOUS_EMAIL,
+            new String[0],
+            new String[0],
+            new AnonymizerCache(),
+            ORDER);
 
     private AnonymizeUtils() {
     }
 
+    /**
+     * Replaces the tmp dir, home dir, ip addresses, user name and email addresses in the given string.
+     * The string is scanned once and returned as is if there's nothing to replace.
+     * Results for strings that are anonymized repeatedly (ex. the same exception message) are cached.
+     *
+     * @param string the string to anonymize
+     * @return the anonymized string
+     */
     public static String anonymize(String string) {
-        return anonymizeEmail(
-                anonymizeUserName(
-                        anonymizeIP(
-                                anonymizeHomeDir(
-                                        anonymizeTmpDir(string)
-                                )
-                        )
-                )
-        );
+        return ANONYMIZER.anonymize(string);
     }
 
+    /**
+     * Replaces the given resource name and then the given namespace in the given string.
+     *
+     * @param name the name of the resource to replace
+     * @param namespace the namespace to replace
+     * @param string the string to anonymize
+     * @return the anonymized string
+     */
     public static String anonymizeResource(String name, String namespace, String string) {
         if (string == null
                 || string.isEmpty()) {
             return string;
         }
-        if (name != null) {
+        // name and namespace differ for each call, compiling them into an Anonymizer costs more than replacing them
+        if (name != null
+                && !name.isEmpty()) {
             string = string.replace(name, ANONYMOUS_RESOURCENAME);
         }
-        if (namespace != null) {
+        if (namespace != null
+                && !namespace.isEmpty()) {
             string = string.replace(namespace, ANONYMOUS_NAMESPACE);
         }
         return string;
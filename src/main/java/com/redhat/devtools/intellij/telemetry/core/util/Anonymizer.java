@@ -0,0 +1,610 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces literals (ex. paths, user name), IPv4 addresses, email addresses and patterns in a string in a single pass.
+ * Literals are found with an Aho-Corasick automaton, IPv4 and email addresses with hand-written recognizers
+ * that match what the regular expressions in {@link AnonymizeUtils} match.
+ * Patterns are combined into a single regex, at the same position the pattern that was given first wins.
+ * <p>
+ * The result is the same as replacing one kind after the other in the given order,
+ * a match that overlaps a match of a kind that was applied before is dropped.
+ * The given string is returned as is if nothing is found.
+ */
+public class Anonymizer {
+
+    static final int IP = -1;
+    static final int EMAIL = -2;
+    private static final int FIRST_PATTERN = -3;
+    private static final String GROUP_PREFIX = "redaction";
+
+    private final String[] literals;
+    private final String[] literalReplacements;
+    private final String ipReplacement;
+    private final String emailReplacement;
+    private final String[] patternReplacements;
+    private final Pattern patterns;
+    private final String[] patternGroups;
+    private final int[] order;
+    private final Trie trie;
+    private final AnonymizerCache cache;
+
+    /**
+     * Creates an anonymizer that replaces the given literals, ip and email addresses.
+     *
+     * @param literals the literals to replace
+     * @param literalReplacements the replacements for the literals at the same index
+     * @param ipReplacement the replacement for ip addresses
+     * @param emailReplacement the replacement for email addresses
+     * @param order the order to apply the kinds in: the index of a literal, {@link #IP} or {@link #EMAIL}
+     */
+    Anonymizer(String[] literals, String[] literalReplacements, String ipReplacement, String emailReplacement, int... order) {
+        this(literals, literalReplacements, ipReplacement, emailReplacement, new String[0], new String[0], null, order);
+    }
+
+    /**
+     * Creates an anonymizer that replaces the given literals, ip and email addresses and patterns.
+     *
+     * @param literals the literals to replace
+     * @param literalReplacements the replacements for the literals at the same index
+     * @param ipReplacement the replacement for ip addresses
+     * @param emailReplacement the replacement for email addresses
+     * @param patterns the regular expressions to replace
+     * @param patternReplacements the replacements for the patterns at the same index
+     * @param cache the cache for anonymized strings or {@code null} if they should not be cached
+     * @param order the order to apply the kinds in: the index of a literal, {@link #IP}, {@link #EMAIL}
+     *              or {@link #pattern(int)}
+     */
+    Anonymizer(String[] literals, String[] literalReplacements, String ipReplacement, String emailReplacement,
+               String[] patterns, String[] patternReplacements, AnonymizerCache cache, int... order) {
+        this.literals = literals;
+        this.literalReplacements = literalReplacements;
+        this.ipReplacement = ipReplacement;
+        this.emailReplacement = emailReplacement;
+        this.patternGroups = new String[patterns.length];
+        this.patterns = combine(patterns, patternGroups);
+        this.patternReplacements = patternReplacements;
+        this.order = order;
+        this.trie = new Trie(literals);
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the kind of the pattern at the given index.
+     *
+     * @param index the index of the pattern
+     * @return the kind of the pattern
+     */
+    static int pattern(int index) {
+        return FIRST_PATTERN - index;
+    }
+
+    private static Pattern combine(String[] patterns, String[] groups) {
+        if (patterns.length == 0) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < patterns.length; i++) {
+            groups[i] = GROUP_PREFIX + i;
+            if (i > 0) {
+                builder.append('|');
+            }
+            builder.append("(?<").append(groups[i]).append('>').append(patterns[i]).append(')');
+        }
+        return Pattern.compile(builder.toString());
+    }
+
+    public String anonymize(String string) {
+        if (string == null
+                || string.isEmpty()) {
+            return string;
+        }
+        if (cache == null
+                || !cache.isCacheable(string)) {
+            return doAnonymize(string);
+        }
+        String anonymized = cache.get(string);
+        if (anonymized == null) {
+            anonymized = doAnonymize(string);
+            cache.put(string, anonymized);
+        }
+        return anonymized;
+    }
+
+    /* for testing purposes */
+    AnonymizerCache getCache() {
+        return cache;
+    }
+
+    private String doAnonymize(String string) {
+        Matches matches = find(string);
+        if (matches == null) {
+            return string;
+        }
+        return replace(string, matches.resolve(order, string));
+    }
+
+    /* finds all the candidates, overlapping ones included: which ones remain depends on the order of the kinds */
+    private Matches find(String string) {
+        Matches matches = null;
+        int localStart = -1;
+        int state = Trie.ROOT;
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            char c = string.charAt(i);
+
+            // literals: end at i
+            state = trie.next(state, c);
+            for (int literal : trie.output(state)) {
+                int start = i - literals[literal].length() + 1;
+                matches = Matches.add(matches, literal, start, i + 1, start);
+            }
+
+            // ips: start at i
+            if (isDigit(c)) {
+                int end = matchIp(string, i, 0, length);
+                if (end != -1) {
+                    matches = Matches.add(matches, IP, i, end, i);
+                }
+            }
+
+            // emails: '@' at i
+            if (isEmailLocal(c)) {
+                if (localStart == -1) {
+                    localStart = i;
+                }
+            } else {
+                if (c == '@'
+                        && localStart != -1) {
+                    int end = matchEmailDomain(string, i + 1, length);
+                    if (end != -1) {
+                        matches = Matches.add(matches, EMAIL, localStart, end, i);
+                    }
+                }
+                localStart = -1;
+            }
+        }
+        return findPatterns(string, matches);
+    }
+
+    private Matches findPatterns(String string, Matches matches) {
+        if (patterns == null) {
+            return matches;
+        }
+        Matcher matcher = patterns.matcher(string);
+        while (matcher.find()) {
+            if (matcher.start() == matcher.end()) {
+                continue;
+            }
+            for (int i = 0; i < patternGroups.length; i++) {
+                if (matcher.start(patternGroups[i]) != -1) {
+                    matches = Matches.add(matches, pattern(i), matcher.start(), matcher.end(), matcher.start());
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /*
+     * ([01]?\d\d?|2[0-4]\d|25[0-5])\.){3}([01]?\d\d?|2[0-4]\d|25[0-5])
+     * Alternatives are tried in the order that the regex tries them, so that the same (leftmost, first) match is found.
+     */
+    private static int matchIp(String string, int position, int octet, int limit) {
+        for (int alternative = 0; alternative < 6; alternative++) {
+            int end = matchOctet(string, position, alternative);
+            if (end == -1
+                    || end > limit) {
+                continue;
+            }
+            if (octet == 3) {
+                return end;
+            }
+            if (end < limit
+                    && string.charAt(end) == '.') {
+                int ipEnd = matchIp(string, end + 1, octet + 1, limit);
+                if (ipEnd != -1) {
+                    return ipEnd;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int matchOctet(String string, int position, int alternative) {
+        switch (alternative) {
+            case 0: // [01]\d\d
+                return isOneOf(string, position, '0', '1')
+                        && isDigit(string, position + 1)
+                        && isDigit(string, position + 2) ? position + 3 : -1;
+            case 1: // [01]\d
+                return isOneOf(string, position, '0', '1')
+                        && isDigit(string, position + 1) ? position + 2 : -1;
+            case 2: // \d\d
+                return isDigit(string, position)
+                        && isDigit(string, position + 1) ? position + 2 : -1;
+            case 3: // \d
+                return isDigit(string, position) ? position + 1 : -1;
+            case 4: // 2[0-4]\d
+                return isOneOf(string, position, '2', '2')
+                        && isOneOf(string, position + 1, '0', '4')
+                        && isDigit(string, position + 2) ? position + 3 : -1;
+            case 5: // 25[0-5]
+                return isOneOf(string, position, '2', '2')
+                        && isOneOf(string, position + 1, '5', '5')
+                        && isOneOf(string, position + 2, '0', '5') ? position + 3 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    /*
+     * [A-Z0-9.-]+\.[A-Z]{2,6} (case insensitive), greedy: the last '.' that is followed by at least 2 letters wins
+     */
+    private static int matchEmailDomain(String string, int position, int limit) {
+        int end = position;
+        while (end < limit
+                && isEmailDomain(string.charAt(end))) {
+            end++;
+        }
+        for (int dot = end - 1; dot > position; dot--) {
+            if (string.charAt(dot) != '.') {
+                continue;
+            }
+            int letters = 0;
+            while (dot + 1 + letters < end
+                    && isLetter(string.charAt(dot + 1 + letters))) {
+                letters++;
+            }
+            if (letters >= 2) {
+                return dot + 1 + Math.min(letters, 6);
+            }
+        }
+        return -1;
+    }
+
+    private String replace(String string, int[] matches) {
+        StringBuilder builder = new StringBuilder(string.length());
+        int position = 0;
+        for (int i = 0; i < matches.length; i += Matches.FIELDS) {
+            int kind = matches[i];
+            int start = matches[i + 1];
+            int end = matches[i + 2];
+            builder.append(string, position, start)
+                    .append(getReplacement(kind));
+            position = end;
+        }
+        return builder.append(string, position, string.length()).toString();
+    }
+
+    private String getReplacement(int kind) {
+        switch (kind) {
+            case IP:
+                return ipReplacement;
+            case EMAIL:
+                return emailReplacement;
+            default:
+                if (kind <= FIRST_PATTERN) {
+                    return patternReplacements[FIRST_PATTERN - kind];
+                }
+                return literalReplacements[kind];
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return '0' <= c && c <= '9';
+    }
+
+    private static boolean isDigit(String string, int position) {
+        return position < string.length()
+                && isDigit(string.charAt(position));
+    }
+
+    private static boolean isOneOf(String string, int position, char from, char to) {
+        if (position >= string.length()) {
+            return false;
+        }
+        char c = string.charAt(position);
+        return from <= c && c <= to;
+    }
+
+    private static boolean isLetter(char c) {
+        return ('a' <= c && c <= 'z')
+                || ('A' <= c && c <= 'Z');
+    }
+
+    /* [A-Z0-9._%+-] */
+    private static boolean isEmailLocal(char c) {
+        return isLetter(c)
+                || isDigit(c)
+                || c == '.'
+                || c == '_'
+                || c == '%'
+                || c == '+'
+                || c == '-';
+    }
+
+    /* [A-Z0-9.-] */
+    private static boolean isEmailDomain(char c) {
+        return isLetter(c)
+                || isDigit(c)
+                || c == '.'
+                || c == '-';
+    }
+
+    /**
+     * The matches that were found, as {@code kind, start, end, anchor} in the order they were found.
+     * The anchor is the position that a (clipped) match has to contain, the {@code @} for emails.
+     */
+    private static class Matches {
+
+        private static final int FIELDS = 4;
+
+        private int[] values = new int[FIELDS * 4];
+        private int size = 0;
+
+        private static Matches add(Matches matches, int kind, int start, int end, int anchor) {
+            if (matches == null) {
+                matches = new Matches();
+            }
+            if (matches.size + FIELDS > matches.values.length) {
+                matches.values = Arrays.copyOf(matches.values, matches.values.length * 2);
+            }
+            matches.values[matches.size++] = kind;
+            matches.values[matches.size++] = start;
+            matches.values[matches.size++] = end;
+            matches.values[matches.size++] = anchor;
+            return matches;
+        }
+
+        /**
+         * Returns the matches that remain once the kinds are applied one after the other in the given order,
+         * sorted by position. A kind doesn't match where a kind that was applied before was replaced.
+         * Matches of the same kind don't overlap, the first one wins.
+         */
+        private int[] resolve(int[] order, String string) {
+            List<int[]> taken = new ArrayList<>();
+            for (int kind : order) {
+                int previousEnd = 0;
+                for (int i = 0; i < size; i += FIELDS) {
+                    if (values[i] != kind) {
+                        continue;
+                    }
+                    int start = values[i + 1];
+                    int end = values[i + 2];
+                    if (kind == EMAIL) {
+                        int anchor = values[i + 3];
+                        end = clipEmailEnd(taken, string, start, end, anchor);
+                        start = clipStart(taken, Math.max(start, previousEnd), anchor);
+                        if (end == -1
+                                || start >= anchor) {
+                            continue;
+                        }
+                    } else {
+                        if (start < previousEnd) {
+                            continue;
+                        }
+                        if (kind == IP) {
+                            end = clipIpEnd(taken, string, start, end);
+                        } else if (overlaps(taken, start, end)) {
+                            continue;
+                        }
+                        if (end == -1) {
+                            continue;
+                        }
+                    }
+                    taken.add(new int[]{ kind, start, end });
+                    previousEnd = end;
+                }
+            }
+            taken.sort((a, b) -> Integer.compare(a[1], b[1]));
+            int[] resolved = new int[taken.size() * FIELDS];
+            for (int i = 0; i < taken.size(); i++) {
+                System.arraycopy(taken.get(i), 0, resolved, i * FIELDS, 3);
+            }
+            return resolved;
+        }
+
+        private static boolean overlaps(List<int[]> taken, int start, int end) {
+            for (int[] other : taken) {
+                if (other[1] < end
+                        && start < other[2]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /* end of the ip once it is cut where a replacement starts, -1 if its start was replaced */
+        private static int clipIpEnd(List<int[]> taken, String string, int start, int end) {
+            int limit = getLimit(taken, start, end);
+            if (limit == -1) {
+                return -1;
+            }
+            if (limit == end) {
+                return end;
+            }
+            return matchIp(string, start, 0, limit);
+        }
+
+        /* end of the email once its domain is cut where a replacement starts, -1 if the '@' was replaced */
+        private static int clipEmailEnd(List<int[]> taken, String string, int start, int end, int anchor) {
+            int limit = getLimit(taken, anchor, end);
+            if (limit == -1) {
+                return -1;
+            }
+            if (limit == end) {
+                return end;
+            }
+            return matchEmailDomain(string, anchor + 1, limit);
+        }
+
+        /* the start of the first replacement within the given range, -1 if the replacement covers the start */
+        private static int getLimit(List<int[]> taken, int start, int end) {
+            int limit = end;
+            for (int[] other : taken) {
+                if (other[1] < end
+                        && start < other[2]) {
+                    if (other[1] <= start) {
+                        return -1;
+                    }
+                    limit = Math.min(limit, other[1]);
+                }
+            }
+            return limit;
+        }
+
+        /* start of a match once it is cut where a replacement (before the anchor) ends */
+        private static int clipStart(List<int[]> taken, int start, int anchor) {
+            for (int[] other : taken) {
+                if (start < other[2]
+                        && other[2] <= anchor) {
+                    start = Math.max(start, other[2]);
+                }
+            }
+            return start;
+        }
+    }
+
+    /**
+     * An Aho-Corasick automaton over the literals. States are indexes, the output of a state are the indexes of
+     * the literals that end in it.
+     */
+    private static class Trie {
+
+        private static final int ROOT = 0;
+
+        private char[][] keys = new char[1][0];
+        private int[][] children = new int[1][0];
+        private int[] fail = new int[1];
+        private static final int[] NONE = new int[0];
+
+        private int[][] output = new int[][] { NONE };
+        private int size = 1;
+
+        private Trie(String[] literals) {
+            for (int literal = 0; literal < literals.length; literal++) {
+                add(literals[literal], literal);
+            }
+            link();
+        }
+
+        private void add(String literal, int index) {
+            if (literal == null
+                    || literal.isEmpty()) {
+                return;
+            }
+            int state = ROOT;
+            for (int i = 0; i < literal.length(); i++) {
+                int child = child(state, literal.charAt(i));
+                if (child == -1) {
+                    child = addChild(state, literal.charAt(i));
+                }
+                state = child;
+            }
+            output[state] = union(output[state], new int[] { index });
+        }
+
+        private int addChild(int state, char c) {
+            if (size == fail.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+                fail = Arrays.copyOf(fail, capacity);
+                output = Arrays.copyOf(output, capacity);
+            }
+            int child = size++;
+            output[child] = NONE;
+            keys[child] = new char[0];
+            children[child] = new int[0];
+            int length = keys[state].length;
+            keys[state] = Arrays.copyOf(keys[state], length + 1);
+            children[state] = Arrays.copyOf(children[state], length + 1);
+            keys[state][length] = c;
+            children[state][length] = child;
+            return child;
+        }
+
+        /* breadth first: the failure of a state links to the longest proper suffix that is a state */
+        private void link() {
+            int[] queue = new int[size];
+            int head = 0;
+            int tail = 0;
+            for (int child : children[ROOT]) {
+                fail[child] = ROOT;
+                queue[tail++] = child;
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                for (int i = 0; i < keys[state].length; i++) {
+                    char c = keys[state][i];
+                    int child = children[state][i];
+                    int failure = fail[state];
+                    while (failure != ROOT
+                            && child(failure, c) == -1) {
+                        failure = fail[failure];
+                    }
+                    int target = child(failure, c);
+                    fail[child] = target == -1 || target == child ? ROOT : target;
+                    output[child] = union(output[child], output[fail[child]]);
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        private int child(int state, char c) {
+            char[] stateKeys = keys[state];
+            for (int i = 0; i < stateKeys.length; i++) {
+                if (stateKeys[i] == c) {
+                    return children[state][i];
+                }
+            }
+            return -1;
+        }
+
+        private int next(int state, char c) {
+            if (size == 1) {
+                return ROOT;
+            }
+            while (true) {
+                int child = child(state, c);
+                if (child != -1) {
+                    return child;
+                }
+                if (state == ROOT) {
+                    return ROOT;
+                }
+                state = fail[state];
+            }
+        }
+
+        private int[] output(int state) {
+            return output[state];
+        }
+
+        private static int[] union(int[] indexes, int[] others) {
+            if (others.length == 0) {
+                return indexes;
+            }
+            int[] union = Arrays.copyOf(indexes, indexes.length + others.length);
+            System.arraycopy(others, 0, union, indexes.length, others.length);
+            Arrays.sort(union);
+            return union;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of anonymized strings, keyed by the raw string.
+ * The cache is bound by the number of entries and by its weight, which is the number of chars of its keys and values.
+ * Strings that are longer than the given maximum length are not cached.
+ */
+class AnonymizerCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 256;
+    static final int DEFAULT_MAX_WEIGHT = 256 * 1024;
+    static final int DEFAULT_MAX_LENGTH = 4 * 1024;
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final int maxLength;
+    private final Map<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    AnonymizerCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT, DEFAULT_MAX_LENGTH);
+    }
+
+    /* for testing purposes */
+    AnonymizerCache(int maxEntries, long maxWeight, int maxLength) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns {@code true} if the given string is short enough to be cached.
+     *
+     * @param string the string to cache
+     * @return true if the given string can be cached
+     */
+    boolean isCacheable(String string) {
+        return string.length() <= maxLength;
+    }
+
+    /**
+     * Returns the anonymized string for the given raw string or {@code null} if it's not cached.
+     *
+     * @param string the raw string
+     * @return the anonymized string or null
+     */
+    synchronized String get(String string) {
+        String anonymized = entries.get(string);
+        if (anonymized == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return anonymized;
+    }
+
+    synchronized void put(String string, String anonymized) {
+        String previous = entries.put(string, anonymized);
+        if (previous != null) {
+            weight -= weightOf(string, previous);
+        }
+        weight += weightOf(string, anonymized);
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, String>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()
+                && (entries.size() > maxEntries
+                    || weight > maxWeight)) {
+            Map.Entry<String, String> eldest = iterator.next();
+            weight -= weightOf(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static long weightOf(String string, String anonymized) {
+        if (string == anonymized) {
+            // nothing was replaced, key and value are the same instance
+            return string.length();
+        }
+        return (long) string.length() + anonymized.length();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long getWeight() {
+        return weight;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    synchronized long getEvictions() {
+        return evictions;
+    }
+}
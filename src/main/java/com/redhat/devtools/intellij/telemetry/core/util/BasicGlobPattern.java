@@ -43,29 +43,58 @@ import java.util.regex.PatternSyntaxException;
  *     <li>ranges {@code [1-4]}</li>
  * </ul>
  * It does not support extended (advanced-, posix-) glob expressions like alternatives {@code @(a|b) or +(a|b) etc )}
+ * Globs are matched by a {@link GlobAutomaton} that doesn't allocate. The regex is used for globs and strings
+ * that the automaton doesn't support.
  */
 public class BasicGlobPattern {
 
     private static final String regexMetaChars = ".^$+{[]|()";
     private static final String globMetaChars = "\\*?[{";
 
+    private final String glob;
     private final Pattern globPattern;
+    private final GlobAutomaton automaton;
 
     public static BasicGlobPattern compile(String glob) {
         return new Factory().create(glob);
     }
 
-    private BasicGlobPattern(Pattern globPattern) {
+    private BasicGlobPattern(String glob, Pattern globPattern) {
+        this.glob = glob;
         this.globPattern = globPattern;
+        this.automaton = GlobAutomaton.compile(glob);
+    }
+
+    public String getGlob() {
+        return glob;
     }
 
     public boolean matches(String toMatch) {
+        if (StringUtil.isEmpty(toMatch)) {
+            return false;
+        }
+        if (automaton != null) {
+            int matches = automaton.matches(toMatch);
+            if (matches != GlobAutomaton.UNSUPPORTED) {
+                return matches == GlobAutomaton.MATCH;
+            }
+        }
+        return matchesRegex(toMatch);
+    }
+
+    /* for testing purposes */
+    boolean matchesRegex(String toMatch) {
         if (StringUtil.isEmpty(toMatch)) {
             return false;
         }
         return globPattern.matcher(toMatch).matches();
     }
 
+    /* for testing purposes */
+    boolean isAutomaton() {
+        return automaton != null;
+    }
+
     private static final class Factory {
 
         private static final class GlobParserContext {
@@ -157,7 +186,7 @@ public class BasicGlobPattern {
 
         private BasicGlobPattern create(String glob) {
             Pattern globPattern = createRegex(glob);
-            return new BasicGlobPattern(globPattern);
+            return new BasicGlobPattern(glob, globPattern);
         }
 
         private Pattern createRegex(String globPattern) {
@@ -32,6 +32,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * @deprecated not thread-safe, use {@link RingBuffer} instead.
+ */
+@Deprecated
 public class CircularBuffer<E> {
 
     private static final int DEFAULT_CAPACITY = 8;
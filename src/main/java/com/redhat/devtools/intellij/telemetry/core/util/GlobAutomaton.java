@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A glob compiled to a position automaton (Glushkov) whose states are the bits of a {@code long}.
+ * Matching walks the characters once and keeps the set of active positions in a bitmask,
+ * it doesn't backtrack nor allocate.
+ * It accepts the same strings as the regex that {@link BasicGlobPattern} creates for the glob:
+ * <ul>
+ *     <li>{@code ?}, {@code *} and classes never match the name separator {@code /}</li>
+ *     <li>{@code **} matches anything but line terminators</li>
+ * </ul>
+ * Globs that don't fit into 63 positions or that the automaton doesn't understand are not compiled.
+ * Strings with surrogate characters are not matched since the regex matches code points rather than chars.
+ */
+class GlobAutomaton {
+
+    static final int NO_MATCH = 0;
+    static final int MATCH = 1;
+    static final int UNSUPPORTED = -1;
+
+    private static final int MAX_POSITIONS = 63;
+    private static final char SEPARATOR = '/';
+    private static final char EOL = 0;
+
+    private static final byte LITERAL = 0;
+    /* any char but the separator: '?', '*' */
+    private static final byte ANY_BUT_SEPARATOR = 1;
+    /* any char but line terminators: '**' */
+    private static final byte ANY_BUT_LINE_TERMINATOR = 2;
+    private static final byte CLASS = 3;
+
+    private final byte[] types;
+    private final char[] literals;
+    private final char[][] ranges;
+    private final boolean[] negated;
+    private final long[] follow;
+    private final long first;
+    private final long last;
+
+    private GlobAutomaton(List<Position> positions, long first, long last) {
+        int size = positions.size();
+        this.types = new byte[size];
+        this.literals = new char[size];
+        this.ranges = new char[size][];
+        this.negated = new boolean[size];
+        this.follow = new long[size];
+        for (int i = 0; i < size; i++) {
+            Position position = positions.get(i);
+            types[i] = position.type;
+            literals[i] = position.literal;
+            ranges[i] = position.ranges;
+            negated[i] = position.negated;
+            follow[i] = position.follow;
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Matches the given string.
+     *
+     * @param toMatch the string to match
+     * @return {@link #MATCH}, {@link #NO_MATCH} or {@link #UNSUPPORTED} if the string has surrogate characters
+     */
+    int matches(String toMatch) {
+        long candidates = first;
+        long consumed = 0;
+        for (int i = 0; i < toMatch.length(); i++) {
+            char c = toMatch.charAt(i);
+            if (Character.isSurrogate(c)) {
+                return UNSUPPORTED;
+            }
+            consumed = 0;
+            long next = 0;
+            for (long bits = candidates; bits != 0; bits &= bits - 1) {
+                int position = Long.numberOfTrailingZeros(bits);
+                if (accepts(position, c)) {
+                    consumed |= 1L << position;
+                    next |= follow[position];
+                }
+            }
+            if (consumed == 0) {
+                return NO_MATCH;
+            }
+            candidates = next;
+        }
+        return (consumed & last) != 0 ? MATCH : NO_MATCH;
+    }
+
+    private boolean accepts(int position, char c) {
+        switch (types[position]) {
+            case LITERAL:
+                return literals[position] == c;
+            case ANY_BUT_SEPARATOR:
+                return c != SEPARATOR;
+            case ANY_BUT_LINE_TERMINATOR:
+                return !isLineTerminator(c);
+            case CLASS:
+            default:
+                return c != SEPARATOR
+                        && isInRanges(ranges[position], c) != negated[position];
+        }
+    }
+
+    private static boolean isInRanges(char[] ranges, char c) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] <= c
+                    && c <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n'
+                || c == '\r'
+                || c == '\u0085'
+                || c == '\u2028'
+                || c == '\u2029';
+    }
+
+    /**
+     * Compiles the given glob. The glob is expected to be valid, {@link BasicGlobPattern} reports syntax errors.
+     *
+     * @param glob the glob to compile
+     * @return the automaton or {@code null} if the glob cannot be compiled to an automaton
+     */
+    static GlobAutomaton compile(String glob) {
+        if (glob == null) {
+            return null;
+        }
+        return new Compiler(glob).compile();
+    }
+
+    private static class Position {
+        private final byte type;
+        private final char literal;
+        private final char[] ranges;
+        private final boolean negated;
+        private long follow;
+
+        private Position(byte type, char literal, char[] ranges, boolean negated) {
+            this.type = type;
+            this.literal = literal;
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+    }
+
+    /**
+     * The first/last positions of an expression and whether it matches the empty string.
+     */
+    private static class Expression {
+        private boolean nullable;
+        private long first;
+        private long last;
+
+        private Expression(boolean nullable, long first, long last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+
+        private static Expression empty() {
+            return new Expression(true, 0, 0);
+        }
+    }
+
+    private static class Compiler {
+
+        private final String glob;
+        private final List<Position> positions = new ArrayList<>();
+        private int index = 0;
+
+        private Compiler(String glob) {
+            this.glob = glob;
+        }
+
+        private GlobAutomaton compile() {
+            Expression sequence = Expression.empty();
+            while (index < glob.length()) {
+                char c = glob.charAt(index++);
+                Expression item;
+                if (c == '{') {
+                    item = parseGroup();
+                } else {
+                    item = parseItem(c);
+                }
+                if (item == null
+                        || positions.size() > MAX_POSITIONS) {
+                    return null;
+                }
+                concat(sequence, item);
+            }
+            return new GlobAutomaton(positions, sequence.first, sequence.last);
+        }
+
+        /* '{a,b}' */
+        private Expression parseGroup() {
+            Expression group = new Expression(false, 0, 0);
+            Expression alternative = Expression.empty();
+            while (true) {
+                if (index >= glob.length()) {
+                    return null; // missing '}'
+                }
+                char c = glob.charAt(index++);
+                if (c == '}'
+                        || c == ',') {
+                    group.nullable |= alternative.nullable;
+                    group.first |= alternative.first;
+                    group.last |= alternative.last;
+                    if (c == '}') {
+                        return group;
+                    }
+                    alternative = Expression.empty();
+                } else if (c == '{') {
+                    return null; // nested groups
+                } else {
+                    Expression item = parseItem(c);
+                    if (item == null
+                            || positions.size() > MAX_POSITIONS) {
+                        return null;
+                    }
+                    concat(alternative, item);
+                }
+            }
+        }
+
+        private Expression parseItem(char c) {
+            switch (c) {
+                case '\\':
+                    if (index >= glob.length()) {
+                        return null;
+                    }
+                    return atom(LITERAL, glob.charAt(index++), null, false);
+                case '[':
+                    return parseClass();
+                case '*':
+                    if (index < glob.length()
+                            && glob.charAt(index) == '*') {
+                        index++;
+                        return star(ANY_BUT_LINE_TERMINATOR);
+                    }
+                    return star(ANY_BUT_SEPARATOR);
+                case '?':
+                    return atom(ANY_BUT_SEPARATOR, EOL, null, false);
+                default:
+                    return atom(LITERAL, c, null, false);
+            }
+        }
+
+        /* '[a-c]', '[!a-c]' */
+        private Expression parseClass() {
+            boolean negated = false;
+            StringBuilder ranges = new StringBuilder();
+            char previous = EOL;
+            boolean canStartRange = false;
+            char c = peek();
+            if (c == '^') {
+                // literal '^' in glob
+                ranges.append(c).append(c);
+                previous = c;
+                canStartRange = true;
+                index++;
+            } else {
+                if (c == '!') {
+                    negated = true;
+                    index++;
+                }
+                if (peek() == '-') {
+                    ranges.append('-').append('-');
+                    previous = '-';
+                    canStartRange = true;
+                    index++;
+                }
+            }
+            while (true) {
+                if (index >= glob.length()) {
+                    return null; // missing ']'
+                }
+                c = glob.charAt(index++);
+                if (c == ']') {
+                    break;
+                }
+                if (c == '-') {
+                    char end = peek();
+                    if (end == ']') {
+                        // trailing '-' is literal
+                        ranges.append('-').append('-');
+                        index++;
+                        break;
+                    }
+                    if (!canStartRange
+                            || end == EOL
+                            || end == '\\'
+                            || end == '['
+                            || end == '&'
+                            || end < previous) {
+                        // let the regex handle it
+                        return null;
+                    }
+                    index++;
+                    // turn previous single char into a range
+                    ranges.setLength(ranges.length() - 2);
+                    ranges.append(previous).append(end);
+                    canStartRange = false;
+                } else {
+                    if (Character.isSurrogate(c)
+                            || c == '/') {
+                        return null;
+                    }
+                    ranges.append(c).append(c);
+                    previous = c;
+                    canStartRange = true;
+                }
+            }
+            if (ranges.length() == 0) {
+                return null;
+            }
+            char[] chars = new char[ranges.length()];
+            ranges.getChars(0, chars.length, chars, 0);
+            return atom(CLASS, EOL, chars, negated);
+        }
+
+        private char peek() {
+            return index < glob.length() ? glob.charAt(index) : EOL;
+        }
+
+        private Expression atom(byte type, char literal, char[] ranges, boolean negated) {
+            long bit = add(new Position(type, literal, ranges, negated));
+            return new Expression(false, bit, bit);
+        }
+
+        private Expression star(byte type) {
+            Position position = new Position(type, EOL, null, false);
+            long bit = add(position);
+            // loops onto itself
+            position.follow |= bit;
+            return new Expression(true, bit, bit);
+        }
+
+        private long add(Position position) {
+            positions.add(position);
+            if (positions.size() > MAX_POSITIONS) {
+                return 0;
+            }
+            return 1L << (positions.size() - 1);
+        }
+
+        /* appends the given expression to the given sequence */
+        private void concat(Expression sequence, Expression next) {
+            for (long bits = sequence.last; bits != 0; bits &= bits - 1) {
+                positions.get(Long.numberOfTrailingZeros(bits)).follow |= next.first;
+            }
+            sequence.first |= sequence.nullable ? next.first : 0;
+            sequence.last = next.last | (next.nullable ? sequence.last : 0);
+            sequence.nullable &= next.nullable;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The rules that redact error messages. The built-in rules of {@link AnonymizeUtils#anonymize(String)} are applied
+ * first, then the {@link #GLOBAL} rules and then the rules of the plugin, each in the order they were added.
+ * All the rules are compiled into a single {@link Anonymizer} that scans a message once.
+ * It is compiled again only once the rules changed.
+ * Anonymized messages are cached until the rules change.
+ * <p>
+ * The patterns are combined into a single alternation and matched against the original message. The result
+ * therefore differs from calling {@link String#replaceAll(String, String)} for one pattern after the other:
+ * <ul>
+ *     <li>the leftmost match wins, the pattern that was added first only wins among matches at the same position.
+ *     With the patterns {@code "bc"} and then {@code "ab"}, {@code "abc"} is redacted to {@code "<AB>c"}
+ *     rather than {@code "a<BC>"}.</li>
+ *     <li>patterns don't match the replacements of other rules. With the patterns {@code "jedi"} replaced by
+ *     {@code "<JEDI>"} and then {@code "<JEDI> \w+"}, {@code "jedi luke"} is redacted to {@code "<JEDI> luke"}.</li>
+ * </ul>
+ */
+public class RedactionRules {
+
+    /** The rules that apply to the messages of all the plugins. */
+    public static final RedactionRules GLOBAL = new RedactionRules(null);
+
+    private static final Map<String, RedactionRules> PLUGINS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the rules for the plugin with the given id. The global rules apply to the plugin, too.
+     *
+     * @param pluginId the id of the plugin
+     * @return the rules for the given plugin
+     */
+    public static RedactionRules forPlugin(String pluginId) {
+        if (pluginId == null) {
+            return GLOBAL;
+        }
+        return PLUGINS.computeIfAbsent(pluginId, id -> new RedactionRules(GLOBAL));
+    }
+
+    private final RedactionRules parent;
+    private final List<Rule> rules = new ArrayList<>();
+    private volatile int version = 0;
+    private volatile Compiled compiled;
+
+    /* for testing purposes */
+    RedactionRules(RedactionRules parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Replaces the given literal with the given replacement.
+     *
+     * @param literal the literal to replace
+     * @param replacement the replacement
+     * @return this rules
+     */
+    public RedactionRules addLiteral(String literal, String replacement) {
+        return add(new Rule(literal, false, replacement));
+    }
+
+    /**
+     * Replaces matches of the given regular expression with the given replacement.
+     * The regular expression is matched against the original message together with the other patterns,
+     * not against the result of the rules that were added before.
+     *
+     * @param regex the regular expression to replace
+     * @param replacement the replacement
+     * @return this rules
+     *
+     * @throws java.util.regex.PatternSyntaxException if the given regular expression is invalid
+     */
+    public RedactionRules addPattern(String regex, String replacement) {
+        Pattern.compile(regex);
+        return add(new Rule(regex, true, replacement));
+    }
+
+    private synchronized RedactionRules add(Rule rule) {
+        if (rule.value == null
+                || rule.value.isEmpty()
+                || rule.replacement == null) {
+            return this;
+        }
+        rules.add(rule);
+        version++;
+        return this;
+    }
+
+    /**
+     * Removes the rules with the given literal or regular expression.
+     *
+     * @param value the literal or regular expression of the rules to remove
+     * @return true if a rule was removed
+     */
+    public synchronized boolean remove(String value) {
+        boolean removed = rules.removeIf(rule -> rule.value.equals(value));
+        if (removed) {
+            version++;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all the rules that were added. The built-in rules and the rules of the parent are not removed.
+     */
+    public synchronized void clear() {
+        if (!rules.isEmpty()) {
+            rules.clear();
+            version++;
+        }
+    }
+
+    /**
+     * Applies the built-in, global and plugin rules to the given string.
+     *
+     * @param string the string to redact
+     * @return the redacted string
+     */
+    public String anonymize(String string) {
+        return getAnonymizer().anonymize(string);
+    }
+
+    /**
+     * Returns the anonymizer that applies all the rules. It is compiled again only if the rules changed.
+     *
+     * @return the anonymizer for the current rules
+     */
+    Anonymizer getAnonymizer() {
+        Compiled compiled = this.compiled;
+        int parentVersion = getParentVersion();
+        if (compiled != null
+                && compiled.isCurrent(version, parentVersion)) {
+            return compiled.anonymizer;
+        }
+        return compile();
+    }
+
+    private synchronized Anonymizer compile() {
+        int parentVersion = getParentVersion();
+        if (compiled == null
+                || !compiled.isCurrent(version, parentVersion)) {
+            this.compiled = new Compiled(version, parentVersion, createAnonymizer());
+        }
+        return compiled.anonymizer;
+    }
+
+    private int getParentVersion() {
+        if (parent == null) {
+            return 0;
+        }
+        return parent.version;
+    }
+
+    private Anonymizer createAnonymizer() {
+        List<Rule> all = new ArrayList<>();
+        if (parent != null) {
+            all.addAll(parent.getRules());
+        }
+        all.addAll(rules);
+        List<String> literals = new ArrayList<>(List.of(AnonymizeUtils.TMP_DIR, AnonymizeUtils.HOME_DIR, AnonymizeUtils.USER_NAME));
+        List<String> literalReplacements = new ArrayList<>(List.of(AnonymizeUtils.ANONYMOUS_TMPDIR, AnonymizeUtils.ANONYMOUS_HOMEDIR, AnonymizeUtils.ANONYMOUS_USER_NAME));
+        List<String> patterns = new ArrayList<>();
+        List<String> patternReplacements = new ArrayList<>();
+        int[] order = new int[AnonymizeUtils.ORDER.length + all.size()];
+        System.arraycopy(AnonymizeUtils.ORDER, 0, order, 0, AnonymizeUtils.ORDER.length);
+        int i = AnonymizeUtils.ORDER.length;
+        for (Rule rule : all) {
+            if (rule.isPattern) {
+                order[i++] = Anonymizer.pattern(patterns.size());
+                patterns.add(rule.value);
+                patternReplacements.add(rule.replacement);
+            } else {
+                order[i++] = literals.size();
+                literals.add(rule.value);
+                literalReplacements.add(rule.replacement);
+            }
+        }
+        return new Anonymizer(
+                literals.toArray(new String[0]),
+                literalReplacements.toArray(new String[0]),
+                AnonymizeUtils.ANONYMOUS_IP,
+                AnonymizeUtils.ANONYMOUS_EMAIL,
+                patterns.toArray(new String[0]),
+                patternReplacements.toArray(new String[0]),
+                // compiled again once rules change, thus never returns stale results
+                new AnonymizerCache(),
+                order);
+    }
+
+    private synchronized List<Rule> getRules() {
+        return new ArrayList<>(rules);
+    }
+
+    private static class Rule {
+
+        private final String value;
+        private final boolean isPattern;
+        private final String replacement;
+
+        private Rule(String value, boolean isPattern, String replacement) {
+            this.value = value;
+            this.isPattern = isPattern;
+            this.replacement = replacement;
+        }
+    }
+
+    private static class Compiled {
+
+        private final int version;
+        private final int parentVersion;
+        private final Anonymizer anonymizer;
+
+        private Compiled(int version, int parentVersion, Anonymizer anonymizer) {
+            this.version = version;
+            this.parentVersion = parentVersion;
+            this.anonymizer = anonymizer;
+        }
+
+        private boolean isCurrent(int version, int parentVersion) {
+            return this.version == version
+                    && this.parentVersion == parentVersion;
+        }
+    }
+}
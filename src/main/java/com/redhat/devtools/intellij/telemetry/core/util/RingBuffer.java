@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded, lock-free buffer that multiple threads may offer to and poll from concurrently.
+ * Each slot carries a sequence that tells producers and consumers whether the slot is free to write or ready to read
+ * (see Dmitry Vyukov's bounded MPMC queue). The capacity is rounded up to the next power of two (and at least 2).
+ * What happens to elements that don't fit into the buffer is determined by the {@link OverflowPolicy}.
+ *
+ * @param <E> the type of the elements in this buffer
+ */
+public class RingBuffer<E> {
+
+    public enum OverflowPolicy {
+        /** Evicts the oldest element to make room for the new one. */
+        DROP_OLDEST,
+        /** Rejects the new element. */
+        DROP_NEWEST,
+        /** Waits for room until the timeout elapses, then rejects the new element. */
+        BLOCK
+    }
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLong readSequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final OverflowPolicy policy;
+    private final long timeoutNanos;
+
+    public RingBuffer(int capacity) {
+        this(capacity, OverflowPolicy.DROP_NEWEST);
+    }
+
+    public RingBuffer(int capacity, OverflowPolicy policy) {
+        this(capacity, policy, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public RingBuffer(int capacity, OverflowPolicy policy, long timeout, TimeUnit unit) {
+        int size = toPowerOfTwo(capacity);
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.policy = policy;
+        this.timeoutNanos = unit.toNanos(Math.max(0, timeout));
+    }
+
+    private static int toPowerOfTwo(int capacity) {
+        if (capacity <= 2) {
+            // slot sequences need at least 2 slots to tell full from empty
+            return 2;
+        }
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Offers the given element to this buffer and applies the overflow policy if the buffer is full.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if it was dropped
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Cannot add null to ring buffer.");
+        }
+        switch (policy) {
+            case DROP_OLDEST:
+                return offerDropOldest(element);
+            case BLOCK:
+                return offerBlocking(element);
+            case DROP_NEWEST:
+            default:
+                return offerDropNewest(element);
+        }
+    }
+
+    private boolean offerDropNewest(E element) {
+        if (tryOffer(element)) {
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    private boolean offerDropOldest(E element) {
+        while (!tryOffer(element)) {
+            if (poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(E element) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long parkNanos = 1;
+        while (!tryOffer(element)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            LockSupport.parkNanos(Math.min(parkNanos, remaining));
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+            if (Thread.currentThread().isInterrupted()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tryOffer(E element) {
+        long sequence = writeSequence.get();
+        while (true) {
+            int index = (int) (sequence & mask);
+            long difference = sequences.get(index) - sequence;
+            if (difference == 0) {
+                if (writeSequence.compareAndSet(sequence, sequence + 1)) {
+                    elements.set(index, element);
+                    // publish to consumers
+                    sequences.set(index, sequence + 1);
+                    return true;
+                }
+                sequence = writeSequence.get();
+            } else if (difference < 0) {
+                // slot was not consumed yet: full
+                return false;
+            } else {
+                sequence = writeSequence.get();
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the oldest element in this buffer.
+     *
+     * @return the oldest element or {@code null} if the buffer is empty
+     */
+    @Nullable
+    public E poll() {
+        long sequence = readSequence.get();
+        while (true) {
+            int index = (int) (sequence & mask);
+            long difference = sequences.get(index) - (sequence + 1);
+            if (difference == 0) {
+                if (readSequence.compareAndSet(sequence, sequence + 1)) {
+                    E element = elements.getAndSet(index, null);
+                    // release slot to producers of the next lap
+                    sequences.set(index, sequence + mask + 1);
+                    return element;
+                }
+                sequence = readSequence.get();
+            } else if (difference < 0) {
+                // slot was not written yet: empty
+                return null;
+            } else {
+                sequence = readSequence.get();
+            }
+        }
+    }
+
+    public List<E> pollAll() {
+        List<E> values = new ArrayList<>(size());
+        for (E value = poll(); value != null; value = poll()) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of elements in this buffer.
+     * The value is a snapshot and may be outdated by the time it is returned if other threads are using this buffer.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        while (true) {
+            long read = readSequence.get();
+            long write = writeSequence.get();
+            if (read == readSequence.get()) {
+                return (int) Math.max(0, Math.min(write - read, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean isFull() {
+        return size() >= capacity();
+    }
+
+    /**
+     * Returns the number of elements that were dropped because this buffer was full.
+     *
+     * @return the number of dropped elements
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void clear() {
+        while (poll() != null) {
+            // discard
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The clock that the telemetry limits and counts use. It caches the current day and zone offset, which are
+ * looked up again only once the day ends or the offset changes (ex. daylight saving time).
+ * Tests can create a clock with a given time source to simulate the passing of time.
+ */
+public class TelemetryClock {
+
+    /** The clock that uses the system time and time zone. */
+    public static final TelemetryClock SYSTEM = new TelemetryClock(System::currentTimeMillis, ZoneId.systemDefault());
+
+    private static final long MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis(1);
+
+    private final LongSupplier millis;
+    private final ZoneRules rules;
+    private volatile Day day;
+
+    /* for testing purposes */
+    public TelemetryClock(LongSupplier millis, ZoneId zone) {
+        this.millis = millis;
+        this.rules = zone.getRules();
+    }
+
+    /**
+     * Returns the current time in milliseconds since the epoch.
+     *
+     * @return the current time in milliseconds
+     */
+    public long millis() {
+        return millis.getAsLong();
+    }
+
+    /**
+     * Returns the current time in seconds since the epoch.
+     *
+     * @return the current time in seconds
+     */
+    public long epochSecond() {
+        return Math.floorDiv(millis(), MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Returns the current local date and time.
+     *
+     * @return the current local date and time
+     */
+    public LocalDateTime now() {
+        long now = millis();
+        Day day = getDay(now);
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(now, MILLIS_PER_SECOND),
+                (int) Math.floorMod(now, MILLIS_PER_SECOND) * 1_000_000,
+                day.offset);
+    }
+
+    /**
+     * Returns the current zone offset.
+     *
+     * @return the current zone offset
+     */
+    public ZoneOffset offset() {
+        return getDay(millis()).offset;
+    }
+
+    /**
+     * Returns the current local day, in days since the epoch.
+     *
+     * @return the current local day
+     */
+    public long epochDay() {
+        return getDay(millis()).epochDay;
+    }
+
+    /**
+     * Returns the start of the current local day, in seconds since the epoch.
+     *
+     * @return the start of the current day in seconds
+     */
+    public long startOfDay() {
+        return Math.floorDiv(getDay(millis()).start, MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Returns {@code true} if the given epoch second is within the current local day.
+     *
+     * @param epochSecond the epoch second to check
+     * @return true if the given epoch second is today
+     */
+    public boolean isToday(long epochSecond) {
+        Day day = getDay(millis());
+        long epochMilli = epochSecond * MILLIS_PER_SECOND;
+        return day.start <= epochMilli
+                && epochMilli < day.end;
+    }
+
+    /**
+     * Returns {@code true} if the given local date and time is within the current local day.
+     *
+     * @param dateTime the local date and time to check
+     * @return true if the given date and time is today
+     */
+    public boolean isToday(LocalDateTime dateTime) {
+        return dateTime != null
+                && dateTime.toLocalDate().toEpochDay() == epochDay();
+    }
+
+    /**
+     * Returns the local day of the given epoch second, in days since the epoch.
+     *
+     * @param epochSecond the epoch second
+     * @return the local day of the given epoch second
+     */
+    public long toEpochDay(long epochSecond) {
+        if (isToday(epochSecond)) {
+            return epochDay();
+        }
+        ZoneOffset offset = rules.getOffset(Instant.ofEpochSecond(epochSecond));
+        return Math.floorDiv(epochSecond + offset.getTotalSeconds(), TimeUnit.DAYS.toSeconds(1));
+    }
+
+    private Day getDay(long now) {
+        Day day = this.day;
+        if (day == null
+                || now < day.validFrom
+                || now >= day.validUntil) {
+            day = new Day(now, rules);
+            this.day = day;
+        }
+        return day;
+    }
+
+    /**
+     * The local day and zone offset at a given time.
+     * Valid until the day ends or the zone offset changes, whatever happens first.
+     */
+    private static class Day {
+
+        private final long epochDay;
+        private final ZoneOffset offset;
+        /* start and end of the day */
+        private final long start;
+        private final long end;
+        /* start and end of the validity of the offset within the day */
+        private final long validFrom;
+        private final long validUntil;
+
+        private Day(long now, ZoneRules rules) {
+            Instant instant = Instant.ofEpochMilli(now);
+            this.offset = rules.getOffset(instant);
+            LocalDate date = LocalDate.ofInstant(instant, offset);
+            this.epochDay = date.toEpochDay();
+            this.start = toEpochMilli(date, rules);
+            this.end = toEpochMilli(date.plusDays(1), rules);
+            ZoneOffsetTransition previous = rules.previousTransition(instant);
+            ZoneOffsetTransition next = rules.nextTransition(instant);
+            this.validFrom = previous == null ?
+                    start : Math.max(start, previous.getInstant().toEpochMilli());
+            this.validUntil = next == null ?
+                    end : Math.min(end, next.getInstant().toEpochMilli());
+        }
+
+        private static long toEpochMilli(LocalDate date, ZoneRules rules) {
+            LocalDateTime startOfDay = date.atStartOfDay();
+            ZoneOffsetTransition gap = rules.getTransition(startOfDay);
+            if (gap != null
+                    && gap.isGap()) {
+                // midnight doesn't exist, day starts once the gap is over
+                return gap.getInstant().toEpochMilli();
+            }
+            return startOfDay.toInstant(rules.getOffset(startOfDay)).toEpochMilli();
+        }
+    }
+}
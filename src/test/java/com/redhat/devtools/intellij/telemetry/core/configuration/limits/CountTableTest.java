@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountTableTest {
+
+    @Test
+    void pack_should_hold_epoch_second_and_total() {
+        // given
+        long packed = CountTable.pack(1691474888, 84);
+        // when
+        long epochSecond = CountTable.getEpochSecond(packed);
+        int total = CountTable.getTotal(packed);
+        // then
+        assertThat(epochSecond).isEqualTo(1691474888);
+        assertThat(total).isEqualTo(84);
+    }
+
+    @Test
+    void pack_should_clamp_total() {
+        // given
+        long packed = CountTable.pack(1691474888, Integer.MAX_VALUE);
+        // when
+        int total = CountTable.getTotal(packed);
+        // then
+        assertThat(total).isEqualTo(CountTable.MAX_TOTAL);
+        assertThat(CountTable.getEpochSecond(packed)).isEqualTo(1691474888);
+    }
+
+    @Test
+    void pack_should_never_return_absent() {
+        // given
+        // when
+        long packed = CountTable.pack(Long.MAX_VALUE, Integer.MAX_VALUE);
+        // then
+        assertThat(packed).isNotEqualTo(CountTable.ABSENT);
+        assertThat(packed).isPositive();
+    }
+
+    @Test
+    void get_should_return_absent_if_name_was_not_put() {
+        // given
+        CountTable table = new CountTable();
+        table.put("yoda", CountTable.pack(1691474888, 1));
+        // when
+        long packed = table.get("luke");
+        // then
+        assertThat(packed).isEqualTo(CountTable.ABSENT);
+    }
+
+    @Test
+    void put_should_replace_existing_count() {
+        // given
+        CountTable table = new CountTable();
+        table.put("yoda", CountTable.pack(1691474888, 1));
+        // when
+        table.put("yoda", CountTable.pack(1691474889, 2));
+        // then
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(CountTable.getTotal(table.get("yoda"))).isEqualTo(2);
+    }
+
+    @Test
+    void put_should_grow_and_keep_all_counts() {
+        // given
+        CountTable table = new CountTable();
+        Map<String, Long> expected = new HashMap<>();
+        // when
+        for (int i = 0; i < 1000; i++) {
+            long packed = CountTable.pack(1691474888 + i, i);
+            table.put("event" + i, packed);
+            expected.put("event" + i, packed);
+        }
+        // then
+        assertThat(table.size()).isEqualTo(1000);
+        Map<String, Long> actual = new HashMap<>();
+        table.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void removeOlderThan_should_remove_counts_before_given_second() {
+        // given
+        CountTable table = new CountTable();
+        table.put("yoda", CountTable.pack(100, 1));
+        table.put("luke", CountTable.pack(200, 1));
+        Map<String, Long> removed = new HashMap<>();
+        // when
+        int count = table.removeOlderThan(200, removed::put);
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(removed).containsOnlyKeys("yoda");
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get("luke")).isNotEqualTo(CountTable.ABSENT);
+    }
+
+    @Test
+    void removeOldest_should_remove_exactly_the_excess_if_seconds_are_equal() {
+        // given
+        CountTable table = new CountTable();
+        table.put("yoda", CountTable.pack(100, 1));
+        table.put("luke", CountTable.pack(200, 1));
+        table.put("leia", CountTable.pack(200, 1));
+        table.put("han", CountTable.pack(300, 1));
+        Map<String, Long> removed = new HashMap<>();
+        // when
+        int count = table.removeOldest(2, removed::put);
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(removed).containsKey("yoda");
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.get("han")).isNotEqualTo(CountTable.ABSENT);
+    }
+
+    @Test
+    void clear_should_remove_all_counts() {
+        // given
+        CountTable table = new CountTable();
+        table.put("yoda", CountTable.pack(1691474888, 1));
+        // when
+        table.clear();
+        // then
+        assertThat(table.size()).isZero();
+        assertThat(table.get("yoda")).isEqualTo(CountTable.ABSENT);
+    }
+}
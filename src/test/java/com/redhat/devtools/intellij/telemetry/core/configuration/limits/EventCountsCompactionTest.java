@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventCountsCompactionTest {
+
+    private final AtomicLong now = new AtomicLong(LocalDate.now()
+            .atTime(LocalTime.NOON)
+            .atZone(ZoneId.systemDefault())
+            .toInstant()
+            .toEpochMilli());
+    private final TelemetryClock clock = new TelemetryClock(now::get, ZoneId.systemDefault());
+
+    @Test
+    void getState_should_drop_counts_of_previous_day_once_day_changed() {
+        // given
+        EventCounts counts = new EventCounts(clock, TimeUnit.HOURS.toMillis(1));
+        Event yesterday = new Event(Event.Type.ACTION, "lightsaber");
+        Event today = new Event(Event.Type.ACTION, "force push");
+        counts.put(yesterday);
+        counts.getState();
+        now.addAndGet(TimeUnit.DAYS.toMillis(1));
+        counts.put(today);
+        // when
+        EventCounts state = counts.getState();
+        // then
+        assertThat(state.counts).containsOnlyKeys(today.getName());
+        assertThat(counts.getExpired()).isEqualTo(1);
+    }
+
+    @Test
+    void getState_should_NOT_drop_counts_of_current_day() {
+        // given
+        EventCounts counts = new EventCounts(clock, TimeUnit.HOURS.toMillis(1));
+        Event morning = new Event(Event.Type.ACTION, "lightsaber");
+        Event afternoon = new Event(Event.Type.ACTION, "force push");
+        counts.put(morning);
+        counts.getState();
+        now.addAndGet(TimeUnit.HOURS.toMillis(1));
+        counts.put(afternoon);
+        // when
+        EventCounts state = counts.getState();
+        // then
+        assertThat(state.counts).containsOnlyKeys(morning.getName(), afternoon.getName());
+        assertThat(counts.getExpired()).isZero();
+    }
+
+    @Test
+    void put_should_evict_least_recently_occurred_events_if_max_names_is_exceeded() {
+        // given
+        EventCounts counts = new EventCounts(clock, 0, 3);
+        // when
+        for (int i = 0; i < 5; i++) {
+            counts.put(new Event(Event.Type.ACTION, "jedi" + i));
+            now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        }
+        // then
+        assertThat(counts.size()).isEqualTo(3);
+        assertThat(counts.getEvicted()).isEqualTo(2);
+        assertThat(counts.getState().counts).containsOnlyKeys("jedi2", "jedi3", "jedi4");
+    }
+
+    @Test
+    void put_should_count_evicted_event_from_scratch() {
+        // given
+        EventCounts counts = new EventCounts(clock, 0, 1);
+        Event lightsaber = new Event(Event.Type.ACTION, "lightsaber");
+        counts.put(lightsaber);
+        counts.put(lightsaber);
+        now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        counts.put(new Event(Event.Type.ACTION, "force push"));
+        now.addAndGet(TimeUnit.SECONDS.toMillis(1));
+        // when
+        counts.put(lightsaber);
+        // then
+        assertThat(counts.get(lightsaber).getDailyTotal()).isEqualTo(1);
+        assertThat(counts.getEvicted()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts events from several threads in parallel and checks that no occurrence is lost.
+ */
+class EventCountsStressTest {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 20_000;
+    private static final Event[] EVENTS = {
+            new Event(Event.Type.ACTION, "lightsaber"),
+            new Event(Event.Type.ACTION, "force push"),
+            new Event(Event.Type.ACTION, "mind trick"),
+            new Event(Event.Type.ACTION, "force choke")
+    };
+
+    @Test
+    void put_should_count_all_occurrences_of_parallel_senders() throws Exception {
+        // given
+        EventCounts counts = new EventCounts(TelemetryClock.SYSTEM, 1);
+        // when
+        sendInParallel(counts);
+        // then
+        int perEvent = THREADS * EVENTS_PER_THREAD / EVENTS.length;
+        for (Event event : EVENTS) {
+            assertThat(counts.get(event).getDailyTotal()).isEqualTo(perEvent);
+        }
+        assertThat(counts.getFolds()).isLessThan(THREADS * EVENTS_PER_THREAD);
+    }
+
+    @Test
+    void getState_should_persist_all_occurrences_of_parallel_senders() throws Exception {
+        // given
+        EventCounts counts = new EventCounts(TelemetryClock.SYSTEM, 1);
+        // when
+        sendInParallel(counts);
+        // then
+        int perEvent = THREADS * EVENTS_PER_THREAD / EVENTS.length;
+        EventCounts loaded = new EventCounts();
+        loaded.loadState(counts.getState());
+        for (Event event : EVENTS) {
+            assertThat(loaded.get(event).getDailyTotal()).isEqualTo(perEvent);
+        }
+    }
+
+    @Test
+    void put_should_NOT_fold_before_interval_elapsed() throws Exception {
+        // given
+        EventCounts counts = new EventCounts(TelemetryClock.SYSTEM, TimeUnit.HOURS.toMillis(1));
+        // when
+        sendInParallel(counts);
+        // then
+        assertThat(counts.getFolds()).isZero();
+        assertThat(counts.get(EVENTS[0]).getDailyTotal()).isEqualTo(THREADS * EVENTS_PER_THREAD / EVENTS.length);
+    }
+
+    @Test
+    void getState_should_fold_pending_occurrences() {
+        // given
+        EventCounts counts = new EventCounts(TelemetryClock.SYSTEM, TimeUnit.HOURS.toMillis(1));
+        counts.put(EVENTS[0]);
+        counts.put(EVENTS[0]);
+        // when
+        EventCounts state = counts.getState();
+        // then
+        assertThat(counts.getFolds()).isEqualTo(1);
+        assertThat(state.counts.get(EVENTS[0].getName())).endsWith(",2");
+    }
+
+    private static void sendInParallel(EventCounts counts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> senders = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                senders.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < EVENTS_PER_THREAD; j++) {
+                        counts.put(EVENTS[j % EVENTS.length]);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> sender : senders) {
+                sender.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
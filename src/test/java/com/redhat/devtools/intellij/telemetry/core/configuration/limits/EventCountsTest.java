@@ -66,7 +66,7 @@ public class EventCountsTest extends BasePlatformTestCase {
     public void test_should_serialize_EventCounts_with_2_properties() throws IOException {
         // given
         // when
-        Element element = XmlSerializer.serialize(with2Properties);
+        Element element = XmlSerializer.serialize(with2Properties.getState());
         // then
         String xml = toXML(element);
         assertThat(xml).isEqualTo(serializedWith2Properties);
@@ -78,7 +78,7 @@ public class EventCountsTest extends BasePlatformTestCase {
         // when
         EventCounts counts = XmlSerializer.deserialize(document, EventCounts.class);
         // then
-        assertThat(counts.counts).isEqualTo(with2Properties.counts);
+        assertThat(counts.counts).isEqualTo(with2Properties.getState().counts);
     }
 
     public void test_loadState_should_have_2_properties()  {
@@ -88,7 +88,36 @@ public class EventCountsTest extends BasePlatformTestCase {
         // when
         counts.loadState(with2Properties);
         // then
-        assertThat(counts.counts).isEqualTo(with2Properties.counts);
+        assertThat(counts.get(event1)).isEqualTo(count1);
+        assertThat(counts.get(event2)).isEqualTo(count2);
+    }
+
+    public void test_loadState_should_migrate_existing_counts() {
+        // given
+        EventCounts state = new EventCounts();
+        state.counts.put("1", "1680573844,42");
+        state.counts.put("2", "1691474888,84");
+        EventCounts counts = new EventCounts();
+        // when
+        counts.loadState(state);
+        // then
+        assertThat(counts.get(event1)).isEqualTo(count1);
+        assertThat(counts.get(event2)).isEqualTo(count2);
+    }
+
+    public void test_loadState_should_skip_malformed_counts() {
+        // given
+        EventCounts state = new EventCounts();
+        state.counts.put("1", "yesterday,42");
+        state.counts.put("2", "1691474888");
+        state.counts.put("3", "1691474888,many");
+        EventCounts counts = new EventCounts();
+        // when
+        counts.loadState(state);
+        // then
+        assertThat(counts.get(event1)).isNull();
+        assertThat(counts.get(event2)).isNull();
+        assertThat(counts.get(new Event(Event.Type.USER, "3"))).isEqualTo(new Count(count2.getLastOccurrence(), 0));
     }
 
     public void test_get_should_return_count() {
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link EventLimits#canSend(Event)} with and without cached decisions.
+ * Limits with a custom filter cannot be cached and take the decision for every event.
+ */
+@Disabled("For manual testing purposes only")
+public class EventLimitsBenchmark {
+
+    private static final String LIMITS = "{\n" +
+            "  \"*\": {\n" +
+            "    \"enabled\": \"all\",\n" +
+            "    \"refresh\": \"12h\",\n" +
+            "    \"includes\": [ { \"name\": \"startup\", \"dailyLimit\": 1 }, { \"name\": \"*\" } ],\n" +
+            "    \"excludes\": [ { \"name\": \"shutdown\", \"ratio\": \"1.0\" } ]\n" +
+            "  },\n" +
+            "  \"jedis\": {\n" +
+            "    \"enabled\": \"all\",\n" +
+            "    \"includes\": [\n" +
+            "      { \"name\": \"startup\", \"dailyLimit\": 1 },\n" +
+            "      { \"name\": \"lightsaber-*\", \"ratio\": \"0.5\" },\n" +
+            "      { \"property\": \"side\", \"value\": \"light\" },\n" +
+            "      { \"name\": \"*\" }\n" +
+            "    ],\n" +
+            "    \"excludes\": [\n" +
+            "      { \"name\": \"*-sith-*\" },\n" +
+            "      { \"property\": \"planet\", \"value\": \"{tatooine,naboo}\" }\n" +
+            "    ]\n" +
+            "  }\n" +
+            "}";
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 1_000_000;
+
+    @Test
+    void canSend() throws IOException {
+        List<Event> events = List.of(
+                new Event(Event.Type.STARTUP, "startup"),
+                new Event(Event.Type.ACTION, "lightsaber-duel", Map.of("side", "light", "planet", "mustafar")),
+                new Event(Event.Type.ACTION, "force-push", Map.of("side", "dark", "planet", "naboo")),
+                new Event(Event.Type.ACTION, "jedi-council-meeting", Map.of("planet", "coruscant")));
+        EventCounts counts = new EventCounts();
+
+        EventLimits cached = new EventLimits("jedis", PluginLimitsDeserialization.create(LIMITS), null, new UpToDateConfigurations(), counts);
+        EventLimits uncached = new EventLimits("jedis", withCustomFilter(PluginLimitsDeserialization.create(LIMITS)), null, new UpToDateConfigurations(), counts);
+
+        measure("canSend without cached decisions", uncached, events);
+        measure("canSend with cached decisions", cached, events);
+    }
+
+    private static List<PluginLimits> withCustomFilter(List<PluginLimits> all) {
+        List<PluginLimits> limits = new ArrayList<>();
+        for (PluginLimits plugin : all) {
+            List<Filter> excludes = new ArrayList<>(plugin.getExcludes());
+            excludes.add(new Filter.EventNameFilter("never", 1, -1) {});
+            limits.add(new PluginLimits(plugin.getPluginId(), plugin.getEnabled(), plugin.getRefresh(), plugin.getRatio(), plugin.getIncludes(), excludes));
+        }
+        return limits;
+    }
+
+    private static void measure(String name, EventLimits limits, List<Event> events) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(limits, events);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run(limits, events);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %.1f ns/op (best of %d rounds, %d ms)%n",
+                name, (double) best / OPERATIONS, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+
+    private static int run(EventLimits limits, List<Event> events) {
+        int sent = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (limits.canSend(events.get(i % events.size()))) {
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    private static class UpToDateConfigurations extends LimitsConfigurations {
+
+        private final FileTime modified = FileTime.from(Instant.now());
+
+        @Override
+        public FileTime getLocalLastModified() {
+            return modified;
+        }
+    }
+}
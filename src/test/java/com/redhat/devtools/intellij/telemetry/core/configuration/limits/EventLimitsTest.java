@@ -11,17 +11,22 @@
 package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
 
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.EventLimits.PluginLimitsFactory;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -261,6 +266,75 @@ public class EventLimitsTest {
         assertThat(pluginLimits).isEqualTo(embeddedLimits);
     }
 
+    @Test
+    public void getAllLimits_returns_stale_limits_while_remote_is_downloaded_in_background() throws IOException {
+        // given
+        PluginLimitsFactory factory = mock(PluginLimitsFactory.class);
+        LimitsConfigurations configurations = mock(LimitsConfigurations.class);
+        doReturn(createFileTime(7)) // 7h ago. Refresh needed, default refresh is 6h
+                .when(configurations).getLocalLastModified();
+        doReturn(REMOTE)
+                .when(configurations).downloadRemote();
+        doReturn(remoteLimits)
+                .when(factory).create(REMOTE);
+        List<Runnable> background = new ArrayList<>();
+        EventLimits limits = new EventLimits("bogus", localLimits, factory, configurations, mock(EventCounts.class), background::add);
+        // when
+        List<PluginLimits> stale = limits.getAllLimits();
+        background.forEach(Runnable::run);
+        List<PluginLimits> refreshed = limits.getAllLimits();
+        // then
+        assertThat(stale).isEqualTo(localLimits);
+        assertThat(refreshed).isEqualTo(remoteLimits);
+    }
+
+    @Test
+    public void getAllLimits_does_NOT_refresh_again_while_refresh_is_running() {
+        // given
+        LimitsConfigurations configurations = mock(LimitsConfigurations.class);
+        doReturn(createFileTime(7)) // 7h ago. Refresh needed, default refresh is 6h
+                .when(configurations).getLocalLastModified();
+        List<Runnable> background = new ArrayList<>();
+        EventLimits limits = new EventLimits("bogus", localLimits, mock(PluginLimitsFactory.class), configurations, mock(EventCounts.class), background::add);
+        // when
+        limits.getAllLimits();
+        limits.getAllLimits();
+        // then
+        assertThat(background).hasSize(1);
+    }
+
+    @Test
+    public void getAllLimits_keeps_stale_limits_if_download_fails() {
+        // given
+        LimitsConfigurations configurations = mock(LimitsConfigurations.class);
+        doReturn(createFileTime(7)) // 7h ago. Refresh needed, default refresh is 6h
+                .when(configurations).getLocalLastModified();
+        doReturn(null) // download fails
+                .when(configurations).downloadRemote();
+        EventLimits limits = new EventLimits("bogus", localLimits, mock(PluginLimitsFactory.class), configurations, mock(EventCounts.class));
+        // when
+        List<PluginLimits> pluginLimits = limits.getAllLimits();
+        // then
+        assertThat(pluginLimits).isEqualTo(localLimits);
+    }
+
+    @Test
+    public void warmUp_loads_limits_in_background() throws IOException {
+        // given
+        PluginLimitsFactory factory = mock(PluginLimitsFactory.class);
+        LimitsConfigurations configurations = createConfigurations(LocalDateTime.now()); // no refresh needed
+        doReturn(LOCAL)
+                .when(configurations).readLocal();
+        List<Runnable> background = new ArrayList<>();
+        EventLimits limits = new EventLimits("bogus", null, factory, configurations, mock(EventCounts.class), background::add);
+        // when
+        limits.warmUp();
+        // then
+        verify(configurations, never()).readLocal();
+        background.forEach(Runnable::run);
+        verify(configurations).readLocal();
+    }
+
     @Test
     public void canSend_returns_true_if_default_allows() throws IOException {
         // given
@@ -320,6 +394,73 @@ public class EventLimitsTest {
         assertThat(canSend).isTrue();
     }
 
+    @Test
+    public void canSend_returns_false_if_daily_limit_was_reached() {
+        // given
+        LimitsConfigurations configurations = createConfigurations(LocalDateTime.now()); // local file up-to-date, no refresh
+        List<PluginLimits> pluginLimits = List.of(createPluginLimitsWithDailyLimit("jedis", "startup", 1));
+        EventCounts eventCounts = mock(EventCounts.class);
+        Event event = new Event(Event.Type.STARTUP, "startup");
+        EventLimits limits = new EventLimits(
+                "jedis",
+                pluginLimits,
+                null,
+                configurations,
+                eventCounts);
+        boolean firstCanSend = limits.canSend(event);
+        doReturn(1)
+                .when(eventCounts).getDailyTotal(event);
+        // when
+        boolean secondCanSend = limits.canSend(event);
+        // then
+        assertThat(firstCanSend).isTrue();
+        assertThat(secondCanSend).isFalse();
+    }
+
+    @Test
+    public void canSend_does_NOT_query_counts_if_event_has_no_daily_limit() {
+        // given
+        LimitsConfigurations configurations = createConfigurations(LocalDateTime.now()); // local file up-to-date, no refresh
+        List<PluginLimits> pluginLimits = List.of(createPluginLimitsWithDailyLimit("jedis", "startup", 1));
+        EventCounts eventCounts = mock(EventCounts.class);
+        EventLimits limits = new EventLimits(
+                "jedis",
+                pluginLimits,
+                null,
+                configurations,
+                eventCounts);
+        Event event = new Event(Event.Type.ACTION, "lightsaber");
+        // when
+        limits.canSend(event);
+        // then
+        verify(eventCounts, never()).getDailyTotal(event);
+    }
+
+    @Test
+    public void canSend_should_allow_event_again_on_next_day_if_daily_limit_was_reached() {
+        // given
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        TelemetryClock clock = new TelemetryClock(now::get, ZoneId.systemDefault());
+        LimitsConfigurations configurations = createConfigurations(LocalDateTime.now()); // local file up-to-date, no refresh
+        List<PluginLimits> pluginLimits = List.of(createPluginLimitsWithDailyLimit("jedis", "startup", 1));
+        EventCounts eventCounts = new EventCounts(clock, 0);
+        Event event = new Event(Event.Type.STARTUP, "startup");
+        EventLimits limits = new EventLimits(
+                "jedis",
+                pluginLimits,
+                null,
+                configurations,
+                eventCounts);
+        limits.wasSent(event);
+        boolean sameDayCanSend = limits.canSend(event);
+        // when
+        now.addAndGet(Duration.ofDays(1).toMillis());
+        boolean nextDayCanSend = limits.canSend(event);
+        // then
+        assertThat(sameDayCanSend).isFalse();
+        assertThat(nextDayCanSend).isTrue();
+    }
+
     @Test
     public void wasSent_puts_event_to_eventCount() throws IOException {
         // given
@@ -371,6 +512,17 @@ public class EventLimitsTest {
         return mock;
     }
 
+    private static PluginLimits createPluginLimitsWithDailyLimit(String pluginId, String eventName, int dailyLimit) {
+        return new PluginLimits(
+                pluginId,
+                Enabled.ALL,
+                -1,
+                1f,
+                List.of(new Filter.EventNameFilter(eventName, 1, dailyLimit)),
+                Collections.emptyList(),
+                Mocks.userId(0));
+    }
+
     private static LimitsConfigurations createConfigurations(@NotNull LocalDateTime localModificationTimestamp) {
         LimitsConfigurations configurations = mock(LimitsConfigurations.class);
         int localCreatedHoursAgo = (int) ChronoUnit.HOURS.between(localModificationTimestamp, LocalDateTime.now());
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares looking up the first matching filter in a {@link FilterIndex} with scanning the filters one after the other.
+ */
+@Disabled("For manual testing purposes only")
+public class FilterIndexBenchmark {
+
+    private static final int FILTERS = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 100_000;
+
+    @Test
+    void getFirstMatching() {
+        List<Filter> filters = createFilters();
+        List<Event> events = List.of(
+                new Event(Event.Type.ACTION, "action-42"),
+                new Event(Event.Type.ACTION, "prefix-250-lightsaber"),
+                new Event(Event.Type.ACTION, "lightsaber-suffix-499"),
+                new Event(Event.Type.ACTION, "podrace", Map.of("planet", "planet-300")),
+                new Event(Event.Type.ACTION, "unmatched"));
+        FilterIndex index = new FilterIndex(filters);
+
+        measure("linear scan", events, event -> filters.stream()
+                .filter(filter -> filter.isMatching(event))
+                .findFirst()
+                .orElse(null));
+        measure("filter index", events, index::getFirstMatching);
+    }
+
+    private static List<Filter> createFilters() {
+        List<Filter> filters = new ArrayList<>();
+        for (int i = 0; i < FILTERS; i++) {
+            switch (i % 4) {
+                case 0:
+                    filters.add(new Filter.EventNameFilter("action-" + i, 1, -1));
+                    break;
+                case 1:
+                    filters.add(new Filter.EventNameFilter("prefix-" + i + "-*", 1, -1));
+                    break;
+                case 2:
+                    filters.add(new Filter.EventNameFilter("*-suffix-" + i, 1, -1));
+                    break;
+                default:
+                    filters.add(new Filter.EventPropertyFilter("planet", "planet-" + i));
+            }
+        }
+        return filters;
+    }
+
+    private static void measure(String name, List<Event> events, Function<Event, Filter> lookup) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(events, lookup);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run(events, lookup);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %.1f ns/op (best of %d rounds, %d ms)%n",
+                name, (double) best / OPERATIONS, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+
+    private static int run(List<Event> events, Function<Event, Filter> lookup) {
+        int matched = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (lookup.apply(events.get(i % events.size())) != null) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
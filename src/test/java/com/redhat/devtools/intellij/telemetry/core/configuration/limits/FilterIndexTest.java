@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.Filter.EventNameFilter;
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.Filter.EventPropertyFilter;
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterIndexTest {
+
+    @Test
+    void getFirstMatching_returns_null_if_there_are_no_filters() {
+        // given
+        FilterIndex index = new FilterIndex(Collections.emptyList());
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "yoda"));
+        // then
+        assertThat(matching).isNull();
+    }
+
+    @Test
+    void getFirstMatching_returns_literal_name_filter() {
+        // given
+        EventNameFilter yoda = nameFilter("yoda");
+        FilterIndex index = new FilterIndex(List.of(nameFilter("obiwan"), yoda));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "yoda"));
+        // then
+        assertThat(matching).isSameAs(yoda);
+    }
+
+    @Test
+    void getFirstMatching_returns_first_of_several_matching_filters() {
+        // given
+        EventNameFilter prefix = nameFilter("lightsaber-*");
+        FilterIndex index = new FilterIndex(List.of(
+                nameFilter("force-*"),
+                prefix,
+                nameFilter("lightsaber-duel"),
+                nameFilter("*-duel"),
+                nameFilter("*")));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "lightsaber-duel"));
+        // then
+        assertThat(matching).isSameAs(prefix);
+    }
+
+    @Test
+    void getFirstMatching_returns_general_glob_if_it_comes_first() {
+        // given
+        EventNameFilter general = nameFilter("light*-d?el");
+        FilterIndex index = new FilterIndex(List.of(general, nameFilter("lightsaber-duel")));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "lightsaber-duel"));
+        // then
+        assertThat(matching).isSameAs(general);
+    }
+
+    @Test
+    void getFirstMatching_does_NOT_match_separator_with_single_wildcard() {
+        // given
+        EventNameFilter crossing = nameFilter("jedi/**");
+        FilterIndex index = new FilterIndex(List.of(nameFilter("jedi/*"), nameFilter("*/yoda"), crossing));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "jedi/master/yoda"));
+        // then
+        assertThat(matching).isSameAs(crossing);
+    }
+
+    @Test
+    void getFirstMatching_does_NOT_match_empty_name() {
+        // given
+        FilterIndex index = new FilterIndex(List.of(nameFilter("*"), nameFilter("**")));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, ""));
+        // then
+        assertThat(matching).isNull();
+    }
+
+    @Test
+    void getFirstMatching_returns_property_filter() {
+        // given
+        EventPropertyFilter planet = new EventPropertyFilter("planet", "{tatooine,naboo}");
+        FilterIndex index = new FilterIndex(List.of(
+                new EventPropertyFilter("side", "dark"),
+                planet,
+                nameFilter("*")));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "podrace", Map.of("side", "light", "planet", "tatooine")));
+        // then
+        assertThat(matching).isSameAs(planet);
+    }
+
+    @Test
+    void getFirstMatching_matches_custom_filters_in_order() {
+        // given
+        Filter custom = Mocks.eventNameFilter(true, true, true);
+        FilterIndex index = new FilterIndex(List.of(custom, nameFilter("yoda")));
+        // when
+        Filter matching = index.getFirstMatching(new Event(null, "yoda"));
+        // then
+        assertThat(matching).isSameAs(custom);
+    }
+
+    @Test
+    void getFirstMatching_returns_same_filter_as_linear_scan() {
+        // given
+        Random random = new Random(42);
+        String[] parts = { "a", "b", "ab", "/", "-", "x" };
+        String[] wildcards = { "", "*", "**", "?", "[ab]", "{a,b}" };
+        for (int round = 0; round < 200; round++) {
+            List<Filter> filters = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String glob = wildcards[random.nextInt(wildcards.length)]
+                        + parts[random.nextInt(parts.length)]
+                        + parts[random.nextInt(parts.length)]
+                        + wildcards[random.nextInt(wildcards.length)];
+                if (random.nextInt(5) == 0) {
+                    filters.add(new EventPropertyFilter(parts[random.nextInt(parts.length)], glob));
+                } else {
+                    filters.add(nameFilter(glob));
+                }
+            }
+            FilterIndex index = new FilterIndex(filters);
+            for (int i = 0; i < 50; i++) {
+                String name = "";
+                int length = random.nextInt(5);
+                for (int j = 0; j < length; j++) {
+                    name += parts[random.nextInt(parts.length)];
+                }
+                Map<String, String> properties = new HashMap<>();
+                properties.put(parts[random.nextInt(parts.length)], name);
+                Event event = new Event(null, name, properties);
+                // when
+                Filter matching = index.getFirstMatching(event);
+                // then
+                assertThat(matching)
+                        .as("event '%s' with filters %s", name, filters)
+                        .isSameAs(filters.stream()
+                                .filter(filter -> filter.isMatching(event))
+                                .findFirst()
+                                .orElse(null));
+            }
+        }
+    }
+
+    private static EventNameFilter nameFilter(String glob) {
+        return new EventNameFilter(glob, 1, EventNameFilter.DAILY_LIMIT_UNSPECIFIED);
+    }
+}
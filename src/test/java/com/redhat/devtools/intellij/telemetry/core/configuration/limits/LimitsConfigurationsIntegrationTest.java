@@ -14,9 +14,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -27,7 +25,6 @@ import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -52,7 +49,7 @@ public class LimitsConfigurationsIntegrationTest {
         assertThat(Files.exists(LimitsConfigurations.LOCAL)).isFalse();
         LimitsConfigurations configurations = new LimitsConfigurations();
         // when
-        configurations.downloadRemote();
+        configurations.commitRemote(configurations.downloadRemote());
         // then
         assertThat(Files.exists(LimitsConfigurations.LOCAL)).isTrue();
     }
@@ -63,6 +60,7 @@ public class LimitsConfigurationsIntegrationTest {
         LimitsConfigurations configurations = new LimitsConfigurations();
         // when
         String remote = configurations.downloadRemote();
+        configurations.commitRemote(remote);
         // then
         String file = toString(LimitsConfigurations.LOCAL);
         assertThat(remote).isEqualTo(file);
@@ -152,7 +150,7 @@ public class LimitsConfigurationsIntegrationTest {
         Files.write(LimitsConfigurations.LOCAL, "obiwan".getBytes(), StandardOpenOption.CREATE);
         FileTime whenCreated = Files.getLastModifiedTime(LimitsConfigurations.LOCAL);
         LimitsConfigurations configurations = new LimitsConfigurations();
-        configurations.downloadRemote();
+        configurations.commitRemote(configurations.downloadRemote());
         FileTime whenDownloaded = Files.getLastModifiedTime(LimitsConfigurations.LOCAL);
         // when
         FileTime whenChecked = configurations.getLocalLastModified();
@@ -174,9 +172,8 @@ public class LimitsConfigurationsIntegrationTest {
     @Test
     public void readEmbedded_returns_content_of_embedded_file() throws IOException {
         // given
-        BufferedReader reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(
-                LimitsConfigurationsIntegrationTest.class.getResourceAsStream(LimitsConfigurations.EMBEDDED))));
-        String expected = reader.lines().collect(Collectors.joining());
+        String expected = new String(Objects.requireNonNull(
+                LimitsConfigurationsIntegrationTest.class.getResourceAsStream(LimitsConfigurations.EMBEDDED)).readAllBytes());
         LimitsConfigurations configurations = new LimitsConfigurations();
         // when
         String local = configurations.readEmbedded();
@@ -185,8 +182,7 @@ public class LimitsConfigurationsIntegrationTest {
     }
 
     private String toString(Path path) throws IOException {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path)));
-        return reader.lines().collect(Collectors.joining());
+        return Files.readString(path);
     }
 
     private Path backup(Path toBackup) throws IOException {
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Downloads from a local http server that stands in for the remote configuration.
+ */
+class LimitsConfigurationsTest {
+
+    private static final String CONFIG = "{ \"*\": { \"enabled\": \"all\" } }";
+    private static final String ETAG = "\"yoda-1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    @TempDir
+    private Path directory;
+
+    private HttpServer server;
+    private final List<HttpExchange> requests = new CopyOnWriteArrayList<>();
+    private Path local;
+    private String url;
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/telemetry-config.json", this::respond);
+        server.start();
+        this.url = "http://localhost:" + server.getAddress().getPort() + "/telemetry-config.json";
+        this.local = directory.resolve("telemetry-config.json");
+    }
+
+    @AfterEach
+    void after() {
+        server.stop(0);
+    }
+
+    @Test
+    void download_should_return_downloaded_content_and_write_it_to_local_file_once_committed() throws IOException {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        // when
+        String content = configurations.download(url);
+        configurations.commitRemote(content);
+        // then
+        assertThat(content).isEqualTo(CONFIG);
+        assertThat(Files.readString(local)).isEqualTo(CONFIG);
+    }
+
+    @Test
+    void download_should_NOT_leave_temporary_files() throws IOException {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        // when
+        configurations.commitRemote(configurations.download(url));
+        // then
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("telemetry-config.json", "telemetry-config.json.validators");
+        }
+    }
+
+    @Test
+    void download_should_request_gzip_and_decompress_response() {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        // when
+        String content = configurations.download(url);
+        // then
+        assertThat(requests.get(0).getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip");
+        assertThat(content).isEqualTo(CONFIG);
+    }
+
+    @Test
+    void download_should_send_validators_of_previous_download() {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        configurations.commitRemote(configurations.download(url));
+        // when
+        configurations.download(url);
+        // then
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).getRequestHeaders().getFirst("If-None-Match")).isNull();
+        assertThat(requests.get(1).getRequestHeaders().getFirst("If-None-Match")).isEqualTo(ETAG);
+        assertThat(requests.get(1).getRequestHeaders().getFirst("If-Modified-Since")).isEqualTo(LAST_MODIFIED);
+    }
+
+    @Test
+    void download_should_NOT_send_validators_if_local_file_is_missing() throws IOException {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        configurations.commitRemote(configurations.download(url));
+        Files.delete(local);
+        // when
+        configurations.download(url);
+        // then
+        assertThat(requests.get(1).getRequestHeaders().getFirst("If-None-Match")).isNull();
+    }
+
+    @Test
+    void download_should_return_local_content_and_touch_local_file_if_not_modified() throws IOException {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        configurations.commitRemote(configurations.download(url));
+        FileTime old = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(local, old);
+        // when
+        String content = configurations.download(url); // not modified
+        configurations.commitRemote(content);
+        // then
+        assertThat(content).isEqualTo(CONFIG);
+        assertThat(configurations.getLocalLastModified()).isGreaterThan(old);
+    }
+
+    @Test
+    void download_should_NOT_write_local_file_nor_validators_if_NOT_committed() {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        // when
+        configurations.download(url);
+        configurations.download(url);
+        // then
+        assertThat(Files.exists(local)).isFalse();
+        assertThat(Files.exists(local.resolveSibling("telemetry-config.json.validators"))).isFalse();
+        assertThat(requests.get(1).getRequestHeaders().getFirst("If-None-Match")).isNull();
+    }
+
+    @Test
+    void commitRemote_should_NOT_write_content_that_is_NOT_the_last_download() {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        configurations.download(url);
+        // when
+        configurations.commitRemote(new String(CONFIG));
+        // then
+        assertThat(Files.exists(local)).isFalse();
+    }
+
+    @Test
+    void download_should_NOT_overwrite_local_file_if_response_is_error() throws IOException {
+        // given
+        LimitsConfigurations configurations = new LimitsConfigurations(local);
+        Files.writeString(local, "obiwan");
+        // when
+        String content = configurations.download(url.replace("telemetry-config.json", "missing.json"));
+        // then
+        assertThat(content).isNull();
+        assertThat(Files.readString(local)).isEqualTo("obiwan");
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        requests.add(exchange);
+        try (exchange) {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+                return;
+            }
+            byte[] body = CONFIG.getBytes(StandardCharsets.UTF_8);
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null
+                    && acceptEncoding.contains("gzip")) {
+                body = gzip(body);
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("ETag", ETAG);
+            exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.EventLimits.PluginLimitsFactory;
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class LimitsRegistryTest {
+
+    private static final String LIMITS = "{\n" +
+            "  \"*\": {\n" +
+            "    \"enabled\": \"all\"\n" +
+            "  },\n" +
+            "  \"jedis\": {\n" +
+            "    \"enabled\": \"error\"\n" +
+            "  },\n" +
+            "  \"siths\": {\n" +
+            "    \"enabled\": \"off\"\n" +
+            "  }\n" +
+            "}";
+
+    private PluginLimitsFactory factory;
+    private LimitsConfigurations configurations;
+    private LimitsRegistry registry;
+
+    @BeforeEach
+    void before() throws IOException {
+        this.factory = mock(PluginLimitsFactory.class);
+        doReturn(PluginLimitsDeserialization.create(LIMITS))
+                .when(factory).create(LIMITS);
+        this.configurations = mock(LimitsConfigurations.class);
+        doReturn(FileTime.from(Instant.now())) // up-to-date, no refresh
+                .when(configurations).getLocalLastModified();
+        doReturn(LIMITS)
+                .when(configurations).readLocal();
+        this.registry = new LimitsRegistry(null, factory, configurations, Runnable::run);
+    }
+
+    @Test
+    void getApplicableLimits_returns_limits_for_given_plugin() {
+        // given
+        // when
+        PluginLimits limits = registry.getSnapshot().getApplicableLimits("siths");
+        // then
+        assertThat(limits.getPluginId()).isEqualTo("siths");
+    }
+
+    @Test
+    void getApplicableLimits_returns_default_limits_for_unknown_plugin() {
+        // given
+        // when
+        PluginLimits limits = registry.getSnapshot().getApplicableLimits("droids");
+        // then
+        assertThat(limits.isDefault()).isTrue();
+    }
+
+    @Test
+    void getApplicableLimits_returns_default_limits_if_plugin_id_is_empty() {
+        // given
+        // when
+        PluginLimits limits = registry.getSnapshot().getApplicableLimits(" ");
+        // then
+        assertThat(limits.isDefault()).isTrue();
+    }
+
+    @Test
+    void getSnapshot_parses_configuration_once_for_all_plugins() throws IOException {
+        // given
+        EventLimits jedis = new EventLimits("jedis", registry, mock(EventCounts.class));
+        EventLimits siths = new EventLimits("siths", registry, mock(EventCounts.class));
+        Event event = new Event(Event.Type.ACTION, "lightsaber");
+        // when
+        boolean jediCanSend = jedis.canSend(event);
+        boolean sithCanSend = siths.canSend(event);
+        // then
+        verify(factory, times(1)).create(any());
+        assertThat(jediCanSend).isFalse(); // errors only
+        assertThat(sithCanSend).isFalse(); // off
+    }
+
+    @Test
+    void getSnapshot_should_NOT_retry_download_before_backoff_elapsed_if_server_refuses_connections() throws IOException {
+        // given
+        String previous = System.getProperty(LimitsConfigurations.SYSTEM_PROP_REMOTE);
+        System.setProperty(LimitsConfigurations.SYSTEM_PROP_REMOTE, "http://localhost:" + getClosedPort() + "/telemetry-config.json");
+        try {
+            LimitsConfigurations offline = spy(new LimitsConfigurations() {
+                @Override
+                public FileTime getLocalLastModified() {
+                    return null; // no local limits, refresh immediately
+                }
+
+                @Override
+                public String readLocal() {
+                    return null;
+                }
+            });
+            LimitsRegistry registry = new LimitsRegistry(null, PluginLimitsDeserialization::create, offline, Runnable::run);
+            // when
+            LimitsRegistry.Snapshot first = registry.getSnapshot();
+            LimitsRegistry.Snapshot second = registry.getSnapshot();
+            // then
+            verify(offline, times(1)).downloadRemote();
+            verify(offline, times(1)).readEmbedded();
+            assertThat(second.getLimits())
+                    .isNotEmpty() // embedded limits
+                    .isSameAs(first.getLimits());
+            assertThat(second.isStale(System.currentTimeMillis())).isFalse();
+        } finally {
+            if (previous == null) {
+                System.clearProperty(LimitsConfigurations.SYSTEM_PROP_REMOTE);
+            } else {
+                System.setProperty(LimitsConfigurations.SYSTEM_PROP_REMOTE, previous);
+            }
+        }
+    }
+
+    @Test
+    void getRefreshAt_should_delay_refresh_by_user_percentile() throws IOException {
+        // given
+        List<PluginLimits> limits = PluginLimitsDeserialization.create(LIMITS);
+        LimitsRegistry early = new LimitsRegistry(null, factory, configurations, Runnable::run, new RefreshBackoff(), () -> 0);
+        LimitsRegistry late = new LimitsRegistry(null, factory, configurations, Runnable::run, new RefreshBackoff(), () -> 1);
+        long period = LimitsRegistry.DEFAULT_REFRESH_PERIOD.toMillis();
+        // when
+        long earlyRefresh = early.getRefreshAt(0, limits);
+        long lateRefresh = late.getRefreshAt(0, limits);
+        // then
+        assertThat(earlyRefresh).isEqualTo(period);
+        assertThat(lateRefresh).isEqualTo(period + (long) (period * LimitsRegistry.MAX_REFRESH_JITTER));
+    }
+
+    @Test
+    void getSnapshot_should_refresh_once_refresh_period_elapsed() throws IOException {
+        // given
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        TelemetryClock clock = new TelemetryClock(now::get, ZoneId.systemDefault());
+        doReturn(FileTime.fromMillis(now.get()))
+                .when(configurations).getLocalLastModified();
+        doReturn(LIMITS)
+                .when(configurations).downloadRemote();
+        LimitsRegistry registry = new LimitsRegistry(null, factory, configurations, Runnable::run, new RefreshBackoff(), () -> 0, clock);
+        registry.getSnapshot();
+        // when
+        now.addAndGet(LimitsRegistry.DEFAULT_REFRESH_PERIOD.toMillis() - 1);
+        registry.getSnapshot();
+        verify(configurations, never()).downloadRemote();
+        now.addAndGet(1);
+        registry.getSnapshot();
+        // then
+        verify(configurations, times(1)).downloadRemote();
+    }
+
+    @Test
+    void getSnapshot_should_commit_downloaded_configuration_only_if_it_can_be_parsed() throws IOException {
+        // given
+        doReturn(null) // no local limits, refresh immediately
+                .when(configurations).getLocalLastModified();
+        doReturn("bogus")
+                .when(configurations).downloadRemote();
+        doThrow(new IOException("It's a trap!"))
+                .when(factory).create("bogus");
+        LimitsRegistry registry = new LimitsRegistry(null, factory, configurations, Runnable::run);
+        // when
+        registry.getSnapshot();
+        // then
+        verify(configurations).downloadRemote();
+        verify(configurations, never()).commitRemote(any());
+    }
+
+    @Test
+    void getSnapshot_should_commit_downloaded_configuration_that_was_parsed() {
+        // given
+        doReturn(null) // no local limits, refresh immediately
+                .when(configurations).getLocalLastModified();
+        doReturn(LIMITS)
+                .when(configurations).downloadRemote();
+        LimitsRegistry registry = new LimitsRegistry(null, factory, configurations, Runnable::run);
+        // when
+        registry.getSnapshot();
+        // then
+        verify(configurations).commitRemote(LIMITS);
+    }
+
+    @Test
+    void dispose_should_shut_down_executor() {
+        // given
+        ExecutorService executor = mock(ExecutorService.class);
+        LimitsRegistry registry = new LimitsRegistry(null, factory, configurations, executor);
+        // when
+        registry.dispose();
+        // then
+        verify(executor).shutdownNow();
+    }
+
+    private static int getClosedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
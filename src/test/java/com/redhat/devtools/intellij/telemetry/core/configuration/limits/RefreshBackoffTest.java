@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import org.junit.jupiter.api.Test;
+
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.RefreshBackoff.FAILURE_THRESHOLD;
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.RefreshBackoff.INITIAL_DELAY;
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.RefreshBackoff.MAX_DELAY;
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.RefreshBackoff.OPEN_DURATION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshBackoffTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void onFailure_should_double_delay_for_each_failure() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0); // no jitter
+        // when
+        long first = backoff.onFailure(NOW) - NOW;
+        long second = backoff.onFailure(NOW) - NOW;
+        // then
+        assertThat(first).isEqualTo(INITIAL_DELAY.toMillis());
+        assertThat(second).isEqualTo(INITIAL_DELAY.toMillis() * 2);
+    }
+
+    @Test
+    void onFailure_should_jitter_delay_by_up_to_half() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 0.0); // max jitter
+        // when
+        long delay = backoff.onFailure(NOW) - NOW;
+        // then
+        assertThat(delay).isEqualTo(INITIAL_DELAY.toMillis() / 2);
+    }
+
+    @Test
+    void onFailure_should_NOT_exceed_max_delay() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0);
+        // when
+        long delay = 0;
+        for (int i = 0; i < 100; i++) {
+            delay = backoff.onFailure(NOW) - NOW;
+        }
+        // then
+        assertThat(delay).isEqualTo(MAX_DELAY.toMillis());
+    }
+
+    @Test
+    void onFailure_should_open_circuit_once_threshold_is_reached() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0);
+        // when
+        long retryAt = 0;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            retryAt = backoff.onFailure(NOW);
+        }
+        // then
+        assertThat(backoff.getState()).isEqualTo(RefreshBackoff.State.OPEN);
+        assertThat(retryAt - NOW).isGreaterThanOrEqualTo(OPEN_DURATION.toMillis());
+        assertThat(backoff.allowsAttempt(NOW)).isFalse();
+        assertThat(backoff.allowsAttempt(retryAt - 1)).isFalse();
+    }
+
+    @Test
+    void allowsAttempt_should_half_open_circuit_once_it_was_open_long_enough() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0);
+        long retryAt = 0;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            retryAt = backoff.onFailure(NOW);
+        }
+        // when
+        boolean allowed = backoff.allowsAttempt(retryAt);
+        // then
+        assertThat(allowed).isTrue();
+        assertThat(backoff.getState()).isEqualTo(RefreshBackoff.State.HALF_OPEN);
+    }
+
+    @Test
+    void onFailure_should_reopen_half_open_circuit() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0);
+        long retryAt = 0;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            retryAt = backoff.onFailure(NOW);
+        }
+        backoff.allowsAttempt(retryAt);
+        // when
+        backoff.onFailure(retryAt);
+        // then
+        assertThat(backoff.getState()).isEqualTo(RefreshBackoff.State.OPEN);
+        assertThat(backoff.allowsAttempt(retryAt)).isFalse();
+    }
+
+    @Test
+    void onSuccess_should_close_circuit_and_reset_delay() {
+        // given
+        RefreshBackoff backoff = new RefreshBackoff(() -> 1.0);
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            backoff.onFailure(NOW);
+        }
+        // when
+        backoff.onSuccess();
+        // then
+        assertThat(backoff.getState()).isEqualTo(RefreshBackoff.State.CLOSED);
+        assertThat(backoff.allowsAttempt(NOW)).isTrue();
+        assertThat(backoff.onFailure(NOW) - NOW).isEqualTo(INITIAL_DELAY.toMillis());
+    }
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.configuration.limits;
+
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.Filter.EventNameFilter;
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.Filter.EventPropertyFilter;
+import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.util.TelemetryClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.Mocks.eventProperty;
+import static com.redhat.devtools.intellij.telemetry.core.configuration.limits.Mocks.userId;
+import static com.redhat.devtools.intellij.telemetry.core.service.Event.Type.ACTION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SendDecisionsTest {
+
+    private PluginLimits limits;
+    private List<PluginLimits> source;
+    private AtomicLong now;
+    private SendDecisions decisions;
+
+    @BeforeEach
+    void before() {
+        this.limits = spy(new PluginLimits(
+                "jedis",
+                Enabled.ALL,
+                -1,
+                1f,
+                List.of(new EventNameFilter("startup", 1, 1)),
+                List.of(new EventPropertyFilter("side", "dark")),
+                userId(0)));
+        this.source = List.of(limits);
+        this.now = new AtomicLong(System.currentTimeMillis());
+        this.decisions = new SendDecisions(source, limits, new TelemetryClock(now::get, ZoneId.systemDefault()));
+    }
+
+    @Test
+    void get_should_return_cached_decision_for_same_event() {
+        // given
+        decisions.get(new Event(ACTION, "lightsaber"));
+        // when
+        decisions.get(new Event(ACTION, "lightsaber"));
+        // then
+        verify(limits, times(1)).getDecision(any());
+        assertThat(decisions.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_should_take_decision_for_different_values_of_filtered_property() {
+        // given
+        decisions.get(new Event(ACTION, "lightsaber", Map.of("side", "light")));
+        // when
+        decisions.get(new Event(ACTION, "lightsaber", Map.of("side", "dark")));
+        // then
+        verify(limits, times(2)).getDecision(any());
+        assertThat(decisions.size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_should_return_cached_decision_for_different_values_of_unfiltered_property() {
+        // given
+        decisions.get(new Event(ACTION, "lightsaber", Map.of("color", "green")));
+        // when
+        decisions.get(new Event(ACTION, "lightsaber", Map.of("color", "red")));
+        // then
+        assertThat(decisions.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_should_return_decision_that_applies_daily_limit() {
+        // given
+        // when
+        SendDecision decision = decisions.get(new Event(ACTION, "startup"));
+        // then
+        assertThat(decision.canSend(0)).isTrue();
+        assertThat(decision.canSend(1)).isFalse();
+    }
+
+    @Test
+    void get_should_take_decisions_again_once_day_changed() {
+        // given
+        Event event = new Event(ACTION, "lightsaber");
+        decisions.get(event);
+        now.addAndGet(Duration.ofDays(1).toMillis());
+        // when
+        decisions.get(event);
+        // then
+        verify(limits, times(2)).getDecision(event);
+    }
+
+    @Test
+    void get_should_evict_eldest_decision_if_cache_is_full() {
+        // given
+        for (int i = 0; i < SendDecisions.MAX_ENTRIES; i++) {
+            decisions.get(new Event(ACTION, "event" + i));
+        }
+        // when
+        decisions.get(new Event(ACTION, "one too many"));
+        // then
+        assertThat(decisions.size()).isEqualTo(SendDecisions.MAX_ENTRIES);
+    }
+
+    @Test
+    void isFor_should_return_true_for_same_list_of_limits() {
+        // given
+        // when
+        boolean isFor = decisions.isFor(source);
+        // then
+        assertThat(isFor).isTrue();
+    }
+
+    @Test
+    void isFor_should_return_false_for_reloaded_list_of_limits() {
+        // given
+        // when
+        boolean isFor = decisions.isFor(new ArrayList<>(source));
+        // then
+        assertThat(isFor).isFalse();
+    }
+
+    @Test
+    void isCacheable_should_return_false_if_limits_use_custom_filter() {
+        // given
+        PluginLimits limits = new PluginLimits(
+                "jedis",
+                Enabled.ALL,
+                -1,
+                1f,
+                List.of(eventProperty()),
+                List.of(),
+                userId(0));
+        SendDecisions decisions = new SendDecisions(List.of(limits), limits);
+        // when
+        boolean cacheable = decisions.isCacheable();
+        // then
+        assertThat(cacheable).isFalse();
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Event.Type.ACTION;
+import static com.redhat.devtools.intellij.telemetry.core.service.Event.Type.STARTUP;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private EventSpool spool;
+
+    @BeforeEach
+    void before() {
+        this.file = directory.resolve("spool.bin");
+        this.spool = new EventSpool(file, 1024);
+    }
+
+    @Test
+    void isEmpty_should_return_true_and_NOT_create_file_if_nothing_was_appended() {
+        // given
+        // when
+        boolean empty = spool.isEmpty();
+        // then
+        assertThat(empty).isTrue();
+        assertThat(Files.exists(file)).isFalse();
+    }
+
+    @Test
+    void append_should_add_event() {
+        // given
+        // when
+        boolean appended = spool.append(new Event(ACTION, "yoda"));
+        // then
+        assertThat(appended).isTrue();
+        assertThat(spool.isEmpty()).isFalse();
+    }
+
+    @Test
+    void append_should_NOT_add_event_if_spool_is_full() {
+        // given
+        EventSpool spool = new EventSpool(file, 64);
+        spool.append(new Event(ACTION, "may the force be with you"));
+        // when
+        boolean appended = spool.append(new Event(ACTION, "may the force be with you"));
+        // then
+        assertThat(appended).isFalse();
+    }
+
+    @Test
+    void replay_should_hand_events_in_order_to_consumer() {
+        // given
+        Map<String, String> properties = new HashMap<>();
+        properties.put("jedi", "yoda");
+        properties.put("sith", null);
+        spool.append(new Event(STARTUP, "startup", properties));
+        spool.append(new Event(ACTION, "lightsaber"));
+        List<Event> replayed = new ArrayList<>();
+        // when
+        int count = spool.replay(replayed::add);
+        // then
+        assertThat(count).isEqualTo(2);
+        assertThat(replayed).hasSize(2);
+        assertThat(replayed.get(0).getType()).isEqualTo(STARTUP);
+        assertThat(replayed.get(0).getName()).isEqualTo("startup");
+        assertThat(replayed.get(0).getProperties())
+                .containsEntry("jedi", "yoda")
+                .containsEntry("sith", null);
+        assertThat(replayed.get(1).getType()).isEqualTo(ACTION);
+        assertThat(replayed.get(1).getName()).isEqualTo("lightsaber");
+    }
+
+    @Test
+    void replay_should_empty_spool() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        // when
+        spool.replay(event -> {});
+        // then
+        assertThat(spool.isEmpty()).isTrue();
+    }
+
+    @Test
+    void replay_should_NOT_replay_if_called_while_replaying() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        spool.append(new Event(ACTION, "obiwan"));
+        List<Event> replayed = new ArrayList<>();
+        // when
+        spool.replay(event -> {
+            replayed.add(event);
+            spool.replay(replayed::add);
+        });
+        // then
+        assertThat(replayed).hasSize(2);
+    }
+
+    @Test
+    void replay_should_replay_events_that_were_appended_by_previous_spool() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        EventSpool nextSession = new EventSpool(file, 1024);
+        List<Event> replayed = new ArrayList<>();
+        // when
+        nextSession.replay(replayed::add);
+        // then
+        assertThat(replayed).hasSize(1);
+        assertThat(replayed.get(0).getName()).isEqualTo("yoda");
+    }
+
+    @Test
+    void replay_should_keep_events_from_the_one_that_consumer_failed_for() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        spool.append(new Event(ACTION, "obiwan"));
+        spool.append(new Event(ACTION, "luke"));
+        List<String> replayed = new ArrayList<>();
+        // when
+        int count = spool.replay(event -> {
+            if ("obiwan".equals(event.getName())) {
+                throw new IllegalStateException("order 66");
+            }
+            replayed.add(event.getName());
+        });
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(replayed).containsExactly("yoda");
+        spool.replay(event -> replayed.add(event.getName()));
+        assertThat(replayed).containsExactly("yoda", "obiwan", "luke");
+    }
+
+    @Test
+    void replay_should_drop_record_that_can_NOT_be_decoded_and_replay_following_ones() throws IOException {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        spool.append(new Event(ACTION, "obiwan"));
+        // type of the 1st record
+        write(Long.BYTES + Integer.BYTES, ByteBuffer.allocate(Integer.BYTES).putInt(-42).array());
+        List<String> replayed = new ArrayList<>();
+        // when
+        int count = spool.replay(event -> replayed.add(event.getName()));
+        // then
+        assertThat(count).isEqualTo(1);
+        assertThat(replayed).containsExactly("obiwan");
+        assertThat(spool.isEmpty()).isTrue();
+    }
+
+    @Test
+    void append_should_add_to_events_that_other_spool_appended() {
+        // given
+        EventSpool other = new EventSpool(file, 1024);
+        spool.append(new Event(ACTION, "yoda"));
+        other.append(new Event(ACTION, "obiwan"));
+        spool.append(new Event(ACTION, "luke"));
+        List<String> replayed = new ArrayList<>();
+        // when
+        other.replay(event -> replayed.add(event.getName()));
+        // then
+        assertThat(replayed).containsExactly("yoda", "obiwan", "luke");
+        assertThat(spool.isEmpty()).isTrue();
+    }
+
+    @Test
+    void replay_should_replay_events_that_exceed_lowered_maximum_size() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        spool.append(new Event(ACTION, "obiwan"));
+        EventSpool smaller = new EventSpool(file, 32);
+        List<String> replayed = new ArrayList<>();
+        // when
+        boolean appended = smaller.append(new Event(ACTION, "luke"));
+        smaller.replay(event -> replayed.add(event.getName()));
+        // then
+        assertThat(appended).isFalse();
+        assertThat(replayed).containsExactly("yoda", "obiwan");
+    }
+
+    @Test
+    void decode_should_throw_if_string_length_exceeds_record() {
+        // given
+        ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES)
+                .putInt(ACTION.ordinal())
+                .putInt(Integer.MAX_VALUE)
+                .flip();
+        // when
+        // then
+        assertThatThrownBy(() -> EventSpool.decode(record))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void decode_should_throw_if_type_is_negative() {
+        // given
+        ByteBuffer record = ByteBuffer.wrap(EventSpool.encode(new Event(ACTION, "yoda")))
+                .putInt(0, -2);
+        // when
+        // then
+        assertThatThrownBy(() -> EventSpool.decode(record))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void discard_should_empty_spool() {
+        // given
+        spool.append(new Event(ACTION, "yoda"));
+        // when
+        spool.discard();
+        // then
+        assertThat(spool.isEmpty()).isTrue();
+        assertThat(spool.replay(event -> {})).isZero();
+    }
+
+    private void write(int position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentifyCoordinatorTest {
+
+    private IdentifyCoordinator identity;
+
+    @BeforeEach
+    void before() {
+        this.identity = new IdentifyCoordinator();
+    }
+
+    @Test
+    void isIdentified_should_return_false_initially() {
+        // given
+        // when
+        boolean identified = identity.isIdentified();
+        // then
+        assertThat(identified).isFalse();
+    }
+
+    @Test
+    void identify_should_return_true_if_not_identified_yet() {
+        // given
+        // when
+        boolean needsIdentify = identity.identify("yoda");
+        // then
+        assertThat(needsIdentify).isTrue();
+        assertThat(identity.isIdentified()).isTrue();
+    }
+
+    @Test
+    void identify_should_return_false_if_identified_with_same_fingerprint() {
+        // given
+        identity.identify("yoda");
+        // when
+        boolean needsIdentify = identity.identify("yoda");
+        // then
+        assertThat(needsIdentify).isFalse();
+    }
+
+    @Test
+    void identify_should_return_true_if_identified_with_different_fingerprint() {
+        // given
+        identity.identify("yoda");
+        // when
+        boolean needsIdentify = identity.identify("obiwan");
+        // then
+        assertThat(needsIdentify).isTrue();
+    }
+
+    @Test
+    void expect_should_reset_identified_if_fingerprint_differs() {
+        // given
+        identity.identify("yoda");
+        // when
+        identity.expect("obiwan");
+        // then
+        assertThat(identity.isIdentified()).isFalse();
+    }
+
+    @Test
+    void expect_should_NOT_reset_identified_if_fingerprint_is_equal() {
+        // given
+        identity.identify("yoda");
+        // when
+        identity.expect("yoda");
+        // then
+        assertThat(identity.isIdentified()).isTrue();
+    }
+}
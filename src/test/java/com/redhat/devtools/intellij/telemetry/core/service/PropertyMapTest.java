@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Message.PROP_RESULT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PropertyMapTest {
+
+    @Test
+    void put_should_keep_insertion_order() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        // when
+        properties.put("yoda", "green");
+        properties.put("luke", "blonde");
+        properties.put("leia", "brown");
+        // then
+        assertThat(properties.keySet()).containsExactly("yoda", "luke", "leia");
+    }
+
+    @Test
+    void put_should_replace_existing_value() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        // when
+        String previous = properties.put("yoda", "blue");
+        // then
+        assertThat(previous).isEqualTo("green");
+        assertThat(properties).hasSize(1);
+        assertThat(properties.get("yoda")).isEqualTo("blue");
+    }
+
+    @Test
+    void put_should_grow_beyond_initial_capacity() {
+        // given
+        PropertyMap properties = new PropertyMap(0);
+        Map<String, String> expected = new HashMap<>();
+        // when
+        for (int i = 0; i < 3 * PropertyMap.DEFAULT_CAPACITY; i++) {
+            properties.put("jedi" + i, "padawan" + i);
+            expected.put("jedi" + i, "padawan" + i);
+        }
+        // then
+        assertThat(properties).isEqualTo(expected);
+        assertThat(properties.hashCode()).isEqualTo(expected.hashCode());
+    }
+
+    @Test
+    void put_should_use_constant_instance_of_well_known_key() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        String key = new String(PROP_RESULT.toCharArray());
+        // when
+        properties.put(key, Message.RESULT_SUCCESS);
+        // then
+        assertThat(properties.keySet().iterator().next()).isSameAs(PROP_RESULT);
+    }
+
+    @Test
+    void remove_should_remove_property_and_keep_order() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        properties.put("luke", "blonde");
+        properties.put("leia", "brown");
+        // when
+        String removed = properties.remove("luke");
+        // then
+        assertThat(removed).isEqualTo("blonde");
+        assertThat(properties.keySet()).containsExactly("yoda", "leia");
+        assertThat(properties.containsKey("luke")).isFalse();
+    }
+
+    @Test
+    void iterator_remove_should_remove_current_property() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        properties.put("luke", "blonde");
+        properties.put("leia", "brown");
+        // when
+        Iterator<Map.Entry<String, String>> iterator = properties.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().startsWith("l")) {
+                iterator.remove();
+            }
+        }
+        // then
+        assertThat(properties).containsOnlyKeys("yoda");
+    }
+
+    @Test
+    void handOff_should_return_map_with_same_properties() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        // when
+        PropertyMap handedOff = properties.handOff();
+        // then
+        assertThat(handedOff).isEqualTo(properties);
+    }
+
+    @Test
+    void handOff_should_NOT_let_modifications_of_either_map_affect_the_other() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        properties.put("luke", "blonde");
+        PropertyMap handedOff = properties.handOff();
+        // when
+        properties.put("yoda", "blue");
+        properties.remove("luke");
+        handedOff.put("leia", "brown");
+        // then
+        assertThat(properties).containsOnly(Map.entry("yoda", "blue"));
+        assertThat(handedOff).containsOnly(
+                Map.entry("yoda", "green"),
+                Map.entry("luke", "blonde"),
+                Map.entry("leia", "brown"));
+    }
+
+    @Test
+    void clear_should_NOT_clear_handed_off_map() {
+        // given
+        PropertyMap properties = new PropertyMap();
+        properties.put("yoda", "green");
+        PropertyMap handedOff = properties.handOff();
+        // when
+        properties.clear();
+        // then
+        assertThat(properties).isEmpty();
+        assertThat(handedOff).containsOnlyKeys("yoda");
+    }
+}
@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDispatcherTest {
+
+    @Test
+    void execute_should_run_task_on_dispatcher_thread() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        AtomicReference<Thread> runBy = new AtomicReference<>();
+        // when
+        dispatcher.execute(() -> runBy.set(Thread.currentThread()));
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // then
+        assertThat(runBy.get())
+                .isNotNull()
+                .isNotEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void execute_should_run_tasks_in_order() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(100);
+        List<Integer> run = new CopyOnWriteArrayList<>();
+        // when
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            dispatcher.execute(() -> run.add(index));
+        }
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // then
+        assertThat(run).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            assertThat(run.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void execute_should_drop_tasks_if_queue_is_full() throws InterruptedException {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(1);
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        dispatcher.execute(() -> {
+            running.countDown();
+            await(blocking);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        dispatcher.execute(() -> {}); // queued
+        // when
+        dispatcher.execute(() -> {}); // dropped
+        // then
+        assertThat(dispatcher.getDropped()).isEqualTo(1);
+        blocking.countDown();
+    }
+
+    @Test
+    void execute_should_warn_once_per_interval_if_tasks_are_dropped() throws InterruptedException {
+        // given
+        AtomicLong now = new AtomicLong(0);
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(1, now::get);
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        dispatcher.execute(() -> {
+            running.countDown();
+            await(blocking);
+        });
+        running.await(5, TimeUnit.SECONDS);
+        dispatcher.execute(() -> {}); // queued
+        // when
+        dispatcher.execute(() -> {}); // dropped, warned
+        dispatcher.execute(() -> {}); // dropped
+        now.set(TelemetryDispatcher.DROP_WARNING_INTERVAL - 1);
+        dispatcher.execute(() -> {}); // dropped
+        long warningsWithinInterval = dispatcher.getDropWarnings();
+        now.set(TelemetryDispatcher.DROP_WARNING_INTERVAL);
+        dispatcher.execute(() -> {}); // dropped, warned
+        // then
+        assertThat(warningsWithinInterval).isEqualTo(1);
+        assertThat(dispatcher.getDropWarnings()).isEqualTo(2);
+        assertThat(dispatcher.getDropped()).isEqualTo(4);
+        blocking.countDown();
+    }
+
+    @Test
+    void execute_should_continue_dispatching_if_task_throws() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        AtomicReference<Boolean> run = new AtomicReference<>(false);
+        dispatcher.execute(() -> {
+            throw new IllegalStateException("Luke, I am your father");
+        });
+        // when
+        dispatcher.execute(() -> run.set(true));
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // then
+        assertThat(run.get()).isTrue();
+    }
+
+    @Test
+    void drain_should_return_false_if_tasks_did_not_finish_in_time() throws InterruptedException {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        CountDownLatch blocking = new CountDownLatch(1);
+        dispatcher.execute(() -> await(blocking));
+        // when
+        boolean drained = dispatcher.drain(100, TimeUnit.MILLISECONDS);
+        // then
+        assertThat(drained).isFalse();
+        blocking.countDown();
+    }
+
+    @Test
+    void runLast_should_run_task_on_dispatcher_thread_after_queued_tasks() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        List<String> run = new CopyOnWriteArrayList<>();
+        AtomicReference<Thread> runBy = new AtomicReference<>();
+        dispatcher.execute(() -> run.add("queued"));
+        // when
+        boolean ran = dispatcher.runLast(() -> {
+            run.add("last");
+            runBy.set(Thread.currentThread());
+        }, 5, TimeUnit.SECONDS);
+        // then
+        assertThat(ran).isTrue();
+        assertThat(run).containsExactly("queued", "last");
+        assertThat(runBy.get()).isNotEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void shutdown_should_run_queued_tasks_and_stop_thread() throws InterruptedException {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        AtomicReference<Boolean> run = new AtomicReference<>(false);
+        dispatcher.execute(() -> run.set(true));
+        // when
+        dispatcher.shutdown();
+        // then
+        assertThat(awaitStopped(dispatcher)).isTrue();
+        assertThat(run.get()).isTrue();
+    }
+
+    @Test
+    void execute_should_NOT_run_task_after_shutdown() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        AtomicReference<Boolean> run = new AtomicReference<>(false);
+        dispatcher.shutdown();
+        // when
+        dispatcher.execute(() -> run.set(true));
+        boolean ranLast = dispatcher.runLast(() -> run.set(true), 100, TimeUnit.MILLISECONDS);
+        // then
+        assertThat(run.get()).isFalse();
+        assertThat(ranLast).isFalse();
+        assertThat(dispatcher.isStopped()).isTrue();
+    }
+
+    @Test
+    void release_should_shut_down_shared_dispatcher_once_all_users_released_it() throws InterruptedException {
+        // given
+        TelemetryDispatcher dispatcher = TelemetryDispatcher.acquire();
+        TelemetryDispatcher.acquire();
+        dispatcher.execute(() -> {});
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // when
+        TelemetryDispatcher.release(dispatcher);
+        boolean stoppedAfterFirst = dispatcher.isStopped();
+        TelemetryDispatcher.release(dispatcher);
+        // then
+        assertThat(stoppedAfterFirst).isFalse();
+        assertThat(awaitStopped(dispatcher)).isTrue();
+        TelemetryDispatcher acquired = TelemetryDispatcher.acquire();
+        assertThat(acquired).isNotSameAs(dispatcher);
+        TelemetryDispatcher.release(acquired);
+    }
+
+    @Test
+    void acquire_should_create_dispatcher_with_capacity_of_system_property() {
+        // given
+        System.setProperty(TelemetryDispatcher.SYSTEM_PROP_CAPACITY, "42");
+        TelemetryDispatcher dispatcher = null;
+        try {
+            // when
+            dispatcher = TelemetryDispatcher.acquire();
+            // then
+            assertThat(dispatcher.getCapacity()).isEqualTo(42);
+        } finally {
+            System.clearProperty(TelemetryDispatcher.SYSTEM_PROP_CAPACITY);
+            TelemetryDispatcher.release(dispatcher);
+        }
+    }
+
+    @Test
+    void SYNCHRONOUS_should_run_task_on_calling_thread() {
+        // given
+        AtomicReference<Thread> runBy = new AtomicReference<>();
+        // when
+        TelemetryDispatcher.SYNCHRONOUS.execute(() -> runBy.set(Thread.currentThread()));
+        // then
+        assertThat(runBy.get()).isEqualTo(Thread.currentThread());
+    }
+
+    private static boolean awaitStopped(TelemetryDispatcher dispatcher) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (!dispatcher.isStopped()) {
+            if (System.currentTimeMillis() > timeout) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
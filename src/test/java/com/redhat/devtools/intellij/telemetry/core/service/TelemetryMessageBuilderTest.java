@@ -14,6 +14,7 @@ import com.intellij.ide.AppLifecycleListener;
 import com.intellij.util.messages.MessageBusConnection;
 import com.redhat.devtools.intellij.telemetry.core.service.TelemetryMessageBuilder.FeedbackServiceFacade;
 import com.redhat.devtools.intellij.telemetry.core.util.AnonymizeUtils;
+import com.redhat.devtools.intellij.telemetry.core.util.RedactionRules;
 import com.redhat.devtools.intellij.telemetry.core.util.TimeUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -112,6 +113,22 @@ class TelemetryMessageBuilderTest {
         verify(telemetryServiceFacade).send(any(Event.class));
     }
 
+    @Test
+    void send_should_NOT_change_sent_event_if_message_is_modified_afterwards() {
+        // given
+        ActionMessage message = builder.action("gargamel")
+                .property("likes", "azrael");
+        Event event = message.send();
+        // when
+        message.property("likes", "smurfs");
+        message.property("hates", "smurfs");
+        // then
+        assertThat(event.getProperties())
+                .containsEntry("likes", "azrael")
+                .doesNotContainKey("hates");
+        assertThat(message.getProperty("likes")).isEqualTo("smurfs");
+    }
+
     @Test
     void send_should_send_event_with_given_type_name_and_properties() {
         // given
@@ -308,6 +325,20 @@ class TelemetryMessageBuilderTest {
                 .isEqualTo(error);
     }
 
+    @Test
+    void error_should_apply_redaction_rules_of_builder() {
+        // given
+        RedactionRules rules = RedactionRules.forPlugin("springfield")
+                .addLiteral("Homer", "<SAFETY_INSPECTOR>");
+        TelemetryMessageBuilder builder = new TelemetryMessageBuilder(telemetryServiceFacade, feedbackServiceFacade, rules);
+        ActionMessage message = builder.action("the simpsons");
+        // when
+        message.error("Homer caused nuclear plant emergency");
+        // then
+        assertThat(message.getError())
+                .isEqualTo("<SAFETY_INSPECTOR> caused nuclear plant emergency");
+    }
+
     @Test
     void error_should_NOT_NPE_for_given_null_exception() {
         // given
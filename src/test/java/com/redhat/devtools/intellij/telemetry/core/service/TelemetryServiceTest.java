@@ -18,18 +18,25 @@ import com.redhat.devtools.intellij.telemetry.ui.TelemetryNotifications;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.internal.verification.VerificationModeFactory;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.redhat.devtools.intellij.telemetry.core.service.Event.Type.USER;
 import static com.redhat.devtools.intellij.telemetry.core.service.Fakes.telemetryConfiguration;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class TelemetryServiceTest {
@@ -115,6 +122,45 @@ class TelemetryServiceTest {
         verify(broker, VerificationModeFactory.atLeast(3)).send(any(Event.class));
     }
 
+    @Test
+    void send_should_spool_events_if_is_NOT_configured() {
+        // given
+        TelemetryConfiguration configuration = telemetryConfiguration(false, false);
+        EventSpool spool = mock(EventSpool.class);
+        doReturn(true)
+                .when(spool).append(any());
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, TelemetryDispatcher.SYNCHRONOUS, new IdentifyCoordinator(), spool);
+        // when
+        service.send(event);
+        // then
+        verify(spool).append(event);
+        verify(broker, never()).send(any(Event.class));
+    }
+
+    @Test
+    void send_should_replay_spooled_events_once_it_gets_enabled() {
+        // given
+        EventSpool spool = mock(EventSpool.class);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, TelemetryDispatcher.SYNCHRONOUS, new IdentifyCoordinator(), spool);
+        // when
+        service.send(event);
+        // then
+        verify(spool, atLeastOnce()).replay(any());
+    }
+
+    @Test
+    void send_should_discard_spooled_events_if_is_disabled() {
+        // given
+        TelemetryConfiguration configuration = telemetryConfiguration(false, true);
+        EventSpool spool = mock(EventSpool.class);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, TelemetryDispatcher.SYNCHRONOUS, new IdentifyCoordinator(), spool);
+        // when
+        service.send(event);
+        // then
+        verify(spool).discard();
+        verify(spool, never()).append(any());
+    }
+
     @Test
     void send_should_send_userinfo() {
         // given
@@ -128,6 +174,41 @@ class TelemetryServiceTest {
         assertThat(allArguments.get(0).getType()).isEqualTo(USER);
     }
 
+    @Test
+    void send_should_NOT_send_userinfo_if_user_was_identified() {
+        // given
+        IdentifyCoordinator identity = new IdentifyCoordinator();
+        identity.identify("yoda");
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, TelemetryDispatcher.SYNCHRONOUS, identity, EventSpool.NONE);
+        ArgumentCaptor<Event> eventArgument = ArgumentCaptor.forClass(Event.class);
+        // when
+        service.send(event);
+        // then
+        verify(broker).send(eventArgument.capture());
+        assertThat(eventArgument.getValue()).isSameAs(event);
+    }
+
+    @Test
+    void send_should_NOT_send_userinfo_if_is_NOT_configured() {
+        // given
+        TelemetryConfiguration configuration = telemetryConfiguration(false, false);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications);
+        // when
+        service.send(event);
+        // then
+        verify(broker, never()).send(any(Event.class));
+        verify(limits, never()).canSend(argThat(event -> event.getType() == USER));
+    }
+
+    @Test
+    void send_should_NOT_notify_limits_that_userinfo_was_sent() {
+        // given
+        // when
+        service.send(event);
+        // then
+        verify(limits, never()).wasSent(argThat(event -> event.getType() == USER));
+    }
+
     @Test
     void send_should_query_user_consent_once() {
         // given
@@ -183,6 +264,71 @@ class TelemetryServiceTest {
         verify(broker, never()).send(event);
     }
 
+    @Test
+    void send_should_send_on_dispatcher_thread() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, dispatcher, new IdentifyCoordinator(), EventSpool.NONE);
+        AtomicReference<Thread> sentBy = new AtomicReference<>();
+        doAnswer(invocation -> {
+            sentBy.set(Thread.currentThread());
+            return null;
+        }).when(broker).send(event);
+        // when
+        service.send(event);
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // then
+        verify(broker).send(event);
+        assertThat(sentBy.get()).isNotEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void dispose_should_send_dispatched_events_before_disposing_broker() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, dispatcher, new IdentifyCoordinator(), EventSpool.NONE);
+        service.send(event);
+        // when
+        service.dispose();
+        // then
+        InOrder inOrder = inOrder(broker);
+        inOrder.verify(broker).send(event);
+        inOrder.verify(broker).dispose();
+    }
+
+    @Test
+    void dispose_should_spool_held_events_on_dispatcher_thread() {
+        // given
+        TelemetryConfiguration configuration = telemetryConfiguration(false, false);
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        EventSpool spool = mock(EventSpool.class);
+        AtomicReference<Thread> spooledBy = new AtomicReference<>();
+        doAnswer(invocation -> {
+            spooledBy.set(Thread.currentThread());
+            return false;
+        }).when(spool).append(any());
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, dispatcher, new IdentifyCoordinator(), spool);
+        service.send(event);
+        // when
+        service.dispose();
+        // then
+        verify(spool, times(2)).append(event);
+        assertThat(spooledBy.get()).isNotEqualTo(Thread.currentThread());
+    }
+
+    @Test
+    void send_should_NOT_dispatch_event_once_service_is_disposed() {
+        // given
+        TelemetryDispatcher dispatcher = new TelemetryDispatcher(10);
+        TelemetryService service = new TelemetryService(configuration, limits, broker, bus, notifications, dispatcher, new IdentifyCoordinator(), EventSpool.NONE);
+        service.dispose();
+        // when
+        service.send(event);
+        dispatcher.drain(5, TimeUnit.SECONDS);
+        // then
+        verify(broker, never()).send(any());
+    }
+
     private IEventLimits createEventLimits() {
         IEventLimits mock = mock(IEventLimits.class);
         doReturn(true)
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.intellij.util.messages.MessageBusConnection;
+import com.redhat.devtools.intellij.telemetry.core.configuration.TelemetryConfiguration;
+import com.redhat.devtools.intellij.telemetry.core.configuration.limits.IEventLimits;
+import com.redhat.devtools.intellij.telemetry.core.service.segment.AdaptiveBatching;
+import com.redhat.devtools.intellij.telemetry.core.service.segment.IdentifyTraitsPersistence;
+import com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker;
+import com.redhat.devtools.intellij.telemetry.ui.TelemetryNotifications;
+import com.redhat.devtools.intellij.telemetry.util.SegmentSink;
+import com.segment.analytics.Analytics;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Fakes.environment;
+import static com.redhat.devtools.intellij.telemetry.core.service.Fakes.segmentConfiguration;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Sends action messages through {@link TelemetryMessageBuilder} from several threads to a local
+ * {@link SegmentSink} and reports the throughput, the enqueue latency (time spent in {@code send()}) and
+ * the end-to-end latency (time until the sink received the message).
+ * The dispatcher queue holds all the events so that a run measures delivery rather than dropping.
+ * Accepted throughput counts the events that were queued while sending, delivered throughput the events
+ * that the sink received until the last one arrived.
+ */
+@Disabled("For manual testing purposes only")
+class TelemetryThroughputBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int EVENTS_PER_THREAD = 5_000;
+    private static final long DELIVERY_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+    private static final String WRITE_KEY = "benchmark";
+    private static final String PROP_SENT = "benchmark_sent";
+
+    @Test
+    void send_to_local_endpoint() throws Exception {
+        measure("local endpoint", sink -> {});
+    }
+
+    @Test
+    void send_to_slow_endpoint() throws Exception {
+        measure("endpoint with 100ms latency", sink -> sink.latency(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void send_to_failing_endpoint() throws Exception {
+        measure("endpoint failing 10% of requests", sink -> sink.failureRate(0.1));
+    }
+
+    private static void measure(String name, Consumer<SegmentSink> configure) throws Exception {
+        int total = THREADS * EVENTS_PER_THREAD;
+        long[] delivery = new long[total];
+        AtomicInteger delivered = new AtomicInteger();
+        AtomicLong lastDelivered = new AtomicLong();
+        try (SegmentSink sink = SegmentSink.start()) {
+            configure.accept(sink);
+            sink.listener(message -> {
+                long received = System.nanoTime();
+                // identify messages have no properties
+                JsonObject properties = message.getAsJsonObject("properties");
+                JsonElement sent = properties == null ? null : properties.get(PROP_SENT);
+                if (sent != null) {
+                    int index = delivered.getAndIncrement();
+                    if (index < total) {
+                        delivery[index] = received - sent.getAsLong();
+                    }
+                    lastDelivered.accumulateAndGet(received, Math::max);
+                }
+            });
+            Analytics analytics = createAnalytics(sink);
+            SegmentBroker broker = createBroker(analytics);
+            // room for all the events, the identify message and the hand-over on dispose
+            TelemetryDispatcher dispatcher = new TelemetryDispatcher(total + THREADS);
+            TelemetryMessageBuilder builder = createBuilder(broker, dispatcher);
+
+            long start = System.nanoTime();
+            long[] enqueue = send(builder);
+            long elapsed = System.nanoTime() - start;
+
+            long expected = total - dispatcher.getDropped();
+            awaitDelivery(delivered, expected);
+            AdaptiveBatching batching = broker.getBatching();
+            broker.dispose();
+
+            long accepted = total - dispatcher.getDropped();
+            long deliveredElapsed = lastDelivered.get() - start;
+            System.out.printf("%s: %d threads, %d events, %d dropped by dispatcher%n",
+                    name, THREADS, total, dispatcher.getDropped());
+            System.out.printf("  throughput: %.0f events/s accepted, %.0f events/s delivered%n",
+                    accepted / (elapsed / 1e9),
+                    deliveredElapsed <= 0 ? 0 : Math.min(total, delivered.get()) / (deliveredElapsed / 1e9));
+            System.out.printf("  enqueue latency: p50 %.1f us, p99 %.1f us%n",
+                    percentile(0.5, enqueue) / 1e3, percentile(0.99, enqueue) / 1e3);
+            long[] deliveries = Arrays.copyOf(delivery, Math.min(total, delivered.get()));
+            System.out.printf("  end-to-end latency: p50 %.1f ms, p99 %.1f ms (%d of %d delivered)%n",
+                    percentile(0.5, deliveries) / 1e6, percentile(0.99, deliveries) / 1e6, deliveries.length, expected);
+            System.out.printf("  batches: %d received, %d failed, average size %.1f, largest %d%n",
+                    sink.getBatches(), sink.getFailures(), batching.getAverageBatchSize(), batching.getLargestBatchSize());
+        }
+    }
+
+    private static long[] send(TelemetryMessageBuilder builder) throws Exception {
+        long[] latencies = new long[THREADS * EVENTS_PER_THREAD];
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> senders = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int offset = i * EVENTS_PER_THREAD;
+                senders.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < EVENTS_PER_THREAD; j++) {
+                        long sent = System.nanoTime();
+                        builder.action("benchmark")
+                                .property(PROP_SENT, Long.toString(sent))
+                                .property("jedi", "yoda")
+                                .success()
+                                .send();
+                        latencies[offset + j] = System.nanoTime() - sent;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> sender : senders) {
+                sender.get(DELIVERY_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return latencies;
+    }
+
+    private static void awaitDelivery(AtomicInteger delivered, long expected) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + DELIVERY_TIMEOUT;
+        while (delivered.get() < expected
+                && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static double percentile(double percentile, long[] values) {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static Analytics createAnalytics(SegmentSink sink) {
+        AdaptiveBatching.Bounds bounds = AdaptiveBatching.Bounds.DEFAULT;
+        // same limits as the client that SegmentBroker creates
+        return Analytics.builder(WRITE_KEY)
+                .endpoint(sink.getEndpoint())
+                .flushQueueSize(bounds.getMaxBatchSize())
+                .maximumQueueSizeInBytes(bounds.getMaxBatchBytes())
+                .flushInterval(2 * bounds.getMaxFlushInterval(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private static SegmentBroker createBroker(Analytics analytics) {
+        Environment environment = environment(
+                "Telemetry by Red Hat",
+                "1.0.0",
+                TelemetryThroughputBenchmark.class.getSimpleName(),
+                "1.0.0",
+                "smurfOS",
+                "red hats",
+                "0.1.0",
+                "de_CH",
+                "Europe/Bern",
+                "Switzerland");
+        return new SegmentBroker(
+                false,
+                "42",
+                mock(IdentifyTraitsPersistence.class),
+                environment,
+                segmentConfiguration(WRITE_KEY, WRITE_KEY),
+                key -> analytics) {};
+    }
+
+    private static TelemetryMessageBuilder createBuilder(SegmentBroker broker, TelemetryDispatcher dispatcher) {
+        // stub only, invocations would be recorded for each event otherwise
+        TelemetryConfiguration configuration = mock(TelemetryConfiguration.class, withSettings().stubOnly());
+        doReturn(true).when(configuration).isEnabled();
+        doReturn(true).when(configuration).isConfigured();
+        IEventLimits limits = new IEventLimits() {
+            @Override
+            public boolean canSend(Event event) {
+                return true;
+            }
+
+            @Override
+            public void wasSent(Event event) {
+            }
+        };
+        TelemetryService service = new TelemetryService(
+                configuration,
+                limits,
+                broker,
+                mock(MessageBusConnection.class),
+                mock(TelemetryNotifications.class),
+                dispatcher,
+                new IdentifyCoordinator(),
+                EventSpool.NONE);
+        return new TelemetryMessageBuilder(service, service);
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.core.service.segment.AdaptiveBatching.Bounds;
+import com.redhat.devtools.intellij.telemetry.core.service.segment.AdaptiveBatching.FlushCause;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AdaptiveBatchingTest {
+
+    private static final Bounds BOUNDS = new Bounds(5, 50, 10_000, 1_000, 10_000);
+    private static final Runnable ENQUEUE = () -> {};
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger flushes = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+    private AdaptiveBatching batching;
+
+    @BeforeEach
+    void before() {
+        this.scheduler = mock(ScheduledExecutorService.class);
+        this.batching = new AdaptiveBatching(BOUNDS, flushes::incrementAndGet, scheduler, now::get);
+    }
+
+    @Test
+    void enqueue_should_flush_once_min_batch_size_is_reached_if_events_are_rare() {
+        // given
+        // when
+        for (int i = 0; i < BOUNDS.getMinBatchSize(); i++) {
+            now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+            batching.enqueue(100, ENQUEUE);
+        }
+        // then
+        assertThat(flushes.get()).isEqualTo(1);
+        assertThat(batching.getFlushes(FlushCause.SIZE)).isEqualTo(1);
+        assertThat(batching.getLargestBatchSize()).isEqualTo(BOUNDS.getMinBatchSize());
+    }
+
+    @Test
+    void getBatchSize_should_grow_with_event_rate_up_to_max_batch_size() {
+        // given
+        int quiet = batching.getBatchSize();
+        // when
+        for (int i = 0; i < 1000; i++) {
+            now.incrementAndGet();
+            batching.enqueue(1, ENQUEUE);
+        }
+        // then
+        assertThat(quiet).isEqualTo(BOUNDS.getMinBatchSize());
+        assertThat(batching.getBatchSize()).isEqualTo(BOUNDS.getMaxBatchSize());
+        assertThat(batching.getLargestBatchSize()).isLessThanOrEqualTo(BOUNDS.getMaxBatchSize());
+        assertThat(batching.getAverageBatchSize()).isGreaterThan(BOUNDS.getMinBatchSize());
+    }
+
+    @Test
+    void enqueue_should_flush_before_batch_exceeds_max_bytes() {
+        // given
+        batching.enqueue(6_000, ENQUEUE);
+        AtomicInteger flushesOnEnqueue = new AtomicInteger(-1);
+        // when
+        batching.enqueue(6_000, () -> flushesOnEnqueue.set(flushes.get()));
+        // then
+        assertThat(flushesOnEnqueue.get()).isEqualTo(1);
+        assertThat(batching.getFlushes(FlushCause.BYTES)).isEqualTo(1);
+        assertThat(batching.getPending()).isEqualTo(1);
+    }
+
+    @Test
+    void enqueue_should_schedule_flush_after_min_interval_if_events_are_rare() {
+        // given
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        // when
+        batching.enqueue(100, ENQUEUE);
+        // then
+        verify(scheduler).schedule(flush.capture(), eq(BOUNDS.getMinFlushInterval()), eq(TimeUnit.MILLISECONDS));
+        flush.getValue().run();
+        assertThat(batching.getFlushes(FlushCause.INTERVAL)).isEqualTo(1);
+        assertThat(batching.getPending()).isZero();
+    }
+
+    @Test
+    void enqueue_should_schedule_flush_after_max_interval_if_events_are_frequent() {
+        // given
+        for (int i = 0; i < 100; i++) {
+            now.addAndGet(10);
+            batching.enqueue(1, ENQUEUE);
+        }
+        batching.flush(FlushCause.SHUTDOWN);
+        clearInvocations(scheduler);
+        // when
+        batching.enqueue(1, ENQUEUE);
+        // then
+        verify(scheduler).schedule(any(Runnable.class), eq(BOUNDS.getMaxFlushInterval()), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void scheduled_flush_should_NOT_flush_later_batch() {
+        // given
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        batching.enqueue(100, ENQUEUE);
+        verify(scheduler).schedule(flush.capture(), anyLong(), any(TimeUnit.class));
+        batching.flush(FlushCause.SHUTDOWN);
+        batching.enqueue(100, ENQUEUE);
+        int before = flushes.get();
+        // when
+        flush.getAllValues().get(0).run();
+        // then
+        assertThat(flushes.get()).isEqualTo(before);
+        assertThat(batching.getFlushes(FlushCause.INTERVAL)).isZero();
+    }
+
+    @Test
+    void bounds_should_replace_invalid_values_with_defaults() {
+        // given
+        // when
+        Bounds bounds = new Bounds(0, -1, 0, -1, 0);
+        // then
+        assertThat(bounds.getMinBatchSize()).isEqualTo(Bounds.DEFAULT_MIN_BATCH_SIZE);
+        assertThat(bounds.getMaxBatchSize()).isEqualTo(Bounds.DEFAULT_MAX_BATCH_SIZE);
+        assertThat(bounds.getMaxBatchBytes()).isEqualTo(Bounds.DEFAULT_MAX_BATCH_BYTES);
+        assertThat(bounds.getMinFlushInterval()).isEqualTo(Bounds.DEFAULT_MIN_FLUSH_INTERVAL);
+        assertThat(bounds.getMaxFlushInterval()).isEqualTo(Bounds.DEFAULT_MAX_FLUSH_INTERVAL);
+    }
+
+    @Test
+    void bounds_should_NOT_have_max_below_min() {
+        // given
+        // when
+        Bounds bounds = new Bounds(20, 10, 1000, 5000, 1000);
+        // then
+        assertThat(bounds.getMaxBatchSize()).isEqualTo(20);
+        assertThat(bounds.getMaxFlushInterval()).isEqualTo(5000);
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.segment.analytics.Analytics;
+import com.segment.analytics.Callback;
+import com.segment.analytics.messages.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsPoolTest {
+
+    private final AnalyticsPool pool = new AnalyticsPool();
+
+    @Test
+    void acquire_should_return_same_client_for_same_write_key() {
+        // given
+        Function<String, Analytics> factory = factory();
+        // when
+        AnalyticsPool.Client client1 = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        AnalyticsPool.Client client2 = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        assertThat(client1).isSameAs(client2);
+        assertThat(client1.getBatching()).isSameAs(client2.getBatching());
+        verify(factory, times(1)).apply("jedi");
+    }
+
+    @Test
+    void acquire_should_return_different_clients_for_different_write_keys() {
+        // given
+        Function<String, Analytics> factory = factory();
+        // when
+        AnalyticsPool.Client jedi = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        AnalyticsPool.Client sith = pool.acquire("sith", factory, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        assertThat(jedi).isNotSameAs(sith);
+        assertThat(pool.size()).isEqualTo(2);
+    }
+
+    @Test
+    void acquire_should_return_null_if_factory_returns_null() {
+        // given
+        Function<String, Analytics> factory = key -> null;
+        // when
+        AnalyticsPool.Client client = pool.acquire(null, factory, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        assertThat(client).isNull();
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    void release_should_flush_but_NOT_shutdown_if_client_is_still_referenced() {
+        // given
+        Function<String, Analytics> factory = factory();
+        AnalyticsPool.Client client = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        // when
+        pool.release(client);
+        // then
+        verify(client.getAnalytics()).flush();
+        verify(client.getAnalytics(), never()).shutdown();
+        assertThat(pool.size()).isEqualTo(1);
+    }
+
+    @Test
+    void release_should_shutdown_client_once_last_reference_is_released() {
+        // given
+        Function<String, Analytics> factory = factory();
+        AnalyticsPool.Client client = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        pool.release(client);
+        // when
+        pool.release(client);
+        // then
+        verify(client.getAnalytics()).shutdown();
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    void release_should_shutdown_scheduler_once_last_client_is_shut_down() {
+        // given
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        AnalyticsPool pool = new AnalyticsPool(key -> SegmentOutbox.NONE, () -> scheduler);
+        Function<String, Analytics> factory = factory();
+        AnalyticsPool.Client jedi = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        AnalyticsPool.Client sith = pool.acquire("sith", factory, AdaptiveBatching.Bounds.DEFAULT);
+        pool.release(jedi);
+        verify(scheduler, never()).shutdownNow();
+        // when
+        pool.release(sith);
+        // then
+        verify(scheduler).shutdownNow();
+        assertThat(pool.hasScheduler()).isFalse();
+    }
+
+    @Test
+    void acquire_should_create_new_scheduler_after_previous_was_shut_down() {
+        // given
+        Supplier<ScheduledExecutorService> schedulers = mock(Supplier.class);
+        when(schedulers.get()).thenAnswer(invocation -> mock(ScheduledExecutorService.class));
+        AnalyticsPool pool = new AnalyticsPool(key -> SegmentOutbox.NONE, schedulers);
+        Function<String, Analytics> factory = factory();
+        pool.release(pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT));
+        // when
+        pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        verify(schedulers, times(2)).get();
+        assertThat(pool.hasScheduler()).isTrue();
+    }
+
+    @Test
+    void acquire_should_create_new_client_after_previous_was_shut_down() {
+        // given
+        Function<String, Analytics> factory = factory();
+        AnalyticsPool.Client client = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        pool.release(client);
+        // when
+        AnalyticsPool.Client newClient = pool.acquire("jedi", factory, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        assertThat(newClient).isNotSameAs(client);
+        verify(factory, times(2)).apply("jedi");
+    }
+
+    @Test
+    void acquire_should_create_client_with_outbox_delivery_as_callback() {
+        // given
+        AtomicReference<Callback> callback = new AtomicReference<>();
+        // when
+        AnalyticsPool.Client client = pool.acquire("jedi", (key, delivery) -> {
+            callback.set(delivery);
+            return mock(Analytics.class);
+        }, AdaptiveBatching.Bounds.DEFAULT);
+        // then
+        assertThat(callback.get()).isSameAs(client.getDelivery());
+    }
+
+    @Test
+    void release_should_close_outbox_delivery_once_last_reference_is_released() {
+        // given
+        SegmentOutbox outbox = mock(SegmentOutbox.class);
+        when(outbox.isEmpty()).thenReturn(false);
+        AnalyticsPool pool = new AnalyticsPool(key -> outbox);
+        AnalyticsPool.Client client = pool.acquire("jedi", factory(), AdaptiveBatching.Bounds.DEFAULT);
+        // when
+        pool.release(client);
+        client.getDelivery().success(mock(Message.class));
+        // then
+        assertThat(client.getDelivery().isReplaying()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<String, Analytics> factory() {
+        Function<String, Analytics> factory = mock(Function.class);
+        when(factory.apply(any())).thenAnswer(invocation -> mock(Analytics.class));
+        return factory;
+    }
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.util.SegmentSink;
+import com.segment.analytics.Analytics;
+import com.segment.analytics.messages.Message;
+import com.segment.analytics.messages.TrackMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OutboxDeliveryTest {
+
+    private static final int REPLAY_RATE = 2;
+
+    @TempDir
+    Path directory;
+
+    private SegmentOutbox outbox;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> replay;
+    private Analytics analytics;
+    private OutboxDelivery delivery;
+
+    @BeforeEach
+    void before() {
+        this.outbox = new SegmentOutbox(directory, 4096, 4096 * 4);
+        this.scheduler = mock(ScheduledExecutorService.class);
+        this.replay = mock(ScheduledFuture.class);
+        doReturn(replay).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+        this.analytics = mock(Analytics.class);
+        doReturn(true).when(analytics).offer(any());
+        this.delivery = new OutboxDelivery(outbox, scheduler, REPLAY_RATE);
+        delivery.connect(analytics);
+    }
+
+    @Test
+    void failure_should_append_message_to_outbox() {
+        // given
+        // when
+        delivery.failure(track("1"), new IOException("3 retries exhausted"));
+        // then
+        assertThat(outbox.size()).isEqualTo(1);
+    }
+
+    @Test
+    void success_should_NOT_start_replay_if_outbox_is_empty() {
+        // given
+        // when
+        delivery.success(track("1"));
+        // then
+        assertThat(delivery.isReplaying()).isFalse();
+        verify(scheduler, never()).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void success_should_NOT_check_outbox_again_once_it_was_found_empty() {
+        // given
+        SegmentOutbox outbox = mock(SegmentOutbox.class);
+        doReturn(true).when(outbox).isEmpty();
+        OutboxDelivery delivery = new OutboxDelivery(outbox, scheduler, REPLAY_RATE);
+        delivery.connect(analytics);
+        // when
+        delivery.success(track("1"));
+        delivery.success(track("2"));
+        delivery.success(track("3"));
+        // then
+        verify(outbox, times(1)).isEmpty();
+    }
+
+    @Test
+    void success_should_check_outbox_again_once_message_was_appended() {
+        // given
+        SegmentOutbox outbox = mock(SegmentOutbox.class);
+        doReturn(true).when(outbox).isEmpty();
+        OutboxDelivery delivery = new OutboxDelivery(outbox, scheduler, REPLAY_RATE);
+        delivery.connect(analytics);
+        delivery.success(track("1"));
+        delivery.failure(track("2"), new IOException());
+        doReturn(false).when(outbox).isEmpty();
+        // when
+        delivery.success(track("3"));
+        // then
+        verify(outbox, times(2)).isEmpty();
+        assertThat(delivery.isReplaying()).isTrue();
+    }
+
+    @Test
+    void success_should_start_replay_once_if_outbox_has_messages() {
+        // given
+        delivery.failure(track("1"), new IOException());
+        // when
+        delivery.success(track("2"));
+        delivery.success(track("3"));
+        // then
+        assertThat(delivery.isReplaying()).isTrue();
+        verify(scheduler, times(1)).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void replay_should_offer_at_most_replay_rate_messages_and_flush() {
+        // given
+        delivery.failure(track("1"), new IOException());
+        delivery.failure(track("2"), new IOException());
+        delivery.failure(track("3"), new IOException());
+        delivery.success(track("4"));
+        // when
+        delivery.replay();
+        // then
+        verify(analytics, times(REPLAY_RATE)).offer(any());
+        verify(analytics).flush();
+        assertThat(outbox.size()).isEqualTo(1);
+        assertThat(delivery.isReplaying()).isTrue();
+    }
+
+    @Test
+    void replay_should_stop_once_outbox_is_empty() {
+        // given
+        delivery.failure(track("1"), new IOException());
+        delivery.success(track("2"));
+        // when
+        delivery.replay();
+        // then
+        assertThat(outbox.isEmpty()).isTrue();
+        assertThat(delivery.isReplaying()).isFalse();
+        verify(replay).cancel(false);
+    }
+
+    @Test
+    void replay_should_keep_message_that_client_did_NOT_accept() {
+        // given
+        doReturn(false).when(analytics).offer(any());
+        delivery.failure(track("1"), new IOException());
+        delivery.success(track("2"));
+        // when
+        delivery.replay();
+        // then
+        assertThat(outbox.size()).isEqualTo(1);
+        verify(analytics, never()).flush();
+    }
+
+    @Test
+    void failure_should_stop_replay() {
+        // given
+        delivery.failure(track("1"), new IOException());
+        delivery.success(track("2"));
+        // when
+        delivery.failure(track("3"), new IOException());
+        // then
+        assertThat(delivery.isReplaying()).isFalse();
+        assertThat(outbox.size()).isEqualTo(2);
+    }
+
+    @Test
+    void failure_should_drop_replayed_message_after_max_attempts() {
+        // given
+        Message message = track("1");
+        delivery.failure(message, new IOException());
+        for (int attempt = 2; attempt < OutboxDelivery.MAX_ATTEMPTS; attempt++) {
+            delivery.success(track("2"));
+            delivery.replay();
+            delivery.failure(message, new IOException());
+        }
+        delivery.success(track("2"));
+        delivery.replay();
+        // when
+        delivery.failure(message, new IOException());
+        // then
+        assertThat(outbox.isEmpty()).isTrue();
+        verify(analytics, times(OutboxDelivery.MAX_ATTEMPTS - 1)).offer(any());
+    }
+
+    @Test
+    void failure_should_append_replayed_message_with_its_attempts() {
+        // given
+        Message message = track("1");
+        delivery.failure(message, new IOException());
+        delivery.success(track("2"));
+        delivery.replay();
+        // when
+        delivery.failure(message, new IOException());
+        // then
+        int[] attempts = { 0 };
+        outbox.replay(Integer.MAX_VALUE, entry -> {
+            attempts[0] = entry.getAttempts();
+            return true;
+        });
+        assertThat(attempts[0]).isEqualTo(2);
+    }
+
+    @Test
+    void close_should_stop_replay_and_NOT_restart_it() {
+        // given
+        delivery.failure(track("1"), new IOException());
+        delivery.success(track("2"));
+        // when
+        delivery.close();
+        delivery.success(track("3"));
+        // then
+        assertThat(delivery.isReplaying()).isFalse();
+        verify(scheduler, times(1)).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void close_should_still_append_failed_messages() {
+        // given
+        delivery.close();
+        // when
+        delivery.failure(track("1"), new IOException());
+        // then
+        assertThat(outbox.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_deliver_messages_that_failed_once_endpoint_is_reachable_again() throws Exception {
+        // given
+        ScheduledExecutorService scheduler = AdaptiveBatching.Scheduler.create();
+        try (SegmentSink sink = SegmentSink.start()) {
+            OutboxDelivery delivery = new OutboxDelivery(outbox, scheduler);
+            Analytics analytics = Analytics.builder("jedi")
+                    .endpoint(sink.getEndpoint())
+                    .retries(1)
+                    .callback(delivery)
+                    .build();
+            delivery.connect(analytics);
+            try {
+                // client errors aren't retried, failure is reported right away
+                sink.failureRate(1).failureStatus(400);
+                analytics.enqueue(TrackMessage.builder("lightsaber").userId("luke"));
+                analytics.flush();
+                assertThat(await(() -> outbox.size() == 1)).isTrue();
+                // when
+                sink.failureRate(0);
+                analytics.enqueue(TrackMessage.builder("force push").userId("luke"));
+                analytics.flush();
+                // then
+                assertThat(await(() -> sink.getMessages() == 2)).isTrue();
+                assertThat(outbox.isEmpty()).isTrue();
+            } finally {
+                delivery.close();
+                analytics.shutdown();
+            }
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static Message track(String messageId) {
+        return TrackMessage.builder("lightsaber")
+                .messageId(messageId)
+                .userId("luke")
+                .build();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -13,6 +13,7 @@ package com.redhat.devtools.intellij.telemetry.core.service.segment;
 import com.redhat.devtools.intellij.telemetry.core.service.IMessageBroker;
 import com.redhat.devtools.intellij.telemetry.core.service.Environment;
 import com.redhat.devtools.intellij.telemetry.core.service.Event;
+import com.redhat.devtools.intellij.telemetry.core.service.IdentifyCoordinator;
 import com.segment.analytics.Analytics;
 import com.segment.analytics.messages.IdentifyMessage;
 import com.segment.analytics.messages.Message;
@@ -45,12 +46,14 @@ import static com.redhat.devtools.intellij.telemetry.core.service.segment.Segmen
 import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_TIMEZONE;
 import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_VERSION;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class SegmentBrokerTest {
@@ -192,6 +195,49 @@ class SegmentBrokerTest {
         assertThat(osProperties.get(PROP_VERSION)).isEqualTo(PLATFORM_VERSION);
     }
 
+    @Test
+    void send_should_reuse_context_for_subsequent_events() {
+        // given
+        ArgumentCaptor<MessageBuilder<?,?>> builder = ArgumentCaptor.forClass(MessageBuilder.class);
+        broker.send(actionEvent);
+        SegmentContext context = broker.getContext();
+        // when
+        broker.send(startupEvent);
+        // then
+        assertThat(broker.getContext()).isSameAs(context);
+        verify(analytics, times(2)).enqueue(builder.capture());
+        assertThat(builder.getAllValues().get(1).build().context().get(PROP_APP))
+                .isSameAs(context.get().get(PROP_APP));
+    }
+
+    @Test
+    void send_should_rebuild_context_if_ide_properties_changed() {
+        // given
+        ArgumentCaptor<MessageBuilder<?,?>> builder = ArgumentCaptor.forClass(MessageBuilder.class);
+        broker.send(actionEvent);
+        SegmentContext context = broker.getContext();
+        environment.getIde().property("lightsaber", "blue");
+        // when
+        broker.send(startupEvent);
+        // then
+        assertThat(broker.getContext()).isNotSameAs(context);
+        verify(analytics, times(2)).enqueue(builder.capture());
+        Map<String, String> appProperties = (Map<String, String>) builder.getAllValues().get(1).build().context().get(PROP_APP);
+        assertThat(appProperties).containsEntry("lightsaber", "blue");
+    }
+
+    @Test
+    void getContext_should_return_unmodifiable_maps() {
+        // given
+        // when
+        Map<String, Object> context = broker.getContext().get();
+        // then
+        assertThatThrownBy(() -> context.put(PROP_LOCALE, "fr_CH"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) context.get(PROP_OS)).put(PROP_NAME, "jediOS"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
     @Test
     void send_should_enqueue_track_message_for_startup_event() {
         // given
@@ -251,6 +297,32 @@ class SegmentBrokerTest {
         verify(analytics).enqueue(isA(IdentifyMessage.Builder.class));
     }
 
+    @Test
+    void send_should_enqueue_identify_message_only_once_per_session() {
+        // given
+        IdentifyCoordinator identity = new IdentifyCoordinator();
+        SegmentBroker broker = new SegmentBroker(false, USER_ID, identifyTraitsPersistence, identity, environment, configuration, key -> analytics);
+        broker.send(userEvent);
+        // when
+        broker.send(userEvent);
+        // then
+        verify(analytics, times(1)).enqueue(isA(IdentifyMessage.Builder.class));
+        assertThat(identity.isIdentified()).isTrue();
+    }
+
+    @Test
+    void send_should_NOT_enqueue_identify_message_if_other_broker_identified_with_same_traits() {
+        // given
+        IdentifyCoordinator identity = new IdentifyCoordinator();
+        new SegmentBroker(false, USER_ID, identifyTraitsPersistence, identity, environment, configuration, key -> mock(Analytics.class))
+                .send(userEvent);
+        SegmentBroker broker = new SegmentBroker(false, USER_ID, identifyTraitsPersistence, identity, environment, configuration, key -> analytics);
+        // when
+        broker.send(userEvent);
+        // then
+        verify(analytics, never()).enqueue(isA(IdentifyMessage.Builder.class));
+    }
+
     @Test
     void send_should_enqueue_identify_message_with_traits() {
         // given
@@ -334,6 +406,20 @@ class SegmentBrokerTest {
         assertThat(traits.get("sith")).isEqualTo("darth sidious");
     }
 
+    @Test
+    void send_should_enqueue_track_message_with_event_properties_overriding_app_properties() {
+        // given
+        ArgumentCaptor<TrackMessage.Builder> builder = ArgumentCaptor.forClass(TrackMessage.Builder.class);
+        actionEvent.getProperties().put(PROP_EXTENSION_NAME, "Jedi Tools");
+        // when
+        broker.send(actionEvent);
+        // then
+        verify(analytics).enqueue(builder.capture());
+        Map<String, ?> properties = builder.getValue().build().properties();
+        assertThat(properties.get(PROP_EXTENSION_NAME)).isEqualTo("Jedi Tools");
+        assertThat(properties.get(PROP_APP_NAME)).isEqualTo(APPLICATION_NAME);
+    }
+
 
     @Test
     void send_should_NOT_add_NULL_properties_to_track_message() {
@@ -372,6 +458,7 @@ class SegmentBrokerTest {
     @Test
     void dispose_should_flush_and_shutdown_analytics() {
         // given
+        broker.send(actionEvent);
         // when
         broker.dispose();
         // then
@@ -379,6 +466,55 @@ class SegmentBrokerTest {
         verify(analytics).shutdown();
     }
 
+    @Test
+    void dispose_should_count_shutdown_flush_of_pending_events() {
+        // given
+        broker.send(actionEvent);
+        AdaptiveBatching batching = broker.getBatching();
+        // when
+        broker.dispose();
+        // then
+        assertThat(batching.getFlushes(AdaptiveBatching.FlushCause.SHUTDOWN)).isEqualTo(1);
+        assertThat(batching.getLargestBatchSize()).isEqualTo(1);
+    }
+
+    @Test
+    void dispose_should_NOT_create_analytics_if_nothing_was_sent() {
+        // given
+        Function<String, Analytics> analyticsFactory = mock(Function.class);
+        SegmentBroker broker = new SegmentBroker(false, USER_ID, identifyTraitsPersistence, environment, configuration, analyticsFactory);
+        // when
+        broker.dispose();
+        // then
+        verify(analyticsFactory, never()).apply(any());
+    }
+
+    @Test
+    void dispose_should_shutdown_shared_analytics_only_once_last_broker_is_disposed() {
+        // given
+        AnalyticsPool pool = new AnalyticsPool();
+        Function<String, Analytics> analyticsFactory = spy(new Function<String, Analytics>() {
+            @Override
+            public Analytics apply(String key) {
+                return analytics;
+            }
+        });
+        SegmentBroker broker1 = new SegmentBroker(false, USER_ID, identifyTraitsPersistence, new IdentifyCoordinator(), environment, configuration, analyticsFactory, pool);
+        SegmentBroker broker2 = new SegmentBroker(false, USER_ID, identifyTraitsPersistence, new IdentifyCoordinator(), environment, configuration, analyticsFactory, pool);
+        broker1.send(actionEvent);
+        broker2.send(actionEvent);
+        // when
+        broker1.dispose();
+        // then
+        verify(analyticsFactory, times(1)).apply(NORMAL_WRITE_KEY);
+        assertThat(broker1.getBatching()).isNull();
+        assertThat(broker2.getBatching()).isNotNull();
+        verify(analytics, never()).shutdown();
+        broker2.dispose();
+        verify(analytics).shutdown();
+        assertThat(pool.size()).isZero();
+    }
+
     private void assertContext(String appName, String appVersion, String osName, String osVersion, Map<String, ?> context) {
         Map<String, ?> appProperties = (Map<String, ?>) context.get(PROP_APP);
         assertThat(appProperties.get(PROP_NAME)).isEqualTo(appName);
@@ -55,4 +55,32 @@ class SegmentConfigurationTest {
         assertThat(writeKey).isEqualTo(syspropWriteKey);
     }
 
+    @Test
+    void getBatchingBounds_should_return_configured_values() {
+        // given
+        config.put(SegmentConfiguration.KEY_BATCH_MIN_SIZE, "20");
+        config.put(SegmentConfiguration.KEY_BATCH_MAX_SIZE, "200");
+        config.put(SegmentConfiguration.KEY_BATCH_MAX_BYTES, "100000");
+        config.put(SegmentConfiguration.KEY_BATCH_MIN_INTERVAL, "500");
+        config.put(SegmentConfiguration.KEY_BATCH_MAX_INTERVAL, "30000");
+        // when
+        AdaptiveBatching.Bounds bounds = config.getBatchingBounds();
+        // then
+        assertThat(bounds.getMinBatchSize()).isEqualTo(20);
+        assertThat(bounds.getMaxBatchSize()).isEqualTo(200);
+        assertThat(bounds.getMaxBatchBytes()).isEqualTo(100000);
+        assertThat(bounds.getMinFlushInterval()).isEqualTo(500);
+        assertThat(bounds.getMaxFlushInterval()).isEqualTo(30000);
+    }
+
+    @Test
+    void getBatchingBounds_should_return_defaults_for_missing_or_invalid_values() {
+        // given
+        config.put(SegmentConfiguration.KEY_BATCH_MIN_SIZE, "many");
+        // when
+        AdaptiveBatching.Bounds bounds = config.getBatchingBounds();
+        // then
+        assertThat(bounds.getMinBatchSize()).isEqualTo(AdaptiveBatching.Bounds.DEFAULT_MIN_BATCH_SIZE);
+        assertThat(bounds.getMaxBatchSize()).isEqualTo(AdaptiveBatching.Bounds.DEFAULT_MAX_BATCH_SIZE);
+    }
 }
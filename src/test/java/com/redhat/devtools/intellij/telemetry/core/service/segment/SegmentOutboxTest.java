@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.segment.analytics.messages.IdentifyMessage;
+import com.segment.analytics.messages.Message;
+import com.segment.analytics.messages.PageMessage;
+import com.segment.analytics.messages.TrackMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentOutboxTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void isEmpty_should_return_true_and_NOT_create_directory_if_nothing_was_appended() {
+        // given
+        Path outboxDirectory = directory.resolve("outbox");
+        SegmentOutbox outbox = new SegmentOutbox(outboxDirectory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // when
+        boolean empty = outbox.isEmpty();
+        // then
+        assertThat(empty).isTrue();
+        assertThat(Files.exists(outboxDirectory)).isFalse();
+    }
+
+    @Test
+    void append_should_add_message() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // when
+        boolean appended = outbox.append(track("1"), 1);
+        // then
+        assertThat(appended).isTrue();
+        assertThat(outbox.size()).isEqualTo(1);
+    }
+
+    @Test
+    void append_should_NOT_add_message_that_is_larger_than_a_segment() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, 64, SEGMENT_BYTES);
+        // when
+        boolean appended = outbox.append(track("1"), 1);
+        // then
+        assertThat(appended).isFalse();
+        assertThat(outbox.isEmpty()).isTrue();
+    }
+
+    @Test
+    void replay_should_hand_messages_in_order_to_consumer() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        Date timestamp = new Date(1691474888000L);
+        outbox.append(TrackMessage.builder("lightsaber")
+                .messageId("1")
+                .userId("luke")
+                .timestamp(timestamp)
+                .properties(Map.of("color", "blue"))
+                .context(Map.of("app", Map.of("name", "IntelliJ")))
+                .build(), 1);
+        outbox.append(IdentifyMessage.builder()
+                .messageId("2")
+                .userId("luke")
+                .traits(Map.of("locale", "de_CH"))
+                .build(), 2);
+        outbox.append(PageMessage.builder("dagobah")
+                .messageId("3")
+                .anonymousId("yoda")
+                .properties(Map.of("swamp", "true"))
+                .build(), 1);
+        List<SegmentOutbox.Entry> entries = new ArrayList<>();
+        // when
+        int replayed = outbox.replay(Integer.MAX_VALUE, entries::add);
+        // then
+        assertThat(replayed).isEqualTo(3);
+        assertThat(outbox.isEmpty()).isTrue();
+        TrackMessage track = (TrackMessage) entries.get(0).getBuilder().build();
+        assertThat(track.event()).isEqualTo("lightsaber");
+        assertThat(track.messageId()).isEqualTo("1");
+        assertThat(track.userId()).isEqualTo("luke");
+        assertThat(track.timestamp()).isEqualTo(timestamp);
+        assertThat(track.properties().get("color")).isEqualTo("blue");
+        assertThat(track.context().get("app")).isEqualTo(Map.of("name", "IntelliJ"));
+        assertThat(entries.get(0).getAttempts()).isEqualTo(1);
+        IdentifyMessage identify = (IdentifyMessage) entries.get(1).getBuilder().build();
+        assertThat(identify.traits().get("locale")).isEqualTo("de_CH");
+        assertThat(entries.get(1).getMessageId()).isEqualTo("2");
+        assertThat(entries.get(1).getAttempts()).isEqualTo(2);
+        PageMessage page = (PageMessage) entries.get(2).getBuilder().build();
+        assertThat(page.name()).isEqualTo("dagobah");
+        assertThat(page.anonymousId()).isEqualTo("yoda");
+    }
+
+    @Test
+    void replay_should_replay_at_most_given_number_of_messages() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        outbox.append(track("3"), 1);
+        List<String> ids = new ArrayList<>();
+        // when
+        int replayed = outbox.replay(2, entry -> ids.add(entry.getMessageId()));
+        // then
+        assertThat(replayed).isEqualTo(2);
+        assertThat(ids).containsExactly("1", "2");
+        assertThat(outbox.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replay_should_keep_message_that_consumer_rejected() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        // when
+        int replayed = outbox.replay(Integer.MAX_VALUE, entry -> false);
+        // then
+        assertThat(replayed).isZero();
+        assertThat(outbox.size()).isEqualTo(2);
+    }
+
+    @Test
+    void replay_should_drop_message_that_consumer_could_not_handle() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        List<String> ids = new ArrayList<>();
+        // when
+        int replayed = outbox.replay(Integer.MAX_VALUE, entry -> {
+            if ("1".equals(entry.getMessageId())) {
+                throw new IllegalStateException("missing user id");
+            }
+            return ids.add(entry.getMessageId());
+        });
+        // then
+        assertThat(replayed).isEqualTo(1);
+        assertThat(ids).containsExactly("2");
+        assertThat(outbox.isEmpty()).isTrue();
+    }
+
+    @Test
+    void replay_should_resume_where_previous_outbox_stopped() {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        outbox.append(track("3"), 1);
+        outbox.replay(1, entry -> true);
+        outbox.close();
+        SegmentOutbox reopened = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        List<String> ids = new ArrayList<>();
+        // when
+        reopened.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        // then
+        assertThat(ids).containsExactly("2", "3");
+    }
+
+    @Test
+    void append_should_start_new_segment_if_last_segment_is_full() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, segmentBytesFor(2), SEGMENT_BYTES * 4);
+        // when
+        for (int i = 1; i <= 5; i++) {
+            outbox.append(track(String.valueOf(i)), 1);
+        }
+        // then
+        assertThat(segments()).hasSize(3);
+        assertThat(outbox.size()).isEqualTo(5);
+    }
+
+    @Test
+    void replay_should_delete_replayed_segments_but_last() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, segmentBytesFor(2), SEGMENT_BYTES * 4);
+        for (int i = 1; i <= 5; i++) {
+            outbox.append(track(String.valueOf(i)), 1);
+        }
+        List<String> ids = new ArrayList<>();
+        // when
+        outbox.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        // then
+        assertThat(ids).containsExactly("1", "2", "3", "4", "5");
+        assertThat(segments()).hasSize(1);
+    }
+
+    @Test
+    void append_should_drop_oldest_segment_if_outbox_exceeds_max_bytes() throws IOException {
+        // given
+        int segmentBytes = segmentBytesFor(2);
+        SegmentOutbox outbox = new SegmentOutbox(directory, segmentBytes, segmentBytes * 2);
+        // when
+        for (int i = 1; i <= 5; i++) {
+            outbox.append(track(String.valueOf(i)), 1);
+        }
+        // then
+        assertThat(outbox.getDropped()).isEqualTo(2);
+        assertThat(segments()).hasSize(2);
+        List<String> ids = new ArrayList<>();
+        outbox.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        assertThat(ids).containsExactly("3", "4", "5");
+    }
+
+    @Test
+    void open_should_truncate_segment_at_record_with_invalid_checksum() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        outbox.append(track("3"), 1);
+        Path segment = segments().get(0);
+        int second = Long.BYTES + FRAME_SIZE + readInt(Long.BYTES, segment);
+        // flip a byte within the record of the second message
+        write(second + FRAME_SIZE + 2, new byte[] { (byte) ~readByte(second + FRAME_SIZE + 2, segment) }, segment);
+        // when
+        outbox.close();
+        SegmentOutbox reopened = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // then
+        assertThat(reopened.size()).isEqualTo(1);
+        assertThat(readInt(second, segment)).isZero();
+    }
+
+    @Test
+    void open_should_truncate_segment_at_torn_record() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        Path segment = segments().get(0);
+        int end = Long.BYTES + FRAME_SIZE + readInt(Long.BYTES, segment);
+        // length of a record that was written without its content
+        write(end, ByteBuffer.allocate(Integer.BYTES).putInt(SEGMENT_BYTES).array(), segment);
+        outbox.close();
+        SegmentOutbox reopened = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // when
+        reopened.append(track("2"), 1);
+        // then
+        List<String> ids = new ArrayList<>();
+        reopened.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        assertThat(ids).containsExactly("1", "2");
+    }
+
+    @Test
+    void open_should_replay_all_messages_of_segment_if_read_position_is_corrupt() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.append(track("2"), 1);
+        outbox.replay(1, entry -> true);
+        Path segment = segments().get(0);
+        write(0, ByteBuffer.allocate(Long.BYTES).putLong(Long.BYTES + 1).array(), segment);
+        outbox.close();
+        SegmentOutbox reopened = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        List<String> ids = new ArrayList<>();
+        // when
+        reopened.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        // then
+        assertThat(ids).containsExactly("1", "2");
+    }
+
+    @Test
+    void open_should_delete_segments_that_were_replayed() throws IOException {
+        // given
+        SegmentOutbox outbox = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        outbox.append(track("1"), 1);
+        outbox.replay(Integer.MAX_VALUE, entry -> true);
+        outbox.close();
+        SegmentOutbox reopened = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // when
+        boolean empty = reopened.isEmpty();
+        // then
+        assertThat(empty).isTrue();
+        assertThat(segments()).isEmpty();
+    }
+
+    @Test
+    void outbox_should_NOT_use_directory_that_another_outbox_locked() {
+        // given
+        SegmentOutbox first = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        first.append(track("1"), 1);
+        SegmentOutbox second = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        // when
+        boolean appended = second.append(track("2"), 1);
+        // then
+        assertThat(appended).isFalse();
+        assertThat(second.size()).isZero();
+        assertThat(second.replay(Integer.MAX_VALUE, entry -> true)).isZero();
+        assertThat(first.append(track("3"), 1)).isTrue();
+        assertThat(first.size()).isEqualTo(2);
+    }
+
+    @Test
+    void outbox_should_adopt_messages_once_other_outbox_released_directory() {
+        // given
+        SegmentOutbox first = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        first.append(track("1"), 1);
+        first.close();
+        SegmentOutbox second = new SegmentOutbox(directory, SEGMENT_BYTES, SEGMENT_BYTES * 4);
+        List<String> ids = new ArrayList<>();
+        // when
+        second.replay(Integer.MAX_VALUE, entry -> ids.add(entry.getMessageId()));
+        // then
+        assertThat(ids).containsExactly("1");
+        assertThat(first.append(track("2"), 1)).isFalse();
+    }
+
+    private static Message track(String messageId) {
+        return TrackMessage.builder("lightsaber")
+                .messageId(messageId)
+                .userId("luke")
+                .properties(Map.of("color", "blue"))
+                .build();
+    }
+
+    /* bytes of a segment that holds the given number of track messages */
+    private static int segmentBytesFor(int messages) {
+        return Long.BYTES + messages * (FRAME_SIZE + SegmentOutbox.encode(track("1"), 1).length);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int readInt(int position, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(buffer, position);
+        }
+        return buffer.getInt(0);
+    }
+
+    private static byte readByte(int position, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(buffer, position);
+        }
+        return buffer.get(0);
+    }
+
+    private static void write(int position, byte[] bytes, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Application;
+import com.redhat.devtools.intellij.telemetry.core.service.Environment;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Fakes.environment;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_VERSION;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_VERSION;
+
+/**
+ * Compares adding the app and plugin properties to each event map with overlaying the precomputed
+ * {@link TrackProperties}. Both include the copy that the Segment client makes of the properties.
+ */
+@Disabled("For manual testing purposes only")
+class TrackPropertiesBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 1_000_000;
+
+    private final Environment environment = environment(
+            "Telemetry by Red Hat",
+            "extension-0.0.1",
+            "IntelliJ IDEA",
+            "application-1.0.0",
+            "smurfOS",
+            "red hats",
+            "0.1.0",
+            "de_CH",
+            "Europe/Bern",
+            "Switzerland");
+
+    @Test
+    void add_track_properties() {
+        environment.getIde().property("java_version", "17.0.9");
+        TrackProperties trackProperties = TrackProperties.of(environment, null);
+
+        measure("put into event properties", () -> {
+            Map<String, String> properties = eventProperties();
+            Application application = environment.getIde();
+            properties.put(PROP_APP_NAME, application.getName());
+            properties.put(PROP_APP_VERSION, application.getVersion());
+            application.getProperties().forEach(property ->
+                    properties.put(property.getKey(), String.valueOf(property.getValue())));
+            properties.put(PROP_EXTENSION_NAME, environment.getPlugin().getName());
+            properties.put(PROP_EXTENSION_VERSION, environment.getPlugin().getVersion());
+            return new LinkedHashMap<>(properties);
+        });
+        measure("overlay track properties", () ->
+                new LinkedHashMap<>(trackProperties.overlay(eventProperties())));
+    }
+
+    private static Map<String, String> eventProperties() {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("duration", "00:00:01.042");
+        properties.put("result", "success");
+        properties.put("jedi", "yoda");
+        return properties;
+    }
+
+    private static void measure(String name, Supplier<Map<String, String>> operation) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS * OPERATIONS; i++) {
+            sink += operation.get().size();
+        }
+        long best = Long.MAX_VALUE;
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytes = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int j = 0; j < OPERATIONS; j++) {
+                sink += operation.get().size();
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - bytes);
+        }
+        System.out.printf("%s: %.1f ns/op, %d bytes/op (best of %d rounds, %d ms, %d)%n",
+                name, (double) best / OPERATIONS, allocated / OPERATIONS, ROUNDS,
+                TimeUnit.NANOSECONDS.toMillis(best), sink);
+    }
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.service.segment;
+
+import com.redhat.devtools.intellij.telemetry.core.service.Environment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.redhat.devtools.intellij.telemetry.core.service.Fakes.environment;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_APP_VERSION;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_NAME;
+import static com.redhat.devtools.intellij.telemetry.core.service.segment.SegmentBroker.PROP_EXTENSION_VERSION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrackPropertiesTest {
+
+    private Environment environment;
+
+    @BeforeEach
+    void before() {
+        this.environment = environment(
+                "Telemetry by Red Hat",
+                "extension-0.0.1",
+                "IntelliJ IDEA",
+                "application-1.0.0",
+                "smurfOS",
+                "red hats",
+                "0.1.0",
+                "de_CH",
+                "Europe/Bern",
+                "Switzerland");
+    }
+
+    @Test
+    void of_should_return_existing_if_environment_did_not_change() {
+        // given
+        TrackProperties existing = TrackProperties.of(environment, null);
+        // when
+        TrackProperties trackProperties = TrackProperties.of(environment, existing);
+        // then
+        assertThat(trackProperties).isSameAs(existing);
+    }
+
+    @Test
+    void of_should_rebuild_if_ide_properties_changed() {
+        // given
+        TrackProperties existing = TrackProperties.of(environment, null);
+        environment.getIde().property("lightsaber", "green");
+        // when
+        TrackProperties trackProperties = TrackProperties.of(environment, existing);
+        // then
+        assertThat(trackProperties).isNotSameAs(existing);
+        assertThat(trackProperties.overlay(null)).containsEntry("lightsaber", "green");
+    }
+
+    @Test
+    void of_should_return_empty_if_environment_is_null() {
+        // given
+        // when
+        TrackProperties trackProperties = TrackProperties.of(null, null);
+        // then
+        assertThat(trackProperties.size()).isZero();
+    }
+
+    @Test
+    void overlay_should_contain_app_and_plugin_properties() {
+        // given
+        TrackProperties trackProperties = TrackProperties.of(environment, null);
+        // when
+        Map<String, String> merged = trackProperties.overlay(new HashMap<>());
+        // then
+        assertThat(merged)
+                .containsEntry(PROP_APP_NAME, "IntelliJ IDEA")
+                .containsEntry(PROP_APP_VERSION, "application-1.0.0")
+                .containsEntry(PROP_EXTENSION_NAME, "Telemetry by Red Hat")
+                .containsEntry(PROP_EXTENSION_VERSION, "extension-0.0.1");
+    }
+
+    @Test
+    void overlay_should_let_event_properties_override_track_properties() {
+        // given
+        TrackProperties trackProperties = TrackProperties.of(environment, null);
+        Map<String, String> properties = new HashMap<>();
+        properties.put(PROP_APP_NAME, "Eclipse");
+        properties.put("jedi", "yoda");
+        // when
+        Map<String, String> merged = trackProperties.overlay(properties);
+        // then
+        assertThat(merged.get(PROP_APP_NAME)).isEqualTo("Eclipse");
+        assertThat(merged.get("jedi")).isEqualTo("yoda");
+        assertThat(merged).hasSize(trackProperties.size() + 1);
+        assertThat(new LinkedHashMap<>(merged))
+                .containsEntry(PROP_APP_NAME, "Eclipse")
+                .hasSize(trackProperties.size() + 1);
+    }
+
+    @Test
+    void overlay_should_NOT_modify_event_properties() {
+        // given
+        TrackProperties trackProperties = TrackProperties.of(environment, null);
+        Map<String, String> properties = new HashMap<>();
+        properties.put("jedi", "yoda");
+        // when
+        Map<String, String> merged = trackProperties.overlay(properties);
+        // then
+        assertThat(properties).containsOnlyKeys("jedi");
+        assertThatThrownBy(() -> merged.put("sith", "darth vader"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void overlay_should_NOT_contain_null_values() {
+        // given
+        Environment environment = environment(
+                null,
+                "extension-0.0.1",
+                null,
+                "application-1.0.0",
+                "smurfOS",
+                "red hats",
+                "0.1.0",
+                "de_CH",
+                "Europe/Bern",
+                "Switzerland");
+        TrackProperties trackProperties = TrackProperties.of(environment, null);
+        // when
+        Map<String, String> merged = trackProperties.overlay(null);
+        // then
+        assertThat(merged)
+                .doesNotContainKey(PROP_APP_NAME)
+                .doesNotContainKey(PROP_EXTENSION_NAME)
+                .containsKey(PROP_APP_VERSION)
+                .containsKey(PROP_EXTENSION_VERSION);
+    }
+}
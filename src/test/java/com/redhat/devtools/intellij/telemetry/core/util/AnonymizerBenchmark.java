@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares anonymizing an error message in a single pass with replacing one kind after the other,
+ * and anonymizing a repeated message with and without the cache.
+ */
+@Disabled("For manual testing purposes only")
+public class AnonymizerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 2_000;
+
+    @Test
+    void anonymize() {
+        String message = createStackTrace();
+
+        measure("one kind after the other", message, AnonymizerBenchmark::replaceOneAfterTheOther);
+        measure("single pass", message, AnonymizeUtils::anonymize);
+    }
+
+    @Test
+    void anonymize_repeated_message() {
+        String message = "Could not connect to 10.0.0.12 as " + AnonymizeUtils.USER_NAME
+                + ", see " + AnonymizeUtils.HOME_DIR + "/.redhat/telemetry.log";
+        Anonymizer uncached = new Anonymizer(
+                new String[] { AnonymizeUtils.TMP_DIR, AnonymizeUtils.HOME_DIR, AnonymizeUtils.USER_NAME },
+                new String[] { AnonymizeUtils.ANONYMOUS_TMPDIR, AnonymizeUtils.ANONYMOUS_HOMEDIR, AnonymizeUtils.ANONYMOUS_USER_NAME },
+                AnonymizeUtils.ANONYMOUS_IP,
+                AnonymizeUtils.ANONYMOUS_EMAIL,
+                AnonymizeUtils.ORDER);
+
+        measure("uncached", message, uncached::anonymize);
+        measure("cached", message, AnonymizeUtils::anonymize);
+    }
+
+    private static String createStackTrace() {
+        StringBuilder builder = new StringBuilder("java.lang.IllegalStateException: could not connect to 10.0.0.12 as ")
+                .append(AnonymizeUtils.USER_NAME)
+                .append('\n');
+        for (int i = 0; i < 200; i++) {
+            builder.append("\tat org.jboss.tools.Jedi.lightsaber(Jedi.java:").append(i).append(")\n");
+        }
+        builder.append("Caused by: java.io.FileNotFoundException: ").append(AnonymizeUtils.HOME_DIR).append("/.redhat/anonymousId");
+        return builder.toString();
+    }
+
+    private static String replaceOneAfterTheOther(String message) {
+        return AnonymizeUtils.anonymizeEmail(
+                AnonymizeUtils.anonymizeUserName(
+                        AnonymizeUtils.anonymizeIP(
+                                AnonymizeUtils.anonymizeHomeDir(
+                                        AnonymizeUtils.anonymizeTmpDir(message)))));
+    }
+
+    private static void measure(String name, String message, UnaryOperator<String> anonymizer) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(message, anonymizer);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run(message, anonymizer);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %.1f us/op (best of %d rounds, %d ms)%n",
+                name, (double) best / OPERATIONS / 1000, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+
+    private static int run(String message, UnaryOperator<String> anonymizer) {
+        int length = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            length += anonymizer.apply(message).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnonymizerCacheTest {
+
+    @Test
+    void get_should_count_hits_and_misses() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 100);
+        cache.put("yoda", "<USER>");
+        // when
+        cache.get("yoda");
+        cache.get("yoda");
+        cache.get("luke");
+        // then
+        assertThat(cache.getHits()).isEqualTo(2);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void put_should_evict_least_recently_used_if_max_entries_is_exceeded() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(2, 1000, 100);
+        cache.put("yoda", "<USER>");
+        cache.put("luke", "<USER>");
+        cache.get("yoda");
+        // when
+        cache.put("leia", "<USER>");
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("luke")).isNull();
+        assertThat(cache.get("yoda")).isEqualTo("<USER>");
+        assertThat(cache.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void put_should_evict_if_max_weight_is_exceeded() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 20, 100);
+        cache.put("yoda", "<USER>"); // 10
+        cache.put("luke", "<USER>"); // 10
+        // when
+        cache.put("leia", "<USER>"); // 10
+        // then
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getWeight()).isEqualTo(20);
+        assertThat(cache.get("yoda")).isNull();
+    }
+
+    @Test
+    void put_should_weigh_unchanged_string_once() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 100);
+        String string = "Luke, I am your father.";
+        // when
+        cache.put(string, string);
+        // then
+        assertThat(cache.getWeight()).isEqualTo(string.length());
+    }
+
+    @Test
+    void put_should_replace_weight_of_existing_entry() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 100);
+        cache.put("yoda", "<USER>");
+        // when
+        cache.put("yoda", "<JEDI>");
+        // then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getWeight()).isEqualTo(10);
+    }
+
+    @Test
+    void isCacheable_should_return_false_for_string_longer_than_max_length() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 4);
+        // when
+        // then
+        assertThat(cache.isCacheable("yoda")).isTrue();
+        assertThat(cache.isCacheable("yoda!")).isFalse();
+    }
+
+    @Test
+    void anonymize_should_lookup_repeated_strings() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 100);
+        Anonymizer anonymizer = new Anonymizer(
+                new String[] { "yoda" },
+                new String[] { "<USER>" },
+                "<IP>",
+                "<EMAIL>",
+                new String[0],
+                new String[0],
+                cache,
+                0, Anonymizer.IP, Anonymizer.EMAIL);
+        String message = "yoda lost connection to 192.168.0.1";
+        // when
+        String first = anonymizer.anonymize(message);
+        String second = anonymizer.anonymize(message);
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first).isEqualTo("<USER> lost connection to <IP>");
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void anonymize_should_NOT_cache_strings_longer_than_max_length() {
+        // given
+        AnonymizerCache cache = new AnonymizerCache(10, 1000, 4);
+        Anonymizer anonymizer = new Anonymizer(
+                new String[] { "yoda" },
+                new String[] { "<USER>" },
+                "<IP>",
+                "<EMAIL>",
+                new String[0],
+                new String[0],
+                cache,
+                0);
+        // when
+        String anonymized = anonymizer.anonymize("yoda is a jedi");
+        // then
+        assertThat(anonymized).isEqualTo("<USER> is a jedi");
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getMisses()).isZero();
+    }
+}
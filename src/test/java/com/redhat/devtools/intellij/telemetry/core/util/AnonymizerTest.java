@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnonymizerTest {
+
+    private static final String TMP_DIR = "/tmp/";
+    private static final String HOME_DIR = "/home/yoda";
+    private static final String USER_NAME = "yoda";
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,6}",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern IP_PATTERN = Pattern.compile(
+            "(([01]?\\d\\d?|2[0-4]\\d|25[0-5])\\.){3}([01]?\\d\\d?|2[0-4]\\d|25[0-5])");
+
+    private final Anonymizer anonymizer = new Anonymizer(
+            new String[] { TMP_DIR, HOME_DIR, USER_NAME },
+            new String[] { "<TMPDIR>", "<HOMEDIR>", "<USER>" },
+            "<IP>",
+            "<EMAIL>",
+            0, 1, Anonymizer.IP, 2, Anonymizer.EMAIL);
+
+    @Test
+    void anonymize_should_return_same_instance_if_nothing_matches() {
+        // given
+        String message = "Luke, I am your father.";
+        // when
+        String anonymized = anonymizer.anonymize(message);
+        // then
+        assertThat(anonymized).isSameAs(message);
+    }
+
+    @Test
+    void anonymize_should_replace_all_kinds() {
+        // given
+        String message = "yoda at 192.168.0.1 wrote /home/yoda/jedi.txt and /tmp/sith.txt, mail obiwan.kenobi@jedi.org";
+        // when
+        String anonymized = anonymizer.anonymize(message);
+        // then
+        assertThat(anonymized).isEqualTo("<USER> at <IP> wrote <HOMEDIR>/jedi.txt and <TMPDIR>sith.txt, mail <EMAIL>");
+    }
+
+    @Test
+    void anonymize_should_replace_tmp_dir_before_home_dir() {
+        // given
+        Anonymizer anonymizer = new Anonymizer(
+                new String[] { "/home/yoda/tmp", "/home/yoda" },
+                new String[] { "<TMPDIR>", "<HOMEDIR>" },
+                "<IP>",
+                "<EMAIL>",
+                0, 1, Anonymizer.IP, Anonymizer.EMAIL);
+        // when
+        String anonymized = anonymizer.anonymize("/home/yoda/tmp/x in /home/yoda");
+        // then
+        assertThat(anonymized).isEqualTo("<TMPDIR>/x in <HOMEDIR>");
+    }
+
+    @Test
+    void anonymize_should_NOT_replace_email_if_user_name_is_replaced_at_its_end() {
+        // given
+        // when
+        String anonymized = anonymizer.anonymize("master.yoda@dagobah.org");
+        // then
+        assertThat(anonymized).isEqualTo("master.<USER>@dagobah.org");
+    }
+
+    @Test
+    void anonymize_should_replace_rest_of_email_if_user_name_is_replaced_at_its_start() {
+        // given
+        // when
+        String anonymized = anonymizer.anonymize("yoda.master@dagobah.org");
+        // then
+        assertThat(anonymized).isEqualTo("<USER><EMAIL>");
+    }
+
+    @Test
+    void anonymize_should_match_ip_the_way_regex_does() {
+        // given
+        // when
+        String anonymized = anonymizer.anonymize("192.168.0.255 and 1192.168.0.1 and 10.0.12");
+        // then
+        assertThat(anonymized).isEqualTo("<IP>5 and 1<IP> and 10.0.12");
+    }
+
+    @Test
+    void anonymize_should_return_same_result_as_replacing_one_kind_after_the_other() {
+        // given
+        Random random = new Random(42);
+        String[] parts = { "yoda", "/home/yoda", "/tmp/", "1", "25", "255", "0", ".", "@", "a", "x.io", "-", " ", "/" };
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                builder.append(parts[random.nextInt(parts.length)]);
+            }
+            String message = builder.toString();
+            // when
+            String anonymized = anonymizer.anonymize(message);
+            // then
+            assertThat(anonymized)
+                    .as(message)
+                    .isEqualTo(replaceOneAfterTheOther(message));
+        }
+    }
+
+    @Test
+    void anonymize_should_replace_patterns() {
+        // given
+        Anonymizer anonymizer = new Anonymizer(
+                new String[] { USER_NAME },
+                new String[] { "<USER>" },
+                "<IP>",
+                "<EMAIL>",
+                new String[] { "token=\\w+", "\\d{4}-\\d{4}" },
+                new String[] { "<TOKEN>", "<CARD>" },
+                null,
+                0, Anonymizer.pattern(0), Anonymizer.pattern(1));
+        // when
+        String anonymized = anonymizer.anonymize("yoda sent token=abc123 and 1234-5678");
+        // then
+        assertThat(anonymized).isEqualTo("<USER> sent <TOKEN> and <CARD>");
+    }
+
+    @Test
+    void anonymize_should_NOT_replace_pattern_that_overlaps_literal_that_was_applied_before() {
+        // given
+        Anonymizer anonymizer = new Anonymizer(
+                new String[] { USER_NAME },
+                new String[] { "<USER>" },
+                "<IP>",
+                "<EMAIL>",
+                new String[] { "name=\\w+" },
+                new String[] { "<NAME>" },
+                null,
+                0, Anonymizer.pattern(0));
+        // when
+        String anonymized = anonymizer.anonymize("name=yoda and name=luke");
+        // then
+        assertThat(anonymized).isEqualTo("name=<USER> and <NAME>");
+    }
+
+    @Test
+    void anonymize_should_replace_more_literals_than_bits_in_an_int() {
+        // given
+        int count = 40;
+        String[] literals = new String[count];
+        String[] replacements = new String[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            literals[i] = "jedi" + i + ";";
+            replacements[i] = "<" + i + ">";
+            order[i] = i;
+        }
+        Anonymizer anonymizer = new Anonymizer(literals, replacements, "<IP>", "<EMAIL>", order);
+        // when
+        String anonymized = anonymizer.anonymize("jedi0; jedi31; jedi39;");
+        // then
+        assertThat(anonymized).isEqualTo("<0> <31> <39>");
+    }
+
+    private static String replaceOneAfterTheOther(String message) {
+        String replaced = message.replace(TMP_DIR, "<TMPDIR>");
+        replaced = replaced.replace(HOME_DIR, "<HOMEDIR>");
+        replaced = IP_PATTERN.matcher(replaced).replaceAll("<IP>");
+        replaced = replaced.replace(USER_NAME, "<USER>");
+        return EMAIL_PATTERN.matcher(replaced).replaceAll("<EMAIL>");
+    }
+}
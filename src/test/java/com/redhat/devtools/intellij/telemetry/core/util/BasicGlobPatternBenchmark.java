@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+/**
+ * Compares matching globs with the {@link GlobAutomaton} and with the regex.
+ */
+@Disabled("For manual testing purposes only")
+public class BasicGlobPatternBenchmark {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 1_000_000;
+
+    @Test
+    void matches() {
+        List<BasicGlobPattern> globs = List.of(
+                BasicGlobPattern.compile("startup"),
+                BasicGlobPattern.compile("lightsaber-*"),
+                BasicGlobPattern.compile("*-sith-*"),
+                BasicGlobPattern.compile("{tatooine,naboo}"),
+                BasicGlobPattern.compile("jedi/**/[0-9]?"));
+        List<String> names = List.of(
+                "startup",
+                "lightsaber-duel",
+                "order-66-sith-lords",
+                "coruscant",
+                "jedi/council/42");
+
+        measure("regex", globs, names, BasicGlobPattern::matchesRegex);
+        measure("automaton", globs, names, BasicGlobPattern::matches);
+    }
+
+    private static void measure(String name, List<BasicGlobPattern> globs, List<String> names, BiPredicate<BasicGlobPattern, String> matcher) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(globs, names, matcher);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            run(globs, names, matcher);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %.1f ns/op (best of %d rounds, %d ms)%n",
+                name, (double) best / OPERATIONS, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+
+    private static int run(List<BasicGlobPattern> globs, List<String> names, BiPredicate<BasicGlobPattern, String> matcher) {
+        int matched = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (matcher.test(globs.get(i % globs.size()), names.get(i % names.size()))) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.PatternSyntaxException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobAutomatonTest {
+
+    @Test
+    void compile_should_compile_supported_globs() {
+        // given
+        String[] globs = { "yoda", "*yoda*", "jedi/**", "?oda", "{yoda,obiwan}-*", "[0-9]*", "[!a-c]", "\\*yoda" };
+        for (String glob : globs) {
+            // when
+            GlobAutomaton automaton = GlobAutomaton.compile(glob);
+            // then
+            assertThat(automaton).as(glob).isNotNull();
+        }
+    }
+
+    @Test
+    void compile_should_NOT_compile_glob_with_more_than_63_positions() {
+        // given
+        String glob = "a".repeat(64);
+        // when
+        GlobAutomaton automaton = GlobAutomaton.compile(glob);
+        // then
+        assertThat(automaton).isNull();
+        assertThat(BasicGlobPattern.compile(glob).matches(glob)).isTrue(); // regex fallback
+    }
+
+    @Test
+    void matches_should_return_unsupported_if_string_has_surrogates() {
+        // given
+        GlobAutomaton automaton = GlobAutomaton.compile("?");
+        // when
+        int matches = automaton.matches("\uD83D\uDE00"); // single code point, 2 chars
+        // then
+        assertThat(matches).isEqualTo(GlobAutomaton.UNSUPPORTED);
+        assertThat(BasicGlobPattern.compile("?").matches("\uD83D\uDE00")).isTrue(); // regex fallback
+    }
+
+    @Test
+    void matches_should_NOT_match_line_terminator_with_double_wildcard() {
+        // given
+        GlobAutomaton automaton = GlobAutomaton.compile("jedi**");
+        // when
+        int matches = automaton.matches("jedi\nmaster");
+        // then
+        assertThat(matches).isEqualTo(GlobAutomaton.NO_MATCH);
+    }
+
+    @Test
+    void matches_should_match_same_strings_as_regex() {
+        // given
+        Random random = new Random(42);
+        char[] globChars = { 'a', 'b', 'c', '/', '-', '^', '!', '&', '[', ']', '{', '}', ',', '*', '?', '\\', '\n' };
+        char[] chars = { 'a', 'b', 'c', '/', '-', '^', '!', '&', '[', ']', '{', '}', ',', '*', '?', '\\', '\n' };
+        int compared = 0;
+        while (compared < 2_000) {
+            String glob = randomString(random, globChars, 8);
+            BasicGlobPattern pattern;
+            try {
+                pattern = BasicGlobPattern.compile(glob);
+            } catch (PatternSyntaxException e) {
+                continue;
+            }
+            if (!pattern.isAutomaton()) {
+                continue;
+            }
+            for (int i = 0; i < 50; i++) {
+                String toMatch = randomString(random, chars, 6);
+                // when
+                boolean matches = pattern.matches(toMatch);
+                // then
+                assertThat(matches)
+                        .as("glob '%s' matching '%s'", glob, toMatch)
+                        .isEqualTo(pattern.matchesRegex(toMatch));
+            }
+            compared++;
+        }
+    }
+
+    private static String randomString(Random random, char[] chars, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(chars[random.nextInt(chars.length)]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.PatternSyntaxException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedactionRulesTest {
+
+    private RedactionRules global;
+    private RedactionRules plugin;
+
+    @BeforeEach
+    void before() {
+        this.global = new RedactionRules(null);
+        this.plugin = new RedactionRules(global);
+    }
+
+    @Test
+    void anonymize_should_apply_built_in_rules() {
+        // given
+        String message = AnonymizeUtils.HOME_DIR + " is at 192.168.0.1";
+        // when
+        String anonymized = plugin.anonymize(message);
+        // then
+        assertThat(anonymized).isEqualTo(AnonymizeUtils.anonymize(message));
+    }
+
+    @Test
+    void anonymize_should_apply_global_and_plugin_rules() {
+        // given
+        global.addLiteral("Death Star", "<STATION>");
+        plugin.addPattern("token=\\w+", "<TOKEN>");
+        // when
+        String anonymized = plugin.anonymize("Death Star plans with token=r2d2 leaked to 192.168.0.1");
+        // then
+        assertThat(anonymized).isEqualTo("<STATION> plans with <TOKEN> leaked to <IP>");
+    }
+
+    @Test
+    void anonymize_should_NOT_apply_plugin_rules_to_global_rules() {
+        // given
+        plugin.addLiteral("Death Star", "<STATION>");
+        // when
+        String anonymized = global.anonymize("Death Star");
+        // then
+        assertThat(anonymized).isEqualTo("Death Star");
+    }
+
+    @Test
+    void anonymize_should_apply_global_rules_before_plugin_rules() {
+        // given
+        plugin.addLiteral("Death Star", "<STATION>");
+        global.addLiteral("Star", "<STAR>");
+        // when
+        String anonymized = plugin.anonymize("Death Star");
+        // then
+        assertThat(anonymized).isEqualTo("Death <STAR>");
+    }
+
+    @Test
+    void anonymize_should_replace_leftmost_match_of_patterns_unlike_sequential_replacement() {
+        // given
+        plugin.addPattern("bc", "<BC>");
+        plugin.addPattern("ab", "<AB>");
+        String message = "abc";
+        // when
+        String anonymized = plugin.anonymize(message);
+        // then
+        assertThat(message.replaceAll("bc", "<BC>").replaceAll("ab", "<AB>")).isEqualTo("a<BC>");
+        assertThat(anonymized).isEqualTo("<AB>c");
+    }
+
+    @Test
+    void anonymize_should_NOT_match_patterns_in_replacements_unlike_sequential_replacement() {
+        // given
+        plugin.addPattern("jedi", "<JEDI>");
+        plugin.addPattern("<JEDI> \\w+", "<NAME>");
+        String message = "jedi luke";
+        // when
+        String anonymized = plugin.anonymize(message);
+        // then
+        assertThat(message.replaceAll("jedi", "<JEDI>").replaceAll("<JEDI> \\w+", "<NAME>")).isEqualTo("<NAME>");
+        assertThat(anonymized).isEqualTo("<JEDI> luke");
+    }
+
+    @Test
+    void getAnonymizer_should_NOT_compile_again_if_rules_did_NOT_change() {
+        // given
+        plugin.addLiteral("Death Star", "<STATION>");
+        Anonymizer compiled = plugin.getAnonymizer();
+        // when
+        Anonymizer anonymizer = plugin.getAnonymizer();
+        // then
+        assertThat(anonymizer).isSameAs(compiled);
+    }
+
+    @Test
+    void getAnonymizer_should_compile_again_if_plugin_rules_changed() {
+        // given
+        Anonymizer compiled = plugin.getAnonymizer();
+        plugin.addLiteral("Death Star", "<STATION>");
+        // when
+        Anonymizer anonymizer = plugin.getAnonymizer();
+        // then
+        assertThat(anonymizer).isNotSameAs(compiled);
+        assertThat(anonymizer.anonymize("Death Star")).isEqualTo("<STATION>");
+    }
+
+    @Test
+    void getAnonymizer_should_compile_again_if_global_rules_changed() {
+        // given
+        Anonymizer compiled = plugin.getAnonymizer();
+        global.addLiteral("Death Star", "<STATION>");
+        // when
+        Anonymizer anonymizer = plugin.getAnonymizer();
+        // then
+        assertThat(anonymizer).isNotSameAs(compiled);
+        assertThat(anonymizer.anonymize("Death Star")).isEqualTo("<STATION>");
+    }
+
+    @Test
+    void remove_should_remove_rule() {
+        // given
+        plugin.addLiteral("Death Star", "<STATION>")
+                .addPattern("token=\\w+", "<TOKEN>");
+        // when
+        boolean removed = plugin.remove("Death Star");
+        // then
+        assertThat(removed).isTrue();
+        assertThat(plugin.anonymize("Death Star token=r2d2")).isEqualTo("Death Star <TOKEN>");
+    }
+
+    @Test
+    void clear_should_remove_rules_but_NOT_built_in_rules() {
+        // given
+        plugin.addLiteral("Death Star", "<STATION>");
+        // when
+        plugin.clear();
+        // then
+        assertThat(plugin.anonymize("Death Star at 192.168.0.1")).isEqualTo("Death Star at <IP>");
+    }
+
+    @Test
+    void addPattern_should_throw_if_regex_is_invalid() {
+        // given
+        // when
+        // then
+        assertThatThrownBy(() -> plugin.addPattern("token=(", "<TOKEN>"))
+                .isInstanceOf(PatternSyntaxException.class);
+    }
+
+    @Test
+    void forPlugin_should_return_same_rules_for_same_plugin() {
+        // given
+        // when
+        RedactionRules rules = RedactionRules.forPlugin("jedi");
+        // then
+        assertThat(rules).isSameAs(RedactionRules.forPlugin("jedi"));
+        assertThat(rules).isNotSameAs(RedactionRules.forPlugin("sith"));
+    }
+}
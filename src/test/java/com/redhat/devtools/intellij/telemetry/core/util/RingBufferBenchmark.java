@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RingBuffer} with {@link CircularBuffer}.
+ * {@link CircularBuffer} is not thread-safe and is thus only measured single-threaded.
+ */
+@Disabled("For manual testing purposes only")
+@SuppressWarnings("deprecation")
+class RingBufferBenchmark {
+
+    private static final int CAPACITY = 64;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final int OPERATIONS = 5_000_000;
+    private static final int THREADS = 4;
+
+    @Test
+    void offer_and_poll_single_threaded() {
+        CircularBuffer<Integer> circular = new CircularBuffer<>(CAPACITY);
+        RingBuffer<Integer> ring = new RingBuffer<>(CAPACITY);
+        Integer element = 42;
+
+        measure("CircularBuffer offer/poll", () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                circular.offer(element);
+                circular.poll();
+            }
+        });
+        measure("RingBuffer offer/poll", () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                ring.offer(element);
+                ring.poll();
+            }
+        });
+    }
+
+    @Test
+    void offer_and_poll_multi_threaded() {
+        RingBuffer<Integer> ring = new RingBuffer<>(CAPACITY);
+        Integer element = 42;
+
+        measure("RingBuffer offer/poll " + THREADS + " threads", () -> {
+            CountDownLatch done = new CountDownLatch(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                new Thread(() -> {
+                    for (int i = 0; i < OPERATIONS / THREADS; i++) {
+                        ring.offer(element);
+                        ring.poll();
+                    }
+                    done.countDown();
+                }).start();
+            }
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void measure(String name, Runnable operations) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            operations.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            operations.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s: %.1f ns/op (best of %d rounds, %d ms)%n",
+                name, (double) best / OPERATIONS, ROUNDS, TimeUnit.NANOSECONDS.toMillis(best));
+    }
+}
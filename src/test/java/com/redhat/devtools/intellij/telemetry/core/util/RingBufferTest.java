@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RingBufferTest {
+
+    @Test
+    void capacity_should_be_rounded_up_to_power_of_two() {
+        // given
+        // when
+        RingBuffer<String> buffer = new RingBuffer<>(35);
+        // then
+        assertThat(buffer.capacity()).isEqualTo(64);
+    }
+
+    @Test
+    void capacity_should_be_at_least_2() {
+        // given
+        // when
+        RingBuffer<String> buffer = new RingBuffer<>(0);
+        // then
+        assertThat(buffer.capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void poll_should_return_elements_in_order_they_were_offered() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        buffer.offer("luke");
+        // when
+        List<String> polled = buffer.pollAll();
+        // then
+        assertThat(polled).containsExactly("yoda", "obiwan", "luke");
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void poll_should_return_null_if_empty() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+        // when
+        String polled = buffer.poll();
+        // then
+        assertThat(polled).isNull();
+    }
+
+    @Test
+    void offer_should_throw_if_element_is_null() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+        // when
+        // then
+        assertThatThrownBy(() -> buffer.offer(null))
+                .isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    void offer_should_wrap_around_many_times() {
+        // given
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+        // when
+        for (int i = 0; i < 1000; i++) {
+            buffer.offer(i);
+            polled.add(buffer.poll());
+        }
+        // then
+        assertThat(polled).hasSize(1000);
+        assertThat(polled.get(999)).isEqualTo(999);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void offer_should_drop_new_element_if_full_and_policy_is_DROP_NEWEST() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(2, RingBuffer.OverflowPolicy.DROP_NEWEST);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        // when
+        boolean added = buffer.offer("luke");
+        // then
+        assertThat(added).isFalse();
+        assertThat(buffer.getDropped()).isEqualTo(1);
+        assertThat(buffer.pollAll()).containsExactly("yoda", "obiwan");
+    }
+
+    @Test
+    void offer_should_drop_oldest_element_if_full_and_policy_is_DROP_OLDEST() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(2, RingBuffer.OverflowPolicy.DROP_OLDEST);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        // when
+        boolean added = buffer.offer("luke");
+        // then
+        assertThat(added).isTrue();
+        assertThat(buffer.getDropped()).isEqualTo(1);
+        assertThat(buffer.pollAll()).containsExactly("obiwan", "luke");
+    }
+
+    @Test
+    void offer_should_drop_new_element_if_full_and_policy_is_BLOCK_and_timeout_elapsed() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(2, RingBuffer.OverflowPolicy.BLOCK, 50, TimeUnit.MILLISECONDS);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        // when
+        boolean added = buffer.offer("luke");
+        // then
+        assertThat(added).isFalse();
+        assertThat(buffer.getDropped()).isEqualTo(1);
+    }
+
+    @Test
+    void offer_should_add_element_if_full_and_policy_is_BLOCK_and_element_is_polled_in_time() throws InterruptedException {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(2, RingBuffer.OverflowPolicy.BLOCK, 5, TimeUnit.SECONDS);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        Thread consumer = new Thread(() -> {
+            sleep(50);
+            buffer.poll();
+        });
+        consumer.start();
+        // when
+        boolean added = buffer.offer("luke");
+        // then
+        consumer.join();
+        assertThat(added).isTrue();
+        assertThat(buffer.getDropped()).isZero();
+        assertThat(buffer.pollAll()).containsExactly("obiwan", "luke");
+    }
+
+    @Test
+    void clear_should_remove_all_elements() {
+        // given
+        RingBuffer<String> buffer = new RingBuffer<>(4);
+        buffer.offer("yoda");
+        buffer.offer("obiwan");
+        // when
+        buffer.clear();
+        // then
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrent_producers_and_consumers_should_neither_lose_nor_duplicate_elements() throws InterruptedException {
+        // given
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 20_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(64, RingBuffer.OverflowPolicy.BLOCK, 10, TimeUnit.SECONDS);
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch produced = new CountDownLatch(producers);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        // when
+        for (int p = 0; p < producers; p++) {
+            int offset = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.offer(offset + i);
+                }
+                produced.countDown();
+            });
+        }
+        for (int c = 0; c < consumers; c++) {
+            executor.execute(() -> {
+                while (produced.getCount() > 0
+                        || !buffer.isEmpty()) {
+                    Integer element = buffer.poll();
+                    if (element != null
+                            && !consumed.add(element)) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        // then
+        assertThat(duplicates.get()).isZero();
+        assertThat(buffer.getDropped()).isZero();
+        assertThat(consumed).hasSize(producers * perProducer);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
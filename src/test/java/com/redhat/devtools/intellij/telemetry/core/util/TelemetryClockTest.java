@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryClockTest {
+
+    private static final ZoneId ZURICH = ZoneId.of("Europe/Zurich");
+    /* daylight saving time starts at 2:00 on March 30th 2025 in Zurich */
+    private static final LocalDate DST_START = LocalDate.of(2025, 3, 30);
+
+    @Test
+    void epochDay_should_change_at_midnight() {
+        // given
+        AtomicLong now = new AtomicLong(toEpochMilli(LocalDate.of(2025, 6, 1).atTime(23, 59)));
+        TelemetryClock clock = new TelemetryClock(now::get, ZURICH);
+        long today = clock.epochDay();
+        // when
+        now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        // then
+        assertThat(clock.epochDay()).isEqualTo(today + 1);
+        assertThat(clock.now()).isEqualTo(LocalDate.of(2025, 6, 2).atStartOfDay());
+    }
+
+    @Test
+    void isToday_should_return_true_for_second_within_current_day() {
+        // given
+        AtomicLong now = new AtomicLong(toEpochMilli(LocalDate.of(2025, 6, 1).atTime(LocalTime.NOON)));
+        TelemetryClock clock = new TelemetryClock(now::get, ZURICH);
+        long startOfDay = TimeUnit.MILLISECONDS.toSeconds(toEpochMilli(LocalDate.of(2025, 6, 1).atStartOfDay()));
+        // when
+        // then
+        assertThat(clock.isToday(startOfDay)).isTrue();
+        assertThat(clock.isToday(startOfDay - 1)).isFalse();
+        assertThat(clock.isToday(startOfDay + TimeUnit.DAYS.toSeconds(1))).isFalse();
+        assertThat(clock.startOfDay()).isEqualTo(startOfDay);
+    }
+
+    @Test
+    void isToday_should_return_false_for_local_date_time_of_yesterday() {
+        // given
+        AtomicLong now = new AtomicLong(toEpochMilli(LocalDate.of(2025, 6, 1).atTime(LocalTime.NOON)));
+        TelemetryClock clock = new TelemetryClock(now::get, ZURICH);
+        // when
+        // then
+        assertThat(clock.isToday(LocalDate.of(2025, 5, 31).atTime(LocalTime.NOON))).isFalse();
+        assertThat(clock.isToday(LocalDate.of(2025, 6, 1).atTime(LocalTime.MIDNIGHT))).isTrue();
+        assertThat(clock.isToday((LocalDateTime) null)).isFalse();
+    }
+
+    @Test
+    void offset_should_change_when_daylight_saving_time_starts() {
+        // given
+        AtomicLong now = new AtomicLong(toEpochMilli(DST_START.atTime(1, 59)));
+        TelemetryClock clock = new TelemetryClock(now::get, ZURICH);
+        ZoneOffset winter = clock.offset();
+        long today = clock.epochDay();
+        // when
+        now.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        // then
+        assertThat(winter).isEqualTo(ZoneOffset.ofHours(1));
+        assertThat(clock.offset()).isEqualTo(ZoneOffset.ofHours(2));
+        assertThat(clock.epochDay()).isEqualTo(today);
+        assertThat(clock.now()).isEqualTo(DST_START.atTime(3, 0));
+    }
+
+    @Test
+    void toEpochDay_should_return_local_day_of_given_second() {
+        // given
+        AtomicLong now = new AtomicLong(toEpochMilli(LocalDate.of(2025, 6, 1).atTime(LocalTime.NOON)));
+        TelemetryClock clock = new TelemetryClock(now::get, ZURICH);
+        // 0:30 in Zurich is still the previous day in UTC
+        long epochSecond = TimeUnit.MILLISECONDS.toSeconds(toEpochMilli(LocalDate.of(2025, 1, 15).atTime(0, 30)));
+        // when
+        long epochDay = clock.toEpochDay(epochSecond);
+        // then
+        assertThat(epochDay).isEqualTo(LocalDate.of(2025, 1, 15).toEpochDay());
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZURICH).toInstant().toEpochMilli();
+    }
+}
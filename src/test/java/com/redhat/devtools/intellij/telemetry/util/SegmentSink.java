@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A local stand-in for the Segment batch endpoint. It accepts and decodes the batches that a Segment
+ * {@link com.segment.analytics.Analytics} client posts and counts them and their messages.
+ * It can delay responses and fail a share of the requests to emulate a slow or unreliable endpoint.
+ *
+ * <pre><code>
+ * SegmentSink sink = SegmentSink.start();
+ * Analytics analytics = Analytics.builder(writeKey)
+ *      .endpoint(sink.getEndpoint())
+ *      .build();
+ * </code></pre>
+ */
+public class SegmentSink implements AutoCloseable {
+
+    private static final String BATCH_PATH = "/v1/import";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long latency = 0;
+    private volatile double failureRate = 0;
+    private volatile int failureStatus = 500;
+    private volatile Consumer<JsonObject> listener = message -> {};
+
+    public static SegmentSink start() throws IOException {
+        return new SegmentSink();
+    }
+
+    private SegmentSink() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Segment Sink");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(BATCH_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the endpoint to configure the Segment client with.
+     *
+     * @return the endpoint of this sink
+     */
+    public String getEndpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Delays each response by the given time.
+     *
+     * @param latency the delay
+     * @param unit the unit of the delay
+     * @return this sink
+     */
+    public SegmentSink latency(long latency, TimeUnit unit) {
+        this.latency = unit.toMillis(latency);
+        return this;
+    }
+
+    /**
+     * Fails the given share of the requests with a server error. Failed batches are not counted.
+     *
+     * @param failureRate the share of requests to fail, between 0 and 1
+     * @return this sink
+     */
+    public SegmentSink failureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * Sets the status that failed requests are responded with. The Segment client retries server errors
+     * but gives up on client errors right away.
+     *
+     * @param failureStatus the status of failed requests
+     * @return this sink
+     */
+    public SegmentSink failureStatus(int failureStatus) {
+        this.failureStatus = failureStatus;
+        return this;
+    }
+
+    /**
+     * Notifies the given listener of each message that is received. The listener is called on the threads of
+     * the sink and must be thread-safe.
+     *
+     * @param listener the listener to notify
+     * @return this sink
+     */
+    public SegmentSink listener(Consumer<JsonObject> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            JsonObject batch = decode(exchange);
+            sleep(latency);
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                respond(failureStatus, "{\"success\":false}", exchange);
+                return;
+            }
+            JsonArray received = batch.getAsJsonArray("batch");
+            batches.incrementAndGet();
+            if (received != null) {
+                messages.addAndGet(received.size());
+                for (JsonElement message : received) {
+                    listener.accept(message.getAsJsonObject());
+                }
+            }
+            respond(200, "{\"success\":true}", exchange);
+        } catch (RuntimeException e) {
+            respond(400, "{\"success\":false}", exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static JsonObject decode(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader).getAsJsonObject();
+        }
+    }
+
+    private static void respond(int status, String body, HttpExchange exchange) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
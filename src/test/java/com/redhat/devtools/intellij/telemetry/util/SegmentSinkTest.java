@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Red Hat, Inc.
+ * Distributed under license by Red Hat, Inc. All rights reserved.
+ * This program is made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at http://www.eclipse.org/legal/epl-v20.html
+ *
+ * Contributors:
+ * Red Hat, Inc. - initial API and implementation
+ ******************************************************************************/
+package com.redhat.devtools.intellij.telemetry.util;
+
+import com.google.gson.JsonObject;
+import com.segment.analytics.Analytics;
+import com.segment.analytics.messages.TrackMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentSinkTest {
+
+    private SegmentSink sink;
+    private Analytics analytics;
+
+    @BeforeEach
+    void before() throws IOException {
+        this.sink = SegmentSink.start();
+        this.analytics = Analytics.builder("jedi")
+                .endpoint(sink.getEndpoint())
+                .retries(1)
+                .build();
+    }
+
+    @AfterEach
+    void after() {
+        analytics.shutdown();
+        sink.close();
+    }
+
+    @Test
+    void should_receive_and_decode_batch() throws InterruptedException {
+        // given
+        List<JsonObject> received = new CopyOnWriteArrayList<>();
+        sink.listener(received::add);
+        // when
+        analytics.enqueue(TrackMessage.builder("lightsaber")
+                .userId("luke")
+                .properties(Map.of("color", "blue")));
+        analytics.enqueue(TrackMessage.builder("force push")
+                .userId("luke"));
+        analytics.flush();
+        // then
+        assertThat(await(() -> sink.getMessages() == 2)).isTrue();
+        assertThat(sink.getBatches()).isEqualTo(1);
+        assertThat(received.get(0).get("event").getAsString()).isEqualTo("lightsaber");
+        assertThat(received.get(0).getAsJsonObject("properties").get("color").getAsString()).isEqualTo("blue");
+    }
+
+    @Test
+    void should_fail_requests_and_NOT_count_their_messages() throws InterruptedException {
+        // given
+        sink.failureRate(1);
+        // when
+        analytics.enqueue(TrackMessage.builder("lightsaber")
+                .userId("luke"));
+        analytics.flush();
+        // then
+        assertThat(await(() -> sink.getFailures() > 0)).isTrue();
+        assertThat(sink.getMessages()).isZero();
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > timeout) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}